@@ -0,0 +1,157 @@
+package com.globalbuddy.benchmark;
+
+import com.globalbuddy.util.ScriptScanner;
+import com.globalbuddy.util.ScriptStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Script detection: the regex-per-character detector that LanguageDetectionService used before
+ * ScriptScanner, against ScriptScanner.scan
+ * Run with: mvn -Pbenchmark test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScriptDetectionBenchmark {
+
+    private static final Pattern CHINESE_PATTERN = Pattern.compile("[\u4E00-\u9FFF]");  // CJK Unified Ideographs
+    private static final Pattern THAI_PATTERN = Pattern.compile("[\u0E00-\u0E7F]");    // Thai
+    private static final Pattern ENGLISH_PATTERN = Pattern.compile("[a-zA-Z]");
+
+    private static final String[] CHINESE_COMMON_WORDS = {"的", "是", "在", "我", "有", "和", "了", "不", "人", "这"};
+    private static final String[] THAI_COMMON_WORDS = {"และ", "ใน", "เป็น", "ของ", "ที่", "จะ", "ได้", "นี้", "กับ", "เขา"};
+    private static final String[] ENGLISH_COMMON_WORDS = {"the", "be", "to", "of", "and", "a", "in", "that", "have", "I"};
+
+    private static final String ZH = "清迈大学国际学院今天发布了新学期的选课通知，留学生需要在本周五之前完成网上登记。"
+            + "学校提醒大家注意签证延期的时间，并且可以在学生服务中心咨询相关问题。";
+    private static final String TH = "มหาวิทยาลัยเชียงใหม่ประกาศตารางเรียนภาคการศึกษาใหม่ และนักศึกษาต่างชาติจะต้องลงทะเบียนออนไลน์"
+            + "ให้เสร็จก่อนวันศุกร์นี้ ที่ศูนย์บริการนักศึกษาสามารถสอบถามเรื่องวีซ่าได้";
+    private static final String EN = "Chiang Mai University announced the course registration schedule for the new term, "
+            + "and international students have to register online before Friday. Visa questions can be asked at the student service centre.";
+    private static final String MIXED = "CMU 国际学院 announced registration: นักศึกษาต่างชาติ should 在本周五之前 complete the form.";
+
+    @Param({"zh", "th", "en", "mixed"})
+    private String language;
+
+    /** Repeated to roughly the length of a news article */
+    @Param({"1", "20"})
+    private int repeat;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        String sample = switch (language) {
+            case "zh" -> ZH;
+            case "th" -> TH;
+            case "en" -> EN;
+            default -> MIXED;
+        };
+        text = (sample + " ").repeat(repeat);
+    }
+
+    /**
+     * Character pass of the old detector: one String and one regex match per letter
+     */
+    @Benchmark
+    public int regexCounts() {
+        int[] counts = new int[4];
+        regexCount(text, counts);
+        return counts[0] + counts[1] + counts[2] + counts[3];
+    }
+
+    /**
+     * The old detector end to end: character pass, split, and the common-word checks
+     */
+    @Benchmark
+    public String regexDetectLanguage() {
+        int[] counts = new int[4];
+        regexCount(text, counts);
+        int chineseCount = counts[0];
+        int thaiCount = counts[1];
+        int englishWordCount = counts[2];
+        int totalChars = counts[3];
+        int wordCount = text.split("\\s+").length;
+        if (totalChars == 0) {
+            return "unknown";
+        }
+        double chineseRatio = (double) chineseCount / totalChars;
+        double thaiRatio = (double) thaiCount / totalChars;
+        double englishRatio = wordCount > 0 ? (double) englishWordCount / wordCount : 0;
+        int thaiWordMatches = countCommonWords(text, THAI_COMMON_WORDS);
+        int englishWordMatches = countCommonWords(text.toLowerCase(), ENGLISH_COMMON_WORDS);
+        countCommonWords(text, CHINESE_COMMON_WORDS);
+
+        if (chineseRatio > 0.1 && chineseCount >= 2) {
+            return "zh";
+        }
+        if (thaiRatio > 0.2 && thaiWordMatches >= 1) {
+            return "th";
+        }
+        if (englishRatio > 0.3 && englishWordMatches >= 1) {
+            return "en";
+        }
+        if (chineseCount >= 1) {
+            return "zh";
+        } else if (thaiRatio > 0.15) {
+            return "th";
+        } else if (englishRatio > 0.2) {
+            return "en";
+        }
+        if (thaiCount > 0 && thaiCount > englishWordCount) {
+            return "th";
+        } else if (englishWordCount > 0) {
+            return "en";
+        }
+        return "unknown";
+    }
+
+    @Benchmark
+    public ScriptStats scriptScannerScan() {
+        return ScriptScanner.scan(text);
+    }
+
+    private static void regexCount(String text, int[] counts) {
+        for (char c : text.toCharArray()) {
+            if (Character.isLetter(c) || Character.isIdeographic(c)) {
+                counts[3]++;
+                String charStr = String.valueOf(c);
+                if (CHINESE_PATTERN.matcher(charStr).find()) {
+                    counts[0]++;
+                } else if (THAI_PATTERN.matcher(charStr).find()) {
+                    counts[1]++;
+                } else if (ENGLISH_PATTERN.matcher(charStr).find()) {
+                    if (charStr.matches("[a-zA-Z]")) {
+                        counts[2]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int countCommonWords(String text, String[] commonWords) {
+        int count = 0;
+        for (String word : commonWords) {
+            if (text.contains(word)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
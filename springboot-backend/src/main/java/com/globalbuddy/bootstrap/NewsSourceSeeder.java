@@ -0,0 +1,82 @@
+package com.globalbuddy.bootstrap;
+
+import com.globalbuddy.model.NewsSource;
+import com.globalbuddy.repository.NewsSourceRepository;
+import com.globalbuddy.service.NewsSourceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Seeds the news source registry with the feeds the crawler used to have hard-coded
+ */
+@Component
+@RequiredArgsConstructor
+public class NewsSourceSeeder implements CommandLineRunner {
+
+    private final NewsSourceRepository newsSourceRepository;
+
+    @Override
+    public void run(String... args) {
+        if (newsSourceRepository.count() > 0) {
+            return;
+        }
+
+        // Thai news websites (RSS)
+        List<NewsSource> sources = List.of(
+            rss("Thai Rath (ไทยรัฐ)", "https://www.thairath.co.th/rss", NewsSourceRegistry.GROUP_THAI_NEWS, "thairath", 15),
+            rss("Matichon (มติชน)", "https://www.matichon.co.th/feed", NewsSourceRegistry.GROUP_THAI_NEWS, "wordpress", 15),
+            rss("Khaosod (ข่าวสด)", "https://www.khaosod.co.th/feed", NewsSourceRegistry.GROUP_THAI_NEWS, "wordpress", 15),
+            rss("Post Today", "https://www.posttoday.com/rss", NewsSourceRegistry.GROUP_THAI_NEWS, null, 15),
+            rss("Bangkok Post", "https://www.bangkokpost.com/rss.xml", NewsSourceRegistry.GROUP_THAI_NEWS, "bangkokpost", 15),
+            rss("The Nation Thailand", "https://www.nationthailand.com/rss", NewsSourceRegistry.GROUP_THAI_NEWS, "nationthailand", 15),
+            rss("Prachachat (ประชาชาติธุรกิจ)", "https://www.prachachat.net/feed", NewsSourceRegistry.GROUP_THAI_NEWS, "wordpress", 15)
+        );
+        newsSourceRepository.saveAll(sources);
+
+        // Chiang Mai University related sources: RSS with candidate endpoints, HTML list pages as fallback
+        NewsSource consulateRss = rss("中国驻清迈总领馆", "https://chiangmai.china-consulate.gov.cn/rss.xml",
+                NewsSourceRegistry.GROUP_CMU, "consulate", 20);
+        consulateRss.setCandidateUrls(List.of(
+                "https://chiangmai.china-consulate.gov.cn/feed",
+                "https://chiangmai.china-consulate.gov.cn/xwdt/rss.xml"));
+        NewsSource cmuacRss = rss("清迈大学校友会 (CMUAC)", "https://cmuac.com/feed",
+                NewsSourceRegistry.GROUP_CMU, "wordpress", 20);
+        cmuacRss.setCandidateUrls(List.of("https://cmuac.com/rss", "https://cmuac.com/rss.xml"));
+        NewsSource visaRss = rss("泰国电子签证", "https://www.thaievisa.go.th/feed",
+                NewsSourceRegistry.GROUP_CMU, null, 20);
+        visaRss.setCandidateUrls(List.of("https://www.thaievisa.go.th/rss", "https://www.thaievisa.go.th/rss.xml"));
+        newsSourceRepository.saveAll(List.of(consulateRss, cmuacRss, visaRss));
+
+        newsSourceRepository.saveAll(List.of(
+            html("清迈大学校友会 (CMUAC)", "https://cmuac.com/", NewsSourceRegistry.CRAWLER_CMUAC, "wordpress"),
+            html("中国驻清迈总领馆", "https://chiangmai.china-consulate.gov.cn/", NewsSourceRegistry.CRAWLER_CONSULATE, "consulate"),
+            html("泰国电子签证", "https://www.thaievisa.go.th/", NewsSourceRegistry.CRAWLER_THAI_VISA, null)
+        ));
+    }
+
+    private NewsSource rss(String name, String url, String group, String selectorProfile, int maxItems) {
+        return NewsSource.builder()
+                .name(name)
+                .url(url)
+                .type(NewsSource.SourceType.RSS)
+                .group(group)
+                .selectorProfile(selectorProfile)
+                .maxItems(maxItems)
+                .build();
+    }
+
+    private NewsSource html(String name, String url, String crawler, String selectorProfile) {
+        return NewsSource.builder()
+                .name(name)
+                .url(url)
+                .type(NewsSource.SourceType.HTML)
+                .group(NewsSourceRegistry.GROUP_CMU)
+                .htmlCrawler(crawler)
+                .selectorProfile(selectorProfile)
+                .maxItems(15)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.globalbuddy.config;
+
+import com.globalbuddy.service.DashScopeLlmProvider;
+import com.globalbuddy.service.FixtureLlmProvider;
+import com.globalbuddy.service.LlmProvider;
+import com.globalbuddy.service.StubLlmProvider;
+import com.globalbuddy.util.TextAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Selects the backend behind the LlmGateway
+ * llm.provider:
+ * - dashscope: real DashScope API (default)
+ * - stub: deterministic offline answers, see llm.stub.*
+ * - record: DashScope API, every answer is also written to llm.fixtures.dir
+ * - replay: answers only from llm.fixtures.dir, no network access
+ */
+@Slf4j
+@Configuration
+public class LlmProviderConfig {
+
+    @Value("${llm.provider:dashscope}")
+    private String provider;
+
+    @Value("${dashscope.api.key:}")
+    private String apiKey;
+
+    @Value("${llm.model:qwen-max-2025-01-25}")
+    private String defaultModel;
+
+    @Value("${llm.stub.latency-ms:200}")
+    private long stubLatencyMs;
+
+    @Value("${llm.stub.latency-jitter-ms:100}")
+    private long stubLatencyJitterMs;
+
+    @Value("${llm.stub.error-rate:0}")
+    private double stubErrorRate;
+
+    @Value("${llm.stub.response-chars:200}")
+    private int stubResponseChars;
+
+    @Value("${llm.stub.seed:42}")
+    private long stubSeed;
+
+    @Value("${llm.stub.embedding-dimensions:256}")
+    private int stubEmbeddingDimensions;
+
+    @Value("${llm.fixtures.dir:llm-fixtures}")
+    private String fixturesDir;
+
+    @Bean
+    public LlmProvider llmProvider(TextAnalyzer textAnalyzer) {
+        switch (provider.trim().toLowerCase()) {
+            case "stub":
+                log.warn("LLM provider: offline stub, no real model is called");
+                return new StubLlmProvider(stubLatencyMs, stubLatencyJitterMs, stubErrorRate, stubResponseChars, stubSeed,
+                        stubEmbeddingDimensions, textAnalyzer);
+            case "record":
+                log.info("LLM provider: DashScope, recording fixtures to {}", fixturesDir);
+                return new FixtureLlmProvider(dashScope(), Paths.get(fixturesDir), FixtureLlmProvider.Mode.RECORD, defaultModel);
+            case "replay":
+                log.warn("LLM provider: replaying fixtures from {}, no real model is called", fixturesDir);
+                return new FixtureLlmProvider(null, Paths.get(fixturesDir), FixtureLlmProvider.Mode.REPLAY, defaultModel);
+            case "dashscope":
+                return dashScope();
+            default:
+                throw new IllegalStateException("Unknown llm.provider: " + provider + " (dashscope, stub, record or replay)");
+        }
+    }
+
+    private DashScopeLlmProvider dashScope() {
+        if (apiKey == null || apiKey.isEmpty()) {
+            log.warn("DashScope API Key not configured, LLM calls will fail (set dashscope.api.key or llm.provider=stub)");
+        }
+        return new DashScopeLlmProvider(apiKey, defaultModel);
+    }
+}
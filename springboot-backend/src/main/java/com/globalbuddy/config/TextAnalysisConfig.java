@@ -0,0 +1,56 @@
+package com.globalbuddy.config;
+
+import com.globalbuddy.util.TextAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text analysis chain shared by the search index, SemanticService scoring and the offline
+ * embedding stub, so indexed and query text are always tokenized the same way
+ * Word lists are loaded from classpath:analysis/ (one entry per line, # for comments).
+ */
+@Slf4j
+@Configuration
+public class TextAnalysisConfig {
+
+    @Value("${analysis.chinese-dictionary:analysis/zh-words.txt}")
+    private String chineseDictionary;
+
+    @Value("${analysis.stop-words:analysis/stopwords-en.txt}")
+    private String stopWords;
+
+    @Value("${analysis.max-terms:1000000}")
+    private int maxTerms;
+
+    @Bean
+    public TextAnalyzer textAnalyzer() {
+        List<String> words = readList(chineseDictionary);
+        List<String> stops = readList(stopWords);
+        log.info("Text analyzer: {} Chinese dictionary words, {} stop words", words.size(), stops.size());
+        return new TextAnalyzer(words, stops, maxTerms);
+    }
+
+    private static List<String> readList(String path) {
+        List<String> entries = new ArrayList<>();
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                String entry = line.trim();
+                if (!entry.isEmpty() && !entry.startsWith("#")) {
+                    entries.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Word list {} not found, continuing without it: {}", path, e.getMessage());
+        }
+        return entries;
+    }
+}
@@ -1,14 +1,24 @@
 package com.globalbuddy.controller;
 
+import com.globalbuddy.dto.NewsSourceRequest;
 import com.globalbuddy.dto.UserDTO;
 import com.globalbuddy.model.AppUser;
 import com.globalbuddy.model.CommunityPost;
+import com.globalbuddy.model.NewsSource;
 import com.globalbuddy.repository.AppUserRepository;
 import com.globalbuddy.repository.CommunityPostRepository;
 import com.globalbuddy.repository.CommentRepository;
 import com.globalbuddy.repository.PostLikeRepository;
+import com.globalbuddy.service.EmbeddingService;
 import com.globalbuddy.service.LanguageDetectionService;
+import com.globalbuddy.service.LlmGateway;
+import com.globalbuddy.service.NewsSourceRegistry;
+import com.globalbuddy.service.NlpService;
+import com.globalbuddy.service.SearchIndexService;
+import com.globalbuddy.service.SynonymService;
 import com.globalbuddy.service.TranslationService;
+import com.globalbuddy.service.TranslationQueueService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -44,6 +54,13 @@ public class AdminController {
     private final LanguageDetectionService languageDetectionService;
     private final CommentRepository commentRepository;
     private final PostLikeRepository postLikeRepository;
+    private final NewsSourceRegistry newsSourceRegistry;
+    private final TranslationQueueService translationQueueService;
+    private final LlmGateway llmGateway;
+    private final SearchIndexService searchIndexService;
+    private final EmbeddingService embeddingService;
+    private final SynonymService synonymService;
+    private final NlpService nlpService;
 
     // ============ 用户管理 ============
 
@@ -238,6 +255,152 @@ public class AdminController {
             .orElse(ResponseEntity.notFound().build());
     }
 
+    // ============ 新闻源管理 ============
+
+    /**
+     * 获取所有新闻源
+     * GET /api/admin/news-sources
+     */
+    @GetMapping("/news-sources")
+    public ResponseEntity<?> listNewsSources() {
+        return ResponseEntity.ok(Map.of("data", newsSourceRegistry.listAll()));
+    }
+
+    /**
+     * 添加新闻源（无需重新部署，下次抓取生效）
+     * POST /api/admin/news-sources
+     */
+    @PostMapping("/news-sources")
+    public ResponseEntity<?> createNewsSource(@Valid @RequestBody NewsSourceRequest request) {
+        try {
+            NewsSource source = newsSourceRegistry.create(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                "message", "新闻源已添加",
+                "source", source
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 更新新闻源
+     * PUT /api/admin/news-sources/{sourceId}
+     */
+    @PutMapping("/news-sources/{sourceId}")
+    public ResponseEntity<?> updateNewsSource(
+            @PathVariable Long sourceId,
+            @Valid @RequestBody NewsSourceRequest request
+    ) {
+        try {
+            NewsSource source = newsSourceRegistry.update(sourceId, request);
+            return ResponseEntity.ok(Map.of(
+                "message", "新闻源已更新",
+                "source", source
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 清除新闻源的探测缓存，下次抓取时重新探测候选地址
+     * POST /api/admin/news-sources/{sourceId}/reprobe
+     */
+    @PostMapping("/news-sources/{sourceId}/reprobe")
+    public ResponseEntity<?> reprobeNewsSource(@PathVariable Long sourceId) {
+        try {
+            NewsSource source = newsSourceRegistry.resetProbe(sourceId);
+            return ResponseEntity.ok(Map.of(
+                "message", "探测缓存已清除",
+                "source", source
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ============ 后台翻译队列 ============
+
+    /**
+     * 获取后台翻译队列状态（待处理、失败数量等）
+     * GET /api/admin/translation-queue
+     */
+    @GetMapping("/translation-queue")
+    public ResponseEntity<?> getTranslationQueueStats() {
+        return ResponseEntity.ok(translationQueueService.getStats());
+    }
+
+    /**
+     * 获取 LLM 网关状态（各通道排队深度、延迟、重试次数、熔断状态）
+     * GET /api/admin/llm-gateway
+     */
+    @GetMapping("/llm-gateway")
+    public ResponseEntity<?> getLlmGatewayStats() {
+        return ResponseEntity.ok(llmGateway.getStats());
+    }
+
+    /**
+     * 获取搜索倒排索引状态（已索引的帖子/社区数量、词项数量）
+     * GET /api/admin/search-index
+     */
+    @GetMapping("/search-index")
+    public ResponseEntity<?> getSearchIndexStats() {
+        return ResponseEntity.ok(searchIndexService.getStats());
+    }
+
+    /**
+     * 获取帖子向量索引状态（已索引数量、待计算数量、查询缓存命中等）
+     * GET /api/admin/embeddings
+     */
+    @GetMapping("/embeddings")
+    public ResponseEntity<?> getEmbeddingStats() {
+        return ResponseEntity.ok(embeddingService.getStats());
+    }
+
+    /**
+     * 获取智能问答状态（缓存的回答数量、缓存命中）
+     * GET /api/admin/qa
+     */
+    @GetMapping("/qa")
+    public ResponseEntity<?> getQaStats() {
+        return ResponseEntity.ok(nlpService.getStats());
+    }
+
+    /**
+     * 清空智能问答的回答缓存（例如修正了帖子内容之后）
+     * POST /api/admin/qa/cache/clear
+     */
+    @PostMapping("/qa/cache/clear")
+    public ResponseEntity<?> clearQaCache() {
+        nlpService.clearCache();
+        return ResponseEntity.ok(nlpService.getStats());
+    }
+
+    /**
+     * 重新加载同义词表
+     * POST /api/admin/synonyms/reload
+     */
+    @PostMapping("/synonyms/reload")
+    public ResponseEntity<?> reloadSynonyms() {
+        try {
+            synonymService.reload();
+            return ResponseEntity.ok(synonymService.getStats());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 从数据库全量重建搜索索引
+     * POST /api/admin/search-index/rebuild
+     */
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<?> rebuildSearchIndex() {
+        searchIndexService.rebuild();
+        return ResponseEntity.ok(searchIndexService.getStats());
+    }
+
     // ============ 统计数据 ============
 
     /**
@@ -7,11 +7,12 @@ import com.globalbuddy.dto.PostResponse;
 import com.globalbuddy.model.AppUser;
 import com.globalbuddy.model.Community;
 import com.globalbuddy.model.CommunityPost;
+import com.globalbuddy.model.TranslationStatus;
 import com.globalbuddy.repository.AppUserRepository;
 import com.globalbuddy.repository.CommunityPostRepository;
 import com.globalbuddy.repository.CommunityRepository;
 import com.globalbuddy.service.LanguageDetectionService;
-import com.globalbuddy.service.TranslationService;
+import com.globalbuddy.service.TranslationQueueService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,7 +35,7 @@ public class CommunityController {
     private final CommunityPostRepository postRepository;
     private final AppUserRepository userRepository;
     private final LanguageDetectionService languageDetectionService;
-    private final TranslationService translationService;
+    private final TranslationQueueService translationQueueService;
 
     @GetMapping
     public List<CommunityResponse> listCommunities(
@@ -125,60 +126,10 @@ public class CommunityController {
         post.setCategory(request.getCategory());
         post.setOriginalLanguage(detectedLang);
 
-        // Auto-translate to Chinese and English
-        try {
-            TranslationService.TranslationResult translationResult = 
-                translationService.translateContent(request.getTitle(), request.getBody(), detectedLang);
-            
-            // Set Chinese title translation
-            if (translationResult.getTitleZh() != null && !translationResult.getTitleZh().isEmpty()) {
-                post.setTitleZh(translationResult.getTitleZh());
-            } else if ("zh".equals(detectedLang)) {
-                post.setTitleZh(request.getTitle());
-            }
-            
-            // Set Chinese content translation (with fallback to original if translation fails)
-            if (translationResult.getBodyZh() != null && !translationResult.getBodyZh().isEmpty()) {
-                post.setContentZh(translationResult.getBodyZh());
-                log.info("✅ Chinese translation completed for post: {}", request.getTitle());
-            } else {
-                // Fallback: if detected language is Chinese, use original; otherwise use original as fallback
-                if ("zh".equals(detectedLang)) {
-                    post.setContentZh(request.getBody());
-                } else {
-                    post.setContentZh(request.getBody()); // Fallback to original
-                    log.warn("⚠️ Chinese translation failed, using original content as fallback");
-                }
-            }
-
-            // Set English title translation
-            if (translationResult.getTitleEn() != null && !translationResult.getTitleEn().isEmpty()) {
-                post.setTitleEn(translationResult.getTitleEn());
-            } else if ("en".equals(detectedLang)) {
-                post.setTitleEn(request.getTitle());
-            }
-
-            // Set English content translation (with fallback to original if translation fails)
-            if (translationResult.getBodyEn() != null && !translationResult.getBodyEn().isEmpty()) {
-                post.setContentEn(translationResult.getBodyEn());
-                log.info("✅ English translation completed for post: {}", request.getTitle());
-            } else {
-                // Fallback: if detected language is English, use original; otherwise use original as fallback
-                if ("en".equals(detectedLang)) {
-                    post.setContentEn(request.getBody());
-                } else {
-                    post.setContentEn(request.getBody()); // Fallback to original
-                    log.warn("⚠️ English translation failed, using original content as fallback");
-                }
-            }
-        } catch (Exception e) {
-            log.error("❌ Translation failed for post: {} - {}", request.getTitle(), e.getMessage(), e);
-            // Fallback: use original content for both languages
-            post.setContentZh(request.getBody());
-            post.setContentEn(request.getBody());
-        }
+        // Translated in the background by the translation queue
+        translationQueueService.markPending(post);
 
-        CommunityPost saved = postRepository.save(post);
+        CommunityPost saved = translationQueueService.savePost(post);
         return ResponseEntity.status(HttpStatus.CREATED).body(toPostResponse(saved, "en"));
     }
 
@@ -236,13 +187,14 @@ public class CommunityController {
                 body,
                 post.getTags(),
                 post.getCategory(),
-                post.getEmbedding(),
+                null, // 向量只在服务端使用，不下发
                 post.getCreatedAt(),
                 post.getUpdatedAt(),
                 post.getContentZh(),
                 post.getContentEn(),
                 post.getOriginalLanguage(),
-                post.getImageUrl()
+                post.getImageUrl(),
+                TranslationStatus.orCompleted(post.getTranslationStatus()).name()
         );
     }
 }
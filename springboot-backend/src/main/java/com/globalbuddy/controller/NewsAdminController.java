@@ -2,13 +2,18 @@ package com.globalbuddy.controller;
 
 import com.globalbuddy.model.News;
 import com.globalbuddy.repository.NewsRepository;
+import com.globalbuddy.scheduler.CrawlJob;
+import com.globalbuddy.scheduler.NewsIngestionPipeline;
 import com.globalbuddy.scheduler.NewsScheduler;
 import com.globalbuddy.service.AiSummaryService;
+import com.globalbuddy.service.HostCrawlScheduler;
 import com.globalbuddy.service.LanguageDetectionService;
 import com.globalbuddy.service.NewsCrawlerService;
 import com.globalbuddy.service.NewsToPostService;
+import com.globalbuddy.service.NewsUrlDeduplicator;
 import com.globalbuddy.service.PostMigrationService;
 import com.globalbuddy.service.RssFeedService;
+import com.globalbuddy.service.TranslationCache;
 import com.globalbuddy.service.TranslationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,12 +36,16 @@ import java.util.Map;
 public class NewsAdminController {
 
     private final NewsScheduler newsScheduler;
+    private final NewsIngestionPipeline newsIngestionPipeline;
+    private final NewsUrlDeduplicator newsUrlDeduplicator;
+    private final HostCrawlScheduler hostCrawlScheduler;
     private final AiSummaryService aiSummaryService;
     private final NewsToPostService newsToPostService;
     private final NewsCrawlerService newsCrawlerService;
     private final RssFeedService rssFeedService;
     private final PostMigrationService postMigrationService;
     private final TranslationService translationService;
+    private final TranslationCache translationCache;
     private final LanguageDetectionService languageDetectionService;
     private final NewsRepository newsRepository;
 
@@ -45,6 +54,7 @@ public class NewsAdminController {
      * - Crawl latest news
      * - Call AI to generate summary
      * - Save to database
+     * The crawl runs in the background; the response carries a job id to poll.
      *
      * Usage:
      *   POST http://localhost:8080/api/news/refresh
@@ -53,22 +63,99 @@ public class NewsAdminController {
     public ResponseEntity<Map<String, Object>> refreshNews() {
         log.info("Received manual news refresh request");
         Map<String, Object> resp = new HashMap<>();
-        try {
-            long start = System.currentTimeMillis();
-            newsScheduler.manualTrigger();
-            long cost = System.currentTimeMillis() - start;
+        CrawlJob job = newsScheduler.submitRefresh();
 
-            resp.put("success", true);
-            resp.put("message", "News crawling and AI summarization task triggered");
-            resp.put("costMs", cost);
+        resp.put("success", true);
+        resp.put("message", "News crawling and AI summarization job queued");
+        resp.put("jobId", job.getId());
+        resp.put("status", job.getStatus());
+
+        return ResponseEntity.accepted().body(resp);
+    }
 
+    /**
+     * Status of a refresh job
+     *
+     * Usage:
+     *   GET http://localhost:8080/api/news/refresh/{jobId}
+     */
+    @GetMapping("/refresh/{jobId}")
+    public ResponseEntity<Map<String, Object>> refreshStatus(@PathVariable String jobId) {
+        return newsScheduler.getJob(jobId)
+                .map(job -> {
+                    Map<String, Object> resp = new HashMap<>();
+                    resp.put("success", true);
+                    resp.put("jobId", job.getId());
+                    resp.put("status", job.getStatus());
+                    resp.put("createdAt", job.getCreatedAt());
+                    resp.put("startedAt", job.getStartedAt());
+                    resp.put("finishedAt", job.getFinishedAt());
+                    if (job.getResult() != null) {
+                        resp.put("totalItems", job.getResult().totalItems());
+                        resp.put("successCount", job.getResult().successCount());
+                        resp.put("skipCount", job.getResult().skipCount());
+                        resp.put("errorCount", job.getResult().errorCount());
+                        resp.put("costMs", job.getResult().costMs());
+                    }
+                    if (job.getError() != null) {
+                        resp.put("error", job.getError());
+                    }
+                    return ResponseEntity.ok(resp);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Statistics of the last ingestion pipeline run
+     * Per-stage throughput, latency, queue depth and backpressure wait
+     *
+     * GET /api/news/pipeline-stats
+     */
+    @GetMapping("/pipeline-stats")
+    public ResponseEntity<Map<String, Object>> pipelineStats() {
+        Map<String, Object> resp = new HashMap<>();
+        NewsIngestionPipeline.RunResult lastRun = newsIngestionPipeline.getLastRun();
+        if (lastRun == null) {
+            resp.put("success", true);
+            resp.put("message", "Ingestion pipeline has not run yet");
             return ResponseEntity.ok(resp);
-        } catch (Exception e) {
-            log.error("Manual news refresh failed: {}", e.getMessage(), e);
-            resp.put("success", false);
-            resp.put("message", "Manual news refresh failed: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(resp);
         }
+        resp.put("success", true);
+        resp.put("totalItems", lastRun.totalItems());
+        resp.put("successCount", lastRun.successCount());
+        resp.put("skipCount", lastRun.skipCount());
+        resp.put("errorCount", lastRun.errorCount());
+        resp.put("completed", lastRun.completed());
+        resp.put("costMs", lastRun.costMs());
+        resp.put("stages", lastRun.stages());
+        resp.put("dedup", newsUrlDeduplicator.getStats());
+        resp.put("hosts", hostCrawlScheduler.getStats());
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Batched summary statistics (batch count, average batch size, coalesced duplicates)
+     *
+     * GET /api/news/summary-batch-stats
+     */
+    @GetMapping("/summary-batch-stats")
+    public ResponseEntity<Map<String, Object>> summaryBatchStats() {
+        Map<String, Object> resp = new HashMap<>(aiSummaryService.getStats());
+        resp.put("success", true);
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Translation cache hit/miss statistics
+     *
+     * GET /api/news/translation-cache-stats
+     */
+    @GetMapping("/translation-cache-stats")
+    public ResponseEntity<Map<String, Object>> translationCacheStats() {
+        Map<String, Object> resp = new HashMap<>(translationCache.getStats());
+        resp.put("success", true);
+        resp.put("promptVersion", TranslationService.PROMPT_VERSION);
+        return ResponseEntity.ok(resp);
     }
 
     /**
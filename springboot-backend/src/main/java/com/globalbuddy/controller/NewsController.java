@@ -2,6 +2,7 @@ package com.globalbuddy.controller;
 
 import com.globalbuddy.dto.NewsBriefDTO;
 import com.globalbuddy.model.News;
+import com.globalbuddy.model.ScriptProfile;
 import com.globalbuddy.repository.NewsRepository;
 import com.globalbuddy.service.LanguageDetectionService;
 import lombok.RequiredArgsConstructor;
@@ -131,8 +132,10 @@ public class NewsController {
         String summary = news.getSummary();
         
         // Check if original content contains Thai
-        boolean originalTitleIsThai = languageDetectionService.hasAnyThai(news.getTitle());
-        boolean originalSummaryIsThai = languageDetectionService.hasAnyThai(news.getSummary());
+        // (stored script profile; only rows not yet backfilled are scanned)
+        ScriptProfile scripts = news.getScriptProfile();
+        boolean originalTitleIsThai = scripts != null ? scripts.hasThaiTitle() : languageDetectionService.hasAnyThai(news.getTitle());
+        boolean originalSummaryIsThai = scripts != null ? scripts.hasThaiBody() : languageDetectionService.hasAnyThai(news.getSummary());
 
         log.debug("Converting news {} to DTO with lang: {}, hasTitleZh: {}, hasTitleEn: {}, hasSummaryZh: {}, hasSummaryEn: {}, originalTitleIsThai: {}", 
                 news.getId(), lang, 
@@ -5,10 +5,16 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/nlp")
@@ -25,6 +31,30 @@ public class NlpController {
         return ResponseEntity.ok(nlpService.answerQuestion(request.getQuestion()));
     }
 
+    /**
+     * 流式问答（Server-Sent Events）
+     * GET /api/nlp/qa/stream?question=...
+     * 事件依次为：references（参考帖子）、若干 delta（{"text": 增量文本}）、done；出错时发送 error。
+     * 客户端断开连接时取消订阅，上游的大模型调用随之取消。
+     */
+    @GetMapping("/qa/stream")
+    public ResponseEntity<Flux<ServerSentEvent<Object>>> streamAnswer(@RequestParam(required = false) String question) {
+        if (!org.springframework.util.StringUtils.hasText(question)) {
+            return ResponseEntity.badRequest().body(Flux.just(event("error", Map.of("error", "question 必填"))));
+        }
+        NlpService.QaStream stream = nlpService.streamAnswer(question);
+        Flux<ServerSentEvent<Object>> events = Flux.concat(
+                Flux.just(event("references", stream.getReferences())),
+                stream.getAnswer().map(delta -> event("delta", Map.of("text", delta))),
+                Flux.just(event("done", Map.of()))
+        ).onErrorResume(e -> Flux.just(event("error", Map.of("error", "回答生成失败，请稍后重试"))));
+        return ResponseEntity.ok(events);
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+
     @Data
     public static class QuestionRequest {
         @NotBlank
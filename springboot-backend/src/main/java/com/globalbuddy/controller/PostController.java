@@ -4,10 +4,15 @@ import com.globalbuddy.dto.*;
 import com.globalbuddy.model.*;
 import com.globalbuddy.repository.*;
 import com.globalbuddy.service.ContentModerationService;
+import com.globalbuddy.service.EmbeddingService;
 import com.globalbuddy.service.LanguageDetectionService;
 import com.globalbuddy.service.SemanticService;
-import com.globalbuddy.service.TranslationService;
+import com.globalbuddy.service.TranslationQueueService;
+import com.globalbuddy.util.FeedCursor;
+import com.globalbuddy.util.HnswIndex;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import jakarta.validation.Valid;
@@ -46,39 +51,32 @@ public class PostController {
     private final AppUserRepository userRepository;
     private final SemanticService semanticService;
     private final LanguageDetectionService languageDetectionService;
-    private final TranslationService translationService;
+    private final TranslationQueueService translationQueueService;
     private final CommentRepository commentRepository;
     private final PostLikeRepository postLikeRepository;
     private final UserFollowRepository userFollowRepository;
     private final ContentModerationService contentModerationService;
+    private final EmbeddingService embeddingService;
     @Value("${file.upload.base-path:C:/Users/pzy/Documents/java/work/hh/pictures}")
     private String uploadBasePath;
+    @Value("${post-feed.default-page-size:20}")
+    private int feedDefaultPageSize;
+    @Value("${post-feed.max-page-size:50}")
+    private int feedMaxPageSize;
 
+    /**
+     * Newest approved posts, at most post-feed.max-page-size of them (a q filter only ranks those)
+     *
+     * @deprecated Use {@code /feed}, which pages with a cursor
+     */
+    @Deprecated
     @GetMapping
     public List<PostResponse> listPosts(
             @RequestParam(required = false) String q,
             @RequestParam(required = false, defaultValue = "en") String lang) {
         log.info("Fetching posts with language preference: {}", lang);
-        List<CommunityPost> posts = postRepository.findAllByOrderByCreatedAtDesc();
-        
-        // 只向前台展示已经通过审核的帖子
-        posts = posts.stream()
-                .filter(post -> post.getStatus() == CommunityPost.Status.APPROVED)
-                .collect(Collectors.toList());
-        
-        // 不按原始语言过滤，翻译由 toPostResponse 处理
-        // 仅过滤掉完全没有内容的帖子
-        posts = posts.stream()
-                .filter(post -> {
-                    boolean hasContent = (post.getBody() != null && !post.getBody().trim().isEmpty()) ||
-                                       (post.getContentZh() != null && !post.getContentZh().trim().isEmpty()) ||
-                                       (post.getContentEn() != null && !post.getContentEn().trim().isEmpty());
-                    if (!hasContent) {
-                        log.debug("Filtering out post {} - no content available", post.getId());
-                    }
-                    return hasContent;
-                })
-                .collect(Collectors.toList());
+        // 只向前台展示已经通过审核、且有内容（原文或任一翻译）的帖子；不按原始语言过滤，翻译由 toPostResponse 处理
+        List<CommunityPost> posts = postRepository.findFeed(CommunityPost.Status.APPROVED, PageRequest.of(0, feedMaxPageSize));
         
         log.info("Total posts available: {} (requested language: {})", posts.size(), lang);
         List<PostResponse> responses = new ArrayList<>();
@@ -103,8 +101,9 @@ public class PostController {
             return responses;
         }
         List<PostResponseWithScore> filtered = new ArrayList<>();
+        SemanticService.Scorer scorer = semanticService.scorer(q);
         for (PostResponse response : responses) {
-            double score = semanticService.calculateScore(q, response.getTitle() + " " + response.getBody());
+            double score = scorer.score(response.getTitle() + " " + response.getBody());
             if (score > 0) {
                 filtered.add(new PostResponseWithScore(response, score));
             }
@@ -113,6 +112,44 @@ public class PostController {
         return filtered.stream().map(PostResponseWithScore::toResponse).collect(Collectors.toList());
     }
 
+    /**
+     * 帖子信息流（keyset 分页）
+     * GET /api/posts/feed?cursor=...&limit=20&lang=en
+     * 第一页不传 cursor；之后传上一页返回的 nextCursor。新帖子不会导致翻页时重复或遗漏。
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<?> feed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false, defaultValue = "en") String lang) {
+        int pageSize = Math.min(Math.max(1, limit != null ? limit : feedDefaultPageSize), feedMaxPageSize);
+        // 多取一条用于判断是否还有下一页
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<CommunityPost> posts;
+        if (StringUtils.hasText(cursor)) {
+            FeedCursor after;
+            try {
+                after = FeedCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "cursor 无效"));
+            }
+            posts = postRepository.findFeedAfter(CommunityPost.Status.APPROVED, after.createdAt(), after.id(), pageable);
+        } else {
+            posts = postRepository.findFeed(CommunityPost.Status.APPROVED, pageable);
+        }
+
+        boolean hasMore = posts.size() > pageSize;
+        if (hasMore) {
+            posts = posts.subList(0, pageSize);
+        }
+        List<PostResponse> items = posts.stream()
+                .map(post -> toPostResponse(post, lang))
+                .collect(Collectors.toList());
+        CommunityPost last = posts.isEmpty() ? null : posts.get(posts.size() - 1);
+        String nextCursor = hasMore ? new FeedCursor(last.getCreatedAt(), last.getId()).encode() : null;
+        return ResponseEntity.ok(new PostFeedResponse(items, nextCursor, hasMore));
+    }
+
     /**
      * 获取当前用户被拒绝的帖子列表（用于个人页面显示审核结果）
      */
@@ -225,6 +262,73 @@ public class PostController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Related posts by embedding similarity (approved posts only, the post itself excluded)
+     * GET /api/posts/{id}/related?limit=5
+     */
+    @GetMapping("/{id}/related")
+    public List<PostResponse> getRelatedPosts(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false, defaultValue = "en") String lang) {
+        List<String> ids = embeddingService.relatedPosts(id, Math.max(1, Math.min(limit, 20))).stream()
+                .map(HnswIndex.Hit::key)
+                .collect(Collectors.toList());
+        Map<String, CommunityPost> byId = postRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(CommunityPost::getId, post -> post));
+        List<PostResponse> related = new ArrayList<>();
+        for (String relatedId : ids) {
+            CommunityPost post = byId.get(relatedId);
+            if (post != null && post.getStatus() == CommunityPost.Status.APPROVED) {
+                related.add(toPostResponse(post, lang));
+            }
+        }
+        return related;
+    }
+
+    /**
+     * Background translation state of a post, polled by the frontend after creating it
+     * GET /api/posts/{id}/translation
+     */
+    @GetMapping("/{id}/translation")
+    public ResponseEntity<Map<String, Object>> getPostTranslation(@PathVariable String id) {
+        return postRepository.findById(id)
+                .map(post -> {
+                    Map<String, Object> resp = new HashMap<>();
+                    resp.put("postId", post.getId());
+                    resp.put("translationStatus", TranslationStatus.orCompleted(post.getTranslationStatus()).name());
+                    resp.put("originalLanguage", post.getOriginalLanguage());
+                    resp.put("titleZh", post.getTitleZh());
+                    resp.put("titleEn", post.getTitleEn());
+                    resp.put("contentZh", post.getContentZh());
+                    resp.put("contentEn", post.getContentEn());
+                    return ResponseEntity.ok(resp);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Background translation state of a comment
+     * GET /api/posts/{postId}/comments/{commentId}/translation
+     */
+    @GetMapping("/{postId}/comments/{commentId}/translation")
+    public ResponseEntity<Map<String, Object>> getCommentTranslation(
+            @PathVariable String postId,
+            @PathVariable String commentId) {
+        return commentRepository.findById(commentId)
+                .filter(comment -> comment.getPost() != null && postId.equals(comment.getPost().getId()))
+                .map(comment -> {
+                    Map<String, Object> resp = new HashMap<>();
+                    resp.put("commentId", comment.getId());
+                    resp.put("translationStatus", TranslationStatus.orCompleted(comment.getTranslationStatus()).name());
+                    resp.put("originalLanguage", comment.getOriginalLanguage());
+                    resp.put("contentZh", comment.getContentZh());
+                    resp.put("contentEn", comment.getContentEn());
+                    return ResponseEntity.ok(resp);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Add a comment to a post
      */
@@ -257,27 +361,10 @@ public class PostController {
                 .originalLanguage(detectedLang)
                 .build();
         
-        // Auto-translate comment
-        try {
-            TranslationService.TranslationResult translationResult = 
-                translationService.translateContent("", request.getContent(), detectedLang);
-            
-            if (translationResult.getBodyZh() != null && !translationResult.getBodyZh().isEmpty()) {
-                comment.setContentZh(translationResult.getBodyZh());
-            } else if ("zh".equals(detectedLang)) {
-                comment.setContentZh(request.getContent());
-            }
-            
-            if (translationResult.getBodyEn() != null && !translationResult.getBodyEn().isEmpty()) {
-                comment.setContentEn(translationResult.getBodyEn());
-            } else if ("en".equals(detectedLang)) {
-                comment.setContentEn(request.getContent());
-            }
-        } catch (Exception e) {
-            log.error("Failed to translate comment: {}", e.getMessage());
-        }
+        // Translated in the background, the comment shows up right away
+        translationQueueService.markPending(comment);
         
-        Comment saved = commentRepository.save(comment);
+        Comment saved = translationQueueService.saveComment(comment);
         return ResponseEntity.status(HttpStatus.CREATED).body(toCommentResponse(saved, lang));
     }
     
@@ -414,6 +501,7 @@ public class PostController {
                 .contentZh(comment.getContentZh())
                 .contentEn(comment.getContentEn())
                 .originalLanguage(comment.getOriginalLanguage())
+                .translationStatus(TranslationStatus.orCompleted(comment.getTranslationStatus()).name())
                 .createdAt(comment.getCreatedAt())
                 .updatedAt(comment.getUpdatedAt())
                 .build();
@@ -445,81 +533,8 @@ public class PostController {
         post.setImageUrl(request.getImageUrl());
         post.setOriginalLanguage(detectedLang);
 
-        // Auto-translate to Chinese and English
-        try {
-            TranslationService.TranslationResult translationResult = 
-                translationService.translateContent(request.getTitle(), request.getBody(), detectedLang);
-            
-            // Set Chinese title translation
-            if (translationResult.getTitleZh() != null && !translationResult.getTitleZh().isEmpty()) {
-                post.setTitleZh(translationResult.getTitleZh());
-                log.info("✅ Chinese title translation set for post");
-            }
-            // 回退逻辑：如果翻译失败，检查原标题是否包含中文
-            if (post.getTitleZh() == null || post.getTitleZh().isEmpty()) {
-                if (languageDetectionService.containsChinese(request.getTitle())) {
-                    post.setTitleZh(request.getTitle());
-                    log.info("✅ Post title contains Chinese, using original as titleZh");
-                } else if ("zh".equals(detectedLang)) {
-                    post.setTitleZh(request.getTitle());
-                    log.info("✅ Post detected as Chinese, using original as titleZh");
-                }
-            }
-            
-            // Set Chinese content translation
-            if (translationResult.getBodyZh() != null && !translationResult.getBodyZh().isEmpty()) {
-                post.setContentZh(translationResult.getBodyZh());
-                log.info("✅ Chinese content translation completed for post");
-            } else if (languageDetectionService.containsChinese(request.getBody())) {
-                post.setContentZh(request.getBody());
-                log.info("✅ Post body contains Chinese, using original as contentZh");
-            } else if ("zh".equals(detectedLang)) {
-                post.setContentZh(request.getBody());
-                log.info("✅ Post detected as Chinese, using original as contentZh");
-            }
-
-            // Set English title translation
-            if (translationResult.getTitleEn() != null && !translationResult.getTitleEn().isEmpty()) {
-                post.setTitleEn(translationResult.getTitleEn());
-                log.info("✅ English title translation set for post");
-            }
-            // 回退逻辑：如果翻译失败，检查原标题是否是英文
-            if (post.getTitleEn() == null || post.getTitleEn().isEmpty()) {
-                if ("en".equals(detectedLang)) {
-                    post.setTitleEn(request.getTitle());
-                    log.info("✅ Post detected as English, using original as titleEn");
-                }
-            }
-
-            // Set English content translation
-            if (translationResult.getBodyEn() != null && !translationResult.getBodyEn().isEmpty()) {
-                post.setContentEn(translationResult.getBodyEn());
-                log.info("✅ English content translation completed for post");
-            } else if ("en".equals(detectedLang)) {
-                post.setContentEn(request.getBody());
-                log.info("✅ Post detected as English, using original as contentEn");
-            }
-            
-            // 记录翻译结果
-            log.info("📝 Post translation result: titleZh={}, titleEn={}, contentZh={}, contentEn={}",
-                    post.getTitleZh() != null && !post.getTitleZh().isEmpty(),
-                    post.getTitleEn() != null && !post.getTitleEn().isEmpty(),
-                    post.getContentZh() != null && !post.getContentZh().isEmpty(),
-                    post.getContentEn() != null && !post.getContentEn().isEmpty());
-        } catch (Exception e) {
-            log.error("❌ Translation failed for post: {} - {}", request.getTitle(), e.getMessage(), e);
-            // Fallback: 检查原内容语言并设置相应字段
-            if (languageDetectionService.containsChinese(request.getTitle())) {
-                post.setTitleZh(request.getTitle());
-            }
-            if (languageDetectionService.containsChinese(request.getBody())) {
-                post.setContentZh(request.getBody());
-            }
-            if ("en".equals(detectedLang)) {
-                post.setTitleEn(request.getTitle());
-                post.setContentEn(request.getBody());
-            }
-        }
+        // Translated in the background by the translation queue
+        translationQueueService.markPending(post);
 
         // AI 内容审核与状态决策
         try {
@@ -534,7 +549,7 @@ public class PostController {
             post.setStatus(CommunityPost.Status.PENDING_REVIEW);
         }
 
-        CommunityPost saved = postRepository.save(post);
+        CommunityPost saved = translationQueueService.savePost(post);
         return ResponseEntity.status(HttpStatus.CREATED).body(toPostResponse(saved, "en"));
     }
 
@@ -647,8 +662,13 @@ public class PostController {
         String body = post.getBody();
         
         // Check if original content contains Thai - we should never show Thai on the website
-        boolean originalTitleIsThai = languageDetectionService.hasAnyThai(post.getTitle());
-        boolean originalBodyIsThai = languageDetectionService.hasAnyThai(post.getBody());
+        // (stored script profile; only rows not yet backfilled are scanned)
+        ScriptProfile scripts = post.getScriptProfile();
+        boolean originalTitleIsThai = scripts != null ? scripts.hasThaiTitle() : languageDetectionService.hasAnyThai(post.getTitle());
+        boolean originalBodyIsThai = scripts != null ? scripts.hasThaiBody() : languageDetectionService.hasAnyThai(post.getBody());
+        // The "translating" placeholder is only shown while a translation is actually queued
+        TranslationStatus translationStatus = TranslationStatus.orCompleted(post.getTranslationStatus());
+        boolean translationPending = translationStatus == TranslationStatus.PENDING;
         
         log.debug("🔄 toPostResponse - Input: postId={}, lang={}, titleZh={}, titleEn={}, originalTitleIsThai={}", 
                 post.getId(), lang,
@@ -669,8 +689,8 @@ public class PostController {
                     title = post.getTitleEn();
                     log.warn("⚠️ Chinese title not available, using English fallback for Thai post: {}", post.getId());
                 } else {
-                    title = "[帖子标题翻译中...]";
-                    log.error("❌ No translation available for Thai post title: {}", post.getId());
+                    title = translationPending ? "[帖子标题翻译中...]" : "[帖子标题暂无翻译]";
+                    log.warn("⚠️ No translation available for Thai post title: {} ({})", post.getId(), translationStatus);
                 }
             } else {
                 log.debug("⚠️ Chinese title not available for post: {}, using original (non-Thai)", post.getId());
@@ -685,8 +705,8 @@ public class PostController {
                     body = post.getContentEn();
                     log.warn("⚠️ Chinese content not available, using English fallback for Thai post: {}", post.getId());
                 } else {
-                    body = "[帖子内容翻译中...]";
-                    log.error("❌ No translation available for Thai post content: {}", post.getId());
+                    body = translationPending ? "[帖子内容翻译中...]" : "[帖子内容暂无翻译]";
+                    log.warn("⚠️ No translation available for Thai post content: {} ({})", post.getId(), translationStatus);
                 }
             } else {
                 body = post.getBody();
@@ -703,8 +723,8 @@ public class PostController {
                     title = post.getTitleZh();
                     log.warn("⚠️ English title not available, using Chinese fallback for Thai post: {}", post.getId());
                 } else {
-                    title = "[Post title translating...]";
-                    log.error("❌ No translation available for Thai post title: {}", post.getId());
+                    title = translationPending ? "[Post title translating...]" : "[Post title translation unavailable]";
+                    log.warn("⚠️ No translation available for Thai post title: {} ({})", post.getId(), translationStatus);
                 }
             } else {
                 log.debug("⚠️ English title not available for post: {}, using original (non-Thai)", post.getId());
@@ -719,8 +739,8 @@ public class PostController {
                     body = post.getContentZh();
                     log.warn("⚠️ English content not available, using Chinese fallback for Thai post: {}", post.getId());
                 } else {
-                    body = "[Post content translating...]";
-                    log.error("❌ No translation available for Thai post content: {}", post.getId());
+                    body = translationPending ? "[Post content translating...]" : "[Post content translation unavailable]";
+                    log.warn("⚠️ No translation available for Thai post content: {} ({})", post.getId(), translationStatus);
                 }
             } else {
                 body = post.getBody();
@@ -764,13 +784,14 @@ public class PostController {
                 body,
                 post.getTags(),
                 post.getCategory(),
-                post.getEmbedding(),
+                null, // 向量只在服务端使用，不下发
                 post.getCreatedAt(),
                 post.getUpdatedAt(),
                 post.getContentZh(),
                 post.getContentEn(),
                 post.getOriginalLanguage(),
-                post.getImageUrl()
+                post.getImageUrl(),
+                TranslationStatus.orCompleted(post.getTranslationStatus()).name()
         );
     }
 
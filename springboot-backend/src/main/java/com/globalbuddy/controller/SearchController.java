@@ -6,8 +6,14 @@ import com.globalbuddy.model.Community;
 import com.globalbuddy.model.CommunityPost;
 import com.globalbuddy.repository.CommunityPostRepository;
 import com.globalbuddy.repository.CommunityRepository;
-import com.globalbuddy.service.SemanticService;
+import com.globalbuddy.service.EmbeddingService;
+import com.globalbuddy.service.SearchIndexService;
+import com.globalbuddy.util.HnswIndex;
+import com.globalbuddy.util.InvertedIndex;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -15,18 +21,24 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/search")
 @RequiredArgsConstructor
 public class SearchController {
 
+    private static final int RESULT_LIMIT = 10;
+    private static final int MAX_SEMANTIC_LIMIT = 50;
+
     private final CommunityRepository communityRepository;
     private final CommunityPostRepository postRepository;
-    private final SemanticService semanticService;
+    private final SearchIndexService searchIndexService;
+    private final EmbeddingService embeddingService;
 
     @GetMapping
     public SearchResponse search(@RequestParam("q") String query) {
@@ -34,48 +46,65 @@ public class SearchController {
             throw new IllegalArgumentException("查询参数 q 不能为空");
         }
 
-        List<CommunityResponseWithScore> communityScores = new ArrayList<>();
-        for (Community community : communityRepository.findAll()) {
-            double score = semanticService.calculateScore(query, buildCommunityText(community));
-            if (score > 0) {
-                communityScores.add(new CommunityResponseWithScore(toCommunityResponse(community), score));
-            }
-        }
-        communityScores.sort(Comparator.comparingDouble(CommunityResponseWithScore::getScore).reversed());
-
-        List<PostResponseWithScore> postScores = new ArrayList<>();
-        for (CommunityPost post : postRepository.findAll()) {
-            double score = semanticService.calculateScore(query, post.getTitle() + " " + post.getBody());
-            if (score > 0) {
-                postScores.add(new PostResponseWithScore(toPostResponse(post), score));
-            }
-        }
-        postScores.sort(Comparator.comparingDouble(PostResponseWithScore::getScore).reversed());
-
-        List<CommunityResponse> communityResult = communityScores.stream()
-                .limit(10)
-                .map(CommunityResponseWithScore::toResponse)
+        // 倒排索引只返回按相关度排好序的 ID，再按 ID 批量查库（保持索引给出的顺序）
+        List<InvertedIndex.Hit> communityHits = searchIndexService.searchCommunities(query, RESULT_LIMIT);
+        List<CommunityResponse> communityResult = inHitOrder(ids(communityHits),
+                communityRepository.findAllById(ids(communityHits)), Community::getId).stream()
+                .map(this::toCommunityResponse)
                 .collect(Collectors.toList());
-        List<PostResponse> postResult = postScores.stream()
-                .limit(10)
-                .map(PostResponseWithScore::toResponse)
+
+        List<InvertedIndex.Hit> postHits = searchIndexService.searchPosts(query, RESULT_LIMIT);
+        List<PostResponse> postResult = inHitOrder(ids(postHits),
+                postRepository.findAllById(ids(postHits)), CommunityPost::getId).stream()
+                .map(this::toPostResponse)
                 .collect(Collectors.toList());
 
         return new SearchResponse(query, communityResult, postResult);
     }
 
-    private String buildCommunityText(Community community) {
-        StringBuilder builder = new StringBuilder();
-        if (StringUtils.hasText(community.getTitle())) {
-            builder.append(community.getTitle()).append(" ");
-        }
-        if (StringUtils.hasText(community.getDescription())) {
-            builder.append(community.getDescription()).append(" ");
+    /**
+     * 语义搜索：按向量相似度返回已审核通过的帖子，查询语言和帖子语言可以不同
+     * GET /api/search/semantic?q=...&limit=10
+     */
+    @GetMapping("/semantic")
+    public ResponseEntity<?> semanticSearch(@RequestParam("q") String query,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException("查询参数 q 不能为空");
         }
-        if (community.getTags() != null) {
-            builder.append(String.join(" ", community.getTags()));
+        List<String> ids;
+        try {
+            ids = embeddingService.searchSimilar(query, Math.max(1, Math.min(limit, MAX_SEMANTIC_LIMIT))).stream()
+                    .map(HnswIndex.Hit::key)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.warn("Semantic search failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "语义搜索暂不可用"));
+        }
+        List<PostResponse> posts = inHitOrder(ids, postRepository.findAllById(ids), CommunityPost::getId).stream()
+                .filter(post -> post.getStatus() == CommunityPost.Status.APPROVED)
+                .map(this::toPostResponse)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(posts);
+    }
+
+    private static List<String> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::key).collect(Collectors.toList());
+    }
+
+    /**
+     * findAllById 不保证返回顺序，这里按命中顺序重排；已删除（或写入被回滚）的 ID 查不到，自然被丢弃
+     */
+    private static <T> List<T> inHitOrder(List<String> ids, List<T> entities, Function<T, String> idOf) {
+        Map<String, T> byId = entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
         }
-        return builder.toString();
+        return ordered;
     }
 
     private CommunityResponse toCommunityResponse(Community community) {
@@ -100,7 +129,7 @@ public class SearchController {
                 post.getBody(),
                 post.getTags(),
                 post.getCategory(),
-                post.getEmbedding(),
+                null, // 向量只在服务端使用，不下发
                 post.getCreatedAt(),
                 post.getUpdatedAt()
         );
@@ -129,40 +158,4 @@ public class SearchController {
             return posts;
         }
     }
-
-    private static class CommunityResponseWithScore {
-        private final CommunityResponse response;
-        private final double score;
-
-        CommunityResponseWithScore(CommunityResponse response, double score) {
-            this.response = response;
-            this.score = score;
-        }
-
-        double getScore() {
-            return score;
-        }
-
-        CommunityResponse toResponse() {
-            return response;
-        }
-    }
-
-    private static class PostResponseWithScore {
-        private final PostResponse response;
-        private final double score;
-
-        PostResponseWithScore(PostResponse response, double score) {
-            this.response = response;
-            this.score = score;
-        }
-
-        double getScore() {
-            return score;
-        }
-
-        PostResponse toResponse() {
-            return response;
-        }
-    }
 }
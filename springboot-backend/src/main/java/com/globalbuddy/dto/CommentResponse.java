@@ -21,6 +21,7 @@ public class CommentResponse {
     private String contentZh;
     private String contentEn;
     private String originalLanguage;
+    private String translationStatus;
     private Instant createdAt;
     private Instant updatedAt;
 }
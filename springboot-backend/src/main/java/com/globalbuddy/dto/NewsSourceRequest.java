@@ -0,0 +1,28 @@
+package com.globalbuddy.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class NewsSourceRequest {
+    @NotBlank
+    private String name;
+    @NotBlank
+    private String url;
+    private List<String> candidateUrls = new ArrayList<>();
+    /**
+     * RSS or HTML
+     */
+    @NotBlank
+    private String type;
+    @NotBlank
+    private String group;
+    private String selectorProfile;
+    private String htmlCrawler;
+    private Integer maxItems;
+    private Integer pollIntervalMinutes;
+    private Boolean enabled;
+}
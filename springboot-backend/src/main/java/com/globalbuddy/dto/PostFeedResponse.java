@@ -0,0 +1,31 @@
+package com.globalbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 帖子信息流的一页
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostFeedResponse {
+
+    /**
+     * 本页帖子，按发布时间倒序
+     */
+    private List<PostResponse> items;
+
+    /**
+     * 下一页的游标，作为 cursor 参数传回；没有更多时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+}
@@ -18,17 +18,26 @@ public class PostResponse {
     private String contentEn;
     private String originalLanguage;
     private String imageUrl;
+    private String translationStatus;
 
     // Constructor for backward compatibility
     public PostResponse(String id, String communityId, String authorId, String title, String body,
                         List<String> tags, String category, String embedding, Instant createdAt, Instant updatedAt) {
-        this(id, communityId, authorId, title, body, tags, category, embedding, createdAt, updatedAt, null, null, null, null);
+        this(id, communityId, authorId, title, body, tags, category, embedding, createdAt, updatedAt, null, null, null, null, null);
     }
 
-    // Full constructor with translation fields
     public PostResponse(String id, String communityId, String authorId, String title, String body,
                         List<String> tags, String category, String embedding, Instant createdAt, Instant updatedAt,
                         String contentZh, String contentEn, String originalLanguage, String imageUrl) {
+        this(id, communityId, authorId, title, body, tags, category, embedding, createdAt, updatedAt,
+                contentZh, contentEn, originalLanguage, imageUrl, null);
+    }
+
+    // Full constructor with translation fields
+    public PostResponse(String id, String communityId, String authorId, String title, String body,
+                        List<String> tags, String category, String embedding, Instant createdAt, Instant updatedAt,
+                        String contentZh, String contentEn, String originalLanguage, String imageUrl,
+                        String translationStatus) {
         this.id = id;
         this.communityId = communityId;
         this.authorId = authorId;
@@ -43,6 +52,7 @@ public class PostResponse {
         this.contentEn = contentEn;
         this.originalLanguage = originalLanguage;
         this.imageUrl = imageUrl;
+        this.translationStatus = translationStatus;
     }
 
     public String getId() {
@@ -100,5 +110,11 @@ public class PostResponse {
     public String getImageUrl() {
         return imageUrl;
     }
-}
 
+    /**
+     * PENDING while the background translation is running, then COMPLETED or FAILED
+     */
+    public String getTranslationStatus() {
+        return translationStatus;
+    }
+}
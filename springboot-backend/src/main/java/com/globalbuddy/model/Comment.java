@@ -54,6 +54,13 @@ public class Comment {
     @Column(name = "original_language", length = 10)
     private String originalLanguage;
 
+    /**
+     * Background translation state, null for comments translated before the queue existed
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "translation_status", length = 20)
+    private TranslationStatus translationStatus;
+
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
 
@@ -1,9 +1,11 @@
 package com.globalbuddy.model;
 
 import com.globalbuddy.model.converter.StringListConverter;
+import com.globalbuddy.service.SearchIndexListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
@@ -21,6 +23,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "communities")
 @Data
 @NoArgsConstructor
@@ -1,13 +1,17 @@
 package com.globalbuddy.model;
 
 import com.globalbuddy.model.converter.StringListConverter;
+import com.globalbuddy.service.SearchIndexListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -28,7 +32,11 @@ import java.util.UUID;
  * Includes AI content moderation functionality
  */
 @Entity
-@Table(name = "posts")
+@EntityListeners(SearchIndexListener.class)
+@Table(name = "posts", indexes = {
+    // 信息流 keyset 分页；InnoDB 二级索引隐含主键 id，因此也覆盖 (createdAt, id) 的排序
+    @Index(name = "idx_posts_status_created_at", columnList = "status, created_at")
+})
 @Data
 @NoArgsConstructor
 public class CommunityPost {
@@ -90,6 +98,19 @@ public class CommunityPost {
     @Column(name = "original_language", length = 10)
     private String originalLanguage;
 
+    /**
+     * Background translation state, null for posts translated before the queue existed
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "translation_status", length = 20)
+    private TranslationStatus translationStatus;
+
+    /**
+     * Scripts of the original title/body, recomputed on every write
+     */
+    @Embedded
+    private ScriptProfile scriptProfile;
+
     @Convert(converter = StringListConverter.class)
     @Column(columnDefinition = "TEXT")
     private List<String> tags = new ArrayList<>();
@@ -144,7 +165,12 @@ public class CommunityPost {
 
     // ============ Other Fields ============
 
-    @Column(columnDefinition = "TEXT")
+    /**
+     * Int8-quantized text embedding (see QuantizedVector), written only by EmbeddingService
+     * with an UPDATE statement; not updatable through the entity, so saving a post loaded
+     * before its vector was computed does not erase it
+     */
+    @Column(columnDefinition = "TEXT", updatable = false)
     private String embedding;
 
     @Column(name = "created_at", updatable = false)
@@ -160,11 +186,13 @@ public class CommunityPost {
         }
         this.createdAt = Instant.now();
         this.updatedAt = Instant.now();
+        this.scriptProfile = ScriptProfile.of(title, body);
     }
 
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = Instant.now();
+        this.scriptProfile = ScriptProfile.of(title, body);
     }
 
     // ============ Convenience Methods ============
@@ -1,5 +1,7 @@
 package com.globalbuddy.model;
 
+import com.globalbuddy.service.SearchIndexListener;
+import com.globalbuddy.util.HashUtils;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,7 +15,10 @@ import java.util.Date;
  * Used to store crawled news information and AI-generated summaries
  */
 @Entity
-@Table(name = "news")
+@EntityListeners(SearchIndexListener.class)
+@Table(name = "news", indexes = {
+    @Index(name = "uk_news_url_hash", columnList = "url_hash", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -68,12 +73,25 @@ public class News {
     @Column(name = "summary_en", columnDefinition = "TEXT")
     private String summaryEn;
 
+    /**
+     * Scripts of the original title/summary, recomputed on every write
+     */
+    @Embedded
+    private ScriptProfile scriptProfile;
+
     /**
      * Original article URL
      */
     @Column(length = 1000)
     private String originalUrl;
 
+    /**
+     * SHA-256 of the original URL, indexed for deduplication
+     * (originalUrl is too long to index directly)
+     */
+    @Column(name = "url_hash", length = 64)
+    private String urlHash;
+
     /**
      * Source website name
      */
@@ -88,5 +106,31 @@ public class News {
      * Crawl time
      */
     private Date createTime;
-}
 
+    /**
+     * Id of the NewsSource this item was polled from (not persisted; null for full crawls)
+     */
+    @Transient
+    private Long sourceId;
+
+    @PrePersist
+    @PreUpdate
+    public void beforeSave() {
+        updateUrlHash();
+        this.scriptProfile = ScriptProfile.of(title, summary);
+    }
+
+    public void updateUrlHash() {
+        this.urlHash = hashUrl(originalUrl);
+    }
+
+    /**
+     * Dedup key of an article URL, null if the URL is empty
+     */
+    public static String hashUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        return HashUtils.sha256Hex(url.trim());
+    }
+}
@@ -0,0 +1,143 @@
+package com.globalbuddy.model;
+
+import com.globalbuddy.model.converter.StringListConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * News Source Entity
+ * One crawlable news source (RSS feed or HTML list page), managed at runtime instead of
+ * being hard-coded in the crawler. For sources whose feed address is not known for sure,
+ * candidate URLs are probed once and the working one is remembered as lastKnownGoodUrl.
+ */
+@Entity
+@Table(name = "news_sources", indexes = {
+    @Index(name = "idx_news_source_group", columnList = "source_group, enabled")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NewsSource {
+
+    public enum SourceType {
+        RSS,   // RSS/Atom feed
+        HTML   // List page parsed by a built-in HTML crawler
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Source name shown on news items
+     */
+    @Column(nullable = false)
+    private String name;
+
+    /**
+     * Primary endpoint (feed URL or list page URL)
+     */
+    @Column(nullable = false, length = 1000)
+    private String url;
+
+    /**
+     * Alternative endpoints probed when the primary one does not work
+     */
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "candidate_urls", columnDefinition = "TEXT")
+    @Builder.Default
+    private List<String> candidateUrls = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private SourceType type;
+
+    /**
+     * Crawl group, e.g. THAI_NEWS or CMU
+     */
+    @Column(name = "source_group", nullable = false, length = 50)
+    private String group;
+
+    /**
+     * Article extraction profile for this source's host (see ArticleExtractor)
+     */
+    @Column(name = "selector_profile", length = 50)
+    private String selectorProfile;
+
+    /**
+     * Built-in list page crawler for HTML sources
+     */
+    @Column(name = "html_crawler", length = 50)
+    private String htmlCrawler;
+
+    /**
+     * Maximum items taken per crawl
+     */
+    @Column(name = "max_items")
+    private Integer maxItems;
+
+    /**
+     * Minutes between two polls of this source, adapted to how often it publishes
+     */
+    @Column(name = "poll_interval_minutes")
+    private Integer pollIntervalMinutes;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean enabled = true;
+
+    /**
+     * Endpoint that returned items at the last probe
+     */
+    @Column(name = "last_known_good_url", length = 1000)
+    private String lastKnownGoodUrl;
+
+    /**
+     * Time of the last probe (successful or not)
+     */
+    @Column(name = "last_probe_at")
+    private Date lastProbeAt;
+
+    @Column(name = "last_polled_at")
+    private Date lastPolledAt;
+
+    /**
+     * Time of the last poll that found new items
+     */
+    @Column(name = "last_new_items_at")
+    private Date lastNewItemsAt;
+
+    @Column(name = "created_at", updatable = false)
+    private Date createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = new Date();
+        }
+    }
+
+    /**
+     * Primary URL followed by the candidates, without duplicates
+     */
+    public List<String> allEndpoints() {
+        List<String> endpoints = new ArrayList<>();
+        endpoints.add(url);
+        if (candidateUrls != null) {
+            for (String candidate : candidateUrls) {
+                if (candidate != null && !candidate.isBlank() && !endpoints.contains(candidate)) {
+                    endpoints.add(candidate);
+                }
+            }
+        }
+        return endpoints;
+    }
+}
@@ -0,0 +1,72 @@
+package com.globalbuddy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * RSS Feed State Entity
+ * Stores HTTP validators (ETag / Last-Modified) and the content hash of the last
+ * downloaded body of each feed, so unchanged feeds can be skipped on the next poll
+ */
+@Entity
+@Table(name = "rss_feed_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RssFeedState {
+
+    /**
+     * SHA-256 hex of the feed URL
+     */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    /**
+     * Feed URL
+     */
+    @Column(name = "feed_url", length = 1000, nullable = false)
+    private String feedUrl;
+
+    /**
+     * ETag returned by the server, sent back as If-None-Match
+     */
+    @Column(length = 500)
+    private String etag;
+
+    /**
+     * Last-Modified returned by the server, sent back as If-Modified-Since
+     */
+    @Column(name = "last_modified", length = 100)
+    private String lastModified;
+
+    /**
+     * SHA-256 hex of the last downloaded feed body
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    /**
+     * HTTP status of the last poll
+     */
+    @Column(name = "last_status")
+    private Integer lastStatus;
+
+    /**
+     * Time of the last poll
+     */
+    @Column(name = "last_fetched_at")
+    private Date lastFetchedAt;
+
+    /**
+     * Time the feed body last changed
+     */
+    @Column(name = "last_changed_at")
+    private Date lastChangedAt;
+}
@@ -0,0 +1,81 @@
+package com.globalbuddy.model;
+
+import com.globalbuddy.util.ScriptScanner;
+import com.globalbuddy.util.ScriptStats;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Script profile of a post or news item
+ * Computed from the original title and text when the entity is written, so read paths
+ * can decide how to display it without scanning the text. All columns are null for rows
+ * written before the profile existed (the embedded object then loads as null) until the
+ * backfill job has processed them.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScriptProfile {
+
+    /**
+     * Original title contains Thai characters
+     */
+    @Column(name = "script_title_thai")
+    private Boolean titleThai;
+
+    /**
+     * Original body (post content / news summary) contains Thai characters
+     */
+    @Column(name = "script_body_thai")
+    private Boolean bodyThai;
+
+    /**
+     * Title or body contains Chinese characters
+     */
+    @Column(name = "script_has_cjk")
+    private Boolean cjk;
+
+    /**
+     * Title or body contains Latin letters
+     */
+    @Column(name = "script_has_latin")
+    private Boolean latin;
+
+    /**
+     * Script with the most letters: zh / th / en, null if the text has no letters
+     */
+    @Column(name = "script_dominant", length = 10)
+    private String dominant;
+
+    public static ScriptProfile of(String title, String body) {
+        ScriptStats titleStats = ScriptScanner.scan(title);
+        ScriptStats bodyStats = ScriptScanner.scan(body);
+        int han = titleStats.getHan() + bodyStats.getHan();
+        int thai = titleStats.getThai() + bodyStats.getThai();
+        int latin = titleStats.getLatin() + bodyStats.getLatin();
+
+        String dominant = null;
+        if (han > 0 || thai > 0 || latin > 0) {
+            if (han >= thai && han >= latin) {
+                dominant = "zh";
+            } else if (thai >= latin) {
+                dominant = "th";
+            } else {
+                dominant = "en";
+            }
+        }
+        return new ScriptProfile(titleStats.getThai() > 0, bodyStats.getThai() > 0, han > 0, latin > 0, dominant);
+    }
+
+    public boolean hasThaiTitle() {
+        return Boolean.TRUE.equals(titleThai);
+    }
+
+    public boolean hasThaiBody() {
+        return Boolean.TRUE.equals(bodyThai);
+    }
+}
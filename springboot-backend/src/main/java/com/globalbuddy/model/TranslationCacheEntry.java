@@ -0,0 +1,58 @@
+package com.globalbuddy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Translation Cache Entry
+ * One stored LLM translation, keyed by the hash of the normalized source text,
+ * the language pair and the prompt version (see TranslationCache)
+ */
+@Entity
+@Table(name = "translation_cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TranslationCacheEntry {
+
+    /**
+     * SHA-256 hex of (prompt version, source language, target language, normalized text)
+     */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "source_lang", length = 10, nullable = false)
+    private String sourceLang;
+
+    @Column(name = "target_lang", length = 10, nullable = false)
+    private String targetLang;
+
+    @Column(name = "prompt_version", nullable = false)
+    private Integer promptVersion;
+
+    /**
+     * Length of the normalized source text, kept for inspection only
+     */
+    @Column(name = "source_length")
+    private Integer sourceLength;
+
+    @Column(name = "translated_text", columnDefinition = "TEXT", nullable = false)
+    private String translatedText;
+
+    @Column(name = "created_at", updatable = false)
+    private Date createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = new Date();
+        }
+    }
+}
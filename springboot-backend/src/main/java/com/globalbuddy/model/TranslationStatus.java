@@ -0,0 +1,18 @@
+package com.globalbuddy.model;
+
+/**
+ * Background translation state of a post or comment
+ * Rows created before translations were queued have no status and count as COMPLETED.
+ */
+public enum TranslationStatus {
+    PENDING,    // Saved, translation queued
+    COMPLETED,  // Chinese and English versions filled
+    FAILED;     // Gave up after the configured number of attempts
+
+    /**
+     * Effective status of a row, null (legacy rows) counts as COMPLETED
+     */
+    public static TranslationStatus orCompleted(TranslationStatus status) {
+        return status != null ? status : COMPLETED;
+    }
+}
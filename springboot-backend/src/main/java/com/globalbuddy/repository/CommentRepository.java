@@ -2,8 +2,13 @@ package com.globalbuddy.repository;
 
 import com.globalbuddy.model.Comment;
 import com.globalbuddy.model.CommunityPost;
+import com.globalbuddy.model.TranslationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,5 +18,21 @@ public interface CommentRepository extends JpaRepository<Comment, String> {
     @org.springframework.data.jpa.repository.Query("SELECT c FROM Comment c WHERE c.post.id = :postId")
     List<Comment> findByPostId(String postId);
     long countByPost(CommunityPost post);
+
+    // 写入翻译结果：只更新翻译列和翻译状态
+    @Modifying
+    @Transactional
+    @Query("UPDATE Comment c SET c.contentZh = :contentZh, c.contentEn = :contentEn, "
+            + "c.translationStatus = :translationStatus WHERE c.id = :id")
+    int updateTranslation(@Param("id") String id,
+                          @Param("contentZh") String contentZh,
+                          @Param("contentEn") String contentEn,
+                          @Param("translationStatus") TranslationStatus translationStatus);
+
+    // 只更新翻译状态
+    @Modifying
+    @Transactional
+    @Query("UPDATE Comment c SET c.translationStatus = :translationStatus WHERE c.id = :id")
+    int updateTranslationStatus(@Param("id") String id, @Param("translationStatus") TranslationStatus translationStatus);
 }
 
@@ -2,10 +2,17 @@ package com.globalbuddy.repository;
 
 import com.globalbuddy.model.Community;
 import com.globalbuddy.model.CommunityPost;
+import com.globalbuddy.model.ScriptProfile;
+import com.globalbuddy.model.TranslationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface CommunityPostRepository extends JpaRepository<CommunityPost, String> {
@@ -26,7 +33,65 @@ public interface CommunityPostRepository extends JpaRepository<CommunityPost, St
     // 按状态查询帖子（不分页）
     List<CommunityPost> findByStatusOrderByCreatedAtDesc(CommunityPost.Status status);
     
+    // 信息流：某状态且有内容（原文或任一翻译非空）的帖子，按 (createdAt, id) 倒序；走 (status, created_at) 索引
+    String FEED_CONDITION = "p.status = :status AND p.createdAt IS NOT NULL "
+            + "AND (TRIM(p.body) <> '' OR TRIM(p.contentZh) <> '' OR TRIM(p.contentEn) <> '') ";
+
+    @Query("SELECT p FROM CommunityPost p WHERE " + FEED_CONDITION
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<CommunityPost> findFeed(@Param("status") CommunityPost.Status status, Pageable pageable);
+
+    // 信息流的后续页：游标 (createdAt, id) 之后的帖子（keyset 分页，不使用 OFFSET）
+    @Query("SELECT p FROM CommunityPost p WHERE " + FEED_CONDITION
+            + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<CommunityPost> findFeedAfter(@Param("status") CommunityPost.Status status,
+                                      @Param("createdAt") Instant createdAt,
+                                      @Param("id") String id,
+                                      Pageable pageable);
+
     // 按标题查询帖子（用于检查是否已存在）
     List<CommunityPost> findByTitle(String title);
-}
 
+    // 尚未计算脚本画像的帖子（回填用），每行为 [id, title, body]
+    @Query("SELECT p.id, p.title, p.body FROM CommunityPost p WHERE p.scriptProfile.titleThai IS NULL ORDER BY p.id")
+    List<Object[]> findWithoutScriptProfile(Pageable pageable);
+
+    // 写入脚本画像：用 UPDATE 语句而不是 save，不触发 @PreUpdate，也不改变 updatedAt
+    @Modifying
+    @Transactional
+    @Query("UPDATE CommunityPost p SET p.scriptProfile.titleThai = :#{#profile.titleThai}, "
+            + "p.scriptProfile.bodyThai = :#{#profile.bodyThai}, p.scriptProfile.cjk = :#{#profile.cjk}, "
+            + "p.scriptProfile.latin = :#{#profile.latin}, p.scriptProfile.dominant = :#{#profile.dominant} "
+            + "WHERE p.id = :id")
+    int updateScriptProfile(@Param("id") String id, @Param("profile") ScriptProfile profile);
+
+    // 写入翻译结果：只更新翻译列和翻译状态，不会把翻译期间管理员修改的审核状态等字段覆盖回旧值
+    @Modifying
+    @Transactional
+    @Query("UPDATE CommunityPost p SET p.titleZh = :titleZh, p.contentZh = :contentZh, "
+            + "p.titleEn = :titleEn, p.contentEn = :contentEn, p.translationStatus = :translationStatus "
+            + "WHERE p.id = :id")
+    int updateTranslation(@Param("id") String id,
+                          @Param("titleZh") String titleZh,
+                          @Param("contentZh") String contentZh,
+                          @Param("titleEn") String titleEn,
+                          @Param("contentEn") String contentEn,
+                          @Param("translationStatus") TranslationStatus translationStatus);
+
+    // 只更新翻译状态
+    @Modifying
+    @Transactional
+    @Query("UPDATE CommunityPost p SET p.translationStatus = :translationStatus WHERE p.id = :id")
+    int updateTranslationStatus(@Param("id") String id, @Param("translationStatus") TranslationStatus translationStatus);
+
+    // 某状态帖子的向量相关字段（启动时加载向量索引用），每行为 [id, title, body, embedding]
+    @Query("SELECT p.id, p.title, p.body, p.embedding FROM CommunityPost p WHERE p.status = :status ORDER BY p.id")
+    List<Object[]> findEmbeddingRows(@Param("status") CommunityPost.Status status, Pageable pageable);
+
+    // 写入向量：同样用 UPDATE 语句，不触发实体回调，也不改变 updatedAt
+    @Modifying
+    @Transactional
+    @Query("UPDATE CommunityPost p SET p.embedding = :embedding WHERE p.id = :id")
+    int updateEmbedding(@Param("id") String id, @Param("embedding") String embedding);
+}
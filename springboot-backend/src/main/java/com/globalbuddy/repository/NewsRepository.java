@@ -1,13 +1,18 @@
 package com.globalbuddy.repository;
 
 import com.globalbuddy.model.News;
+import com.globalbuddy.model.ScriptProfile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +31,57 @@ public interface NewsRepository extends JpaRepository<News, Long> {
      */
     Optional<News> findByOriginalUrl(String originalUrl);
 
+    /**
+     * Return which of the given URL hashes already exist (batched deduplication)
+     * 
+     * @param urlHashes URL hashes to check
+     * @return Subset of the hashes that are already stored
+     */
+    @Query("SELECT n.urlHash FROM News n WHERE n.urlHash IN :urlHashes")
+    List<String> findExistingUrlHashes(@Param("urlHashes") Collection<String> urlHashes);
+
+    /**
+     * Page through all stored URL hashes (used to warm the in-memory dedup filter)
+     * 
+     * @param pageable Pagination parameters
+     * @return Slice of URL hashes
+     */
+    @Query("SELECT n.urlHash FROM News n WHERE n.urlHash IS NOT NULL ORDER BY n.id")
+    Slice<String> findUrlHashes(Pageable pageable);
+
+    /**
+     * Find news saved before the URL hash column existed (for backfill), in id order after a keyset
+     * 
+     * @param afterId  Last id of the previous page (0 for the first page)
+     * @param pageable Page size
+     * @return News without URL hash
+     */
+    List<News> findByUrlHashIsNullAndOriginalUrlIsNotNullAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Find news saved before the script profile existed (for backfill)
+     * 
+     * @param pageable Pagination parameters
+     * @return Rows of [id, title, summary]
+     */
+    @Query("SELECT n.id, n.title, n.summary FROM News n WHERE n.scriptProfile.titleThai IS NULL ORDER BY n.id")
+    List<Object[]> findWithoutScriptProfile(Pageable pageable);
+
+    /**
+     * Store the script profile of one news item without loading it
+     * 
+     * @param id News ID
+     * @param profile Computed profile
+     * @return Number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE News n SET n.scriptProfile.titleThai = :#{#profile.titleThai}, "
+            + "n.scriptProfile.bodyThai = :#{#profile.bodyThai}, n.scriptProfile.cjk = :#{#profile.cjk}, "
+            + "n.scriptProfile.latin = :#{#profile.latin}, n.scriptProfile.dominant = :#{#profile.dominant} "
+            + "WHERE n.id = :id")
+    int updateScriptProfile(@Param("id") Long id, @Param("profile") ScriptProfile profile);
+
     /**
      * Find news list by source website
      * 
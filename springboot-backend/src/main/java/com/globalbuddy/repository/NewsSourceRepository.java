@@ -0,0 +1,38 @@
+package com.globalbuddy.repository;
+
+import com.globalbuddy.model.NewsSource;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * News Source Data Access Layer
+ */
+@Repository
+public interface NewsSourceRepository extends JpaRepository<NewsSource, Long> {
+
+    /**
+     * Enabled sources of a crawl group, in registration order
+     *
+     * @param group Crawl group
+     * @return Sources
+     */
+    List<NewsSource> findByGroupAndEnabledTrueOrderByIdAsc(String group);
+
+    /**
+     * All enabled sources
+     *
+     * @return Sources
+     */
+    List<NewsSource> findByEnabledTrueOrderByIdAsc();
+
+    /**
+     * Find a source by its primary URL
+     *
+     * @param url Primary endpoint
+     * @return Source
+     */
+    Optional<NewsSource> findByUrl(String url);
+}
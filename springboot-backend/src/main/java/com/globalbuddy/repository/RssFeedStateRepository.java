@@ -0,0 +1,12 @@
+package com.globalbuddy.repository;
+
+import com.globalbuddy.model.RssFeedState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * RSS Feed State Data Access Layer
+ */
+@Repository
+public interface RssFeedStateRepository extends JpaRepository<RssFeedState, String> {
+}
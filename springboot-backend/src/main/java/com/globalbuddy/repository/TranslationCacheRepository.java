@@ -0,0 +1,12 @@
+package com.globalbuddy.repository;
+
+import com.globalbuddy.model.TranslationCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Translation Cache Data Access Layer
+ */
+@Repository
+public interface TranslationCacheRepository extends JpaRepository<TranslationCacheEntry, String> {
+}
@@ -0,0 +1,52 @@
+package com.globalbuddy.repository;
+
+import com.globalbuddy.model.TranslationTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Translation Task Data Access Layer
+ */
+@Repository
+public interface TranslationTaskRepository extends JpaRepository<TranslationTask, Long> {
+
+    List<TranslationTask> findByStatusAndNextAttemptAtBeforeOrderByIdAsc(TranslationTask.Status status, Date now, Pageable pageable);
+
+    long countByStatus(TranslationTask.Status status);
+
+    /**
+     * Claim a pending task; returns 0 if another worker got it first
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TranslationTask t SET t.status = com.globalbuddy.model.TranslationTask.Status.RUNNING, "
+            + "t.attempts = t.attempts + 1, t.updatedAt = :now "
+            + "WHERE t.id = :id AND t.status = com.globalbuddy.model.TranslationTask.Status.PENDING")
+    int claim(@Param("id") Long id, @Param("now") Date now);
+
+    /**
+     * Put tasks left RUNNING by a stopped worker back into the queue
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TranslationTask t SET t.status = com.globalbuddy.model.TranslationTask.Status.PENDING "
+            + "WHERE t.status = com.globalbuddy.model.TranslationTask.Status.RUNNING")
+    int requeueRunning();
+
+    /**
+     * Delete finished tasks last updated before the given time
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TranslationTask t "
+            + "WHERE t.status = com.globalbuddy.model.TranslationTask.Status.DONE AND t.updatedAt < :before")
+    int deleteDoneBefore(@Param("before") Date before);
+}
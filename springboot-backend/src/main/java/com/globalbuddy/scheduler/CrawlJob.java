@@ -0,0 +1,46 @@
+package com.globalbuddy.scheduler;
+
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Crawl Job
+ * A manually requested full crawl, run in the background; callers poll it by id
+ */
+@Getter
+public class CrawlJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Date createdAt = new Date();
+    private volatile Status status = Status.QUEUED;
+    private volatile Date startedAt;
+    private volatile Date finishedAt;
+    private volatile NewsIngestionPipeline.RunResult result;
+    private volatile String error;
+
+    void markRunning() {
+        startedAt = new Date();
+        status = Status.RUNNING;
+    }
+
+    void markSucceeded(NewsIngestionPipeline.RunResult result) {
+        this.result = result;
+        finishedAt = new Date();
+        status = Status.SUCCEEDED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finishedAt = new Date();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,492 @@
+package com.globalbuddy.scheduler;
+
+import com.globalbuddy.model.News;
+import com.globalbuddy.repository.NewsRepository;
+import com.globalbuddy.service.AiSummaryService;
+import com.globalbuddy.service.HostCrawlScheduler;
+import com.globalbuddy.service.LanguageDetectionService;
+import com.globalbuddy.service.NewsCrawlerService;
+import com.globalbuddy.service.NewsUrlDeduplicator;
+import com.globalbuddy.service.TranslationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * News Ingestion Pipeline
+ * Processes crawled news in stages connected by bounded queues:
+ * fetch (download article page) -> extract (article text) -> summarize (AI)
+ * -> translate (AI) -> persist (database).
+ * Each stage has its own worker count, so network-bound and LLM-bound work overlaps
+ * instead of running one article at a time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NewsIngestionPipeline {
+
+    private final NewsCrawlerService newsCrawlerService;
+    private final AiSummaryService aiSummaryService;
+    private final NewsRepository newsRepository;
+    private final LanguageDetectionService languageDetectionService;
+    private final TranslationService translationService;
+    private final NewsUrlDeduplicator newsUrlDeduplicator;
+
+    @Value("${ingestion.pipeline.fetch-concurrency:6}")
+    private int fetchConcurrency;
+
+    @Value("${ingestion.pipeline.extract-concurrency:2}")
+    private int extractConcurrency;
+
+    @Value("${ingestion.pipeline.summarize-concurrency:16}")
+    private int summarizeConcurrency;
+
+    @Value("${ingestion.pipeline.translate-concurrency:4}")
+    private int translateConcurrency;
+
+    @Value("${ingestion.pipeline.persist-concurrency:2}")
+    private int persistConcurrency;
+
+    @Value("${ingestion.pipeline.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${ingestion.pipeline.run-timeout-minutes:60}")
+    private long runTimeoutMinutes;
+
+    private volatile RunResult lastRun;
+
+    /**
+     * Run the given news items through all stages and wait for the run to finish
+     *
+     * @param newsList Crawled news items (not yet deduplicated)
+     * @return Run statistics
+     */
+    public RunResult run(List<News> newsList) {
+        long start = System.currentTimeMillis();
+        RunContext context = new RunContext();
+
+        // Batched dedup before any network work (Bloom filter + one IN query)
+        List<News> newItems = newsUrlDeduplicator.retainNew(newsList);
+        context.skipped.addAndGet(newsList.size() - newItems.size());
+
+        // Keyed by NewsSource id: display names are not unique and HTML crawlers set their own
+        Map<Long, Integer> newItemsBySource = new HashMap<>();
+        for (News news : newItems) {
+            if (news.getSourceId() != null) {
+                newItemsBySource.merge(news.getSourceId(), 1, Integer::sum);
+            }
+        }
+        newItemsBySource.forEach((sourceId, count) -> context.unfinishedBySource.put(sourceId, new AtomicInteger(count)));
+
+        // Alternate between publishers so the fetch workers don't all queue on one host's rate limit
+        newItems = HostCrawlScheduler.interleaveByHost(newItems, News::getOriginalUrl);
+
+        PipelineStage<IngestionItem, IngestionItem> fetchStage =
+                new PipelineStage<>("fetch", fetchConcurrency, queueCapacity, this::fetch);
+        PipelineStage<IngestionItem, IngestionItem> extractStage =
+                new PipelineStage<>("extract", extractConcurrency, queueCapacity, this::extract);
+        PipelineStage<IngestionItem, IngestionItem> summarizeStage =
+                new PipelineStage<>("summarize", summarizeConcurrency, queueCapacity, this::summarize);
+        PipelineStage<IngestionItem, IngestionItem> translateStage =
+                new PipelineStage<>("translate", translateConcurrency, queueCapacity, this::translate);
+        PipelineStage<IngestionItem, News> persistStage =
+                new PipelineStage<>("persist", persistConcurrency, queueCapacity, item -> persist(item, context));
+
+        fetchStage.connect(extractStage).connect(summarizeStage).connect(translateStage).connect(persistStage);
+        List<PipelineStage<?, ?>> stages = List.of(fetchStage, extractStage, summarizeStage, translateStage, persistStage);
+        stages.forEach(PipelineStage::start);
+
+        boolean completed = false;
+        try {
+            for (News news : newItems) {
+                fetchStage.submit(new IngestionItem(news));
+            }
+            fetchStage.closeInput();
+            completed = persistStage.awaitCompletion(runTimeoutMinutes, TimeUnit.MINUTES);
+            if (!completed) {
+                log.error("Ingestion run exceeded {} minutes, aborting remaining work", runTimeoutMinutes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Ingestion run interrupted, aborting remaining work");
+        } finally {
+            if (!completed) {
+                stages.forEach(PipelineStage::abort);
+            }
+        }
+
+        List<PipelineStage.StageStats> stageStats = new ArrayList<>();
+        int stageFailures = 0;
+        for (PipelineStage<?, ?> stage : stages) {
+            PipelineStage.StageStats stats = stage.stats();
+            stageStats.add(stats);
+            stageFailures += (int) stats.failed();
+            log.info("Stage '{}' - received: {}, emitted: {}, dropped: {}, failed: {}, avg: {} ms, max: {} ms, backpressure: {} ms, throughput: {}/s",
+                    stats.name(), stats.received(), stats.emitted(), stats.dropped(), stats.failed(),
+                    String.format("%.1f", stats.avgLatencyMs()), String.format("%.1f", stats.maxLatencyMs()),
+                    stats.backpressureWaitMs(), String.format("%.2f", stats.throughputPerSecond()));
+        }
+
+        RunResult result = new RunResult(
+                newsList.size(),
+                context.success.get(),
+                context.skipped.get(),
+                context.errors.get() + stageFailures,
+                completed,
+                System.currentTimeMillis() - start,
+                newItemsBySource,
+                context.incompleteSources(),
+                stageStats
+        );
+        lastRun = result;
+        return result;
+    }
+
+    /**
+     * Statistics of the most recent run, or null if no run has happened yet
+     */
+    public RunResult getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Fetch stage: download the article page
+     */
+    private IngestionItem fetch(IngestionItem item) {
+        News news = item.news;
+
+        // Fetch full news page (if needed)
+        if ((news.getOriginalContent() == null || news.getOriginalContent().isEmpty()) && news.getOriginalUrl() != null) {
+            log.info("Starting to crawl news content: {}", news.getTitle());
+            item.page = newsCrawlerService.fetchArticlePage(news.getOriginalUrl());
+        }
+        return item;
+    }
+
+    /**
+     * Extract stage: pull the article text out of the downloaded page
+     */
+    private IngestionItem extract(IngestionItem item) {
+        News news = item.news;
+        if (item.page != null) {
+            String content = newsCrawlerService.extractArticleContent(item.page, news.getOriginalUrl());
+            // Release the DOM as early as possible
+            item.page = null;
+            if (content != null && !content.isEmpty()) {
+                news.setOriginalContent(content);
+                log.info("Successfully crawled content, length: {} characters", content.length());
+            } else {
+                log.warn("Failed to crawl content: {}", news.getTitle());
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Summarize stage: generate the AI summary (optional, failure doesn't affect saving)
+     */
+    private IngestionItem summarize(IngestionItem item) {
+        News news = item.news;
+
+        // Generate AI summary using AI service (optional, failure doesn't affect saving)
+        log.info("Step 2: Generating AI summary for news: {}", news.getTitle());
+        
+        // Save original summary from RSS before AI processing
+        String originalSummary = news.getSummary();
+        
+        // Prefer using full content for summary, otherwise use title (at least generate a simple summary)
+        String contentForSummary = news.getOriginalContent();
+        if (contentForSummary == null || contentForSummary.isEmpty()) {
+            contentForSummary = originalSummary; // Use RSS summary as input
+        }
+        
+        // If still no content, at least use title to generate a simple summary
+        if (contentForSummary == null || contentForSummary.isEmpty()) {
+            contentForSummary = news.getTitle();
+            log.info("Content is empty, using title to generate summary: {}", news.getTitle());
+        }
+        
+        // Limit content length for AI processing (to avoid API errors with very long content)
+        if (contentForSummary != null && contentForSummary.length() > 2000) {
+            log.info("Content too long ({} chars), truncating to 2000 chars for AI summary", contentForSummary.length());
+            contentForSummary = contentForSummary.substring(0, 2000) + "...";
+        }
+        
+        if (contentForSummary != null && !contentForSummary.isEmpty()) {
+            try {
+                log.info("Calling AI service to generate summary, content length: {}", contentForSummary.length());
+                // Workers wait while their articles are packed into a shared batched call
+                String aiSummary = aiSummaryService.summarizeAsync(contentForSummary).join();
+                if (aiSummary != null && !aiSummary.isEmpty()) {
+                    news.setSummary(aiSummary);
+                    log.info("✅ AI summary generated successfully: {} - {}", news.getTitle(), aiSummary.length() > 50 ? aiSummary.substring(0, 50) + "..." : aiSummary);
+                } else {
+                    log.warn("⚠️ AI returned empty summary: {}", news.getTitle());
+                    // Restore original summary if AI failed
+                    if (originalSummary != null && !originalSummary.isEmpty()) {
+                        news.setSummary(originalSummary);
+                        log.info("Restored original RSS summary: {}", news.getTitle());
+                    }
+                }
+            } catch (Exception e) {
+                log.error("⚠️ Failed to generate AI summary: {} - {}", news.getTitle(), e.getMessage(), e);
+                // If AI summary generation fails, restore original summary (if any)
+                if (originalSummary != null && !originalSummary.isEmpty()) {
+                    news.setSummary(originalSummary);
+                    log.info("Restored original RSS summary after AI failure: {}", news.getTitle());
+                }
+            }
+        } else {
+            log.warn("⚠️ News content is empty, skipping AI summary generation: {}", news.getTitle());
+        }
+        
+        // If no summary at all, at least keep title as summary
+        if (news.getSummary() == null || news.getSummary().isEmpty()) {
+            news.setSummary(news.getTitle());
+            log.info("Using title as summary: {}", news.getTitle());
+        }
+
+        return item;
+    }
+
+    /**
+     * Translate stage: translate title and summary to Chinese and English
+     */
+    private IngestionItem translate(IngestionItem item) {
+        News news = item.news;
+
+        // Step 2.5: Translate title and summary to Chinese and English (自动翻译，与帖子一样)
+        try {
+            String titleToTranslate = news.getTitle() != null ? news.getTitle() : "";
+            String summaryToTranslate = news.getSummary() != null ? news.getSummary() : "";
+            
+            if (!titleToTranslate.isEmpty() || !summaryToTranslate.isEmpty()) {
+                log.info("🌐 Starting automatic translation for news: {}", titleToTranslate.substring(0, Math.min(50, titleToTranslate.length())));
+                
+                // Detect language
+                String combinedText = titleToTranslate + " " + summaryToTranslate;
+                String detectedLang = languageDetectionService.detectLanguage(combinedText);
+                log.info("🔍 Detected language for news: {} (title: {})", detectedLang, titleToTranslate.substring(0, Math.min(50, titleToTranslate.length())));
+                
+                // Translate title and summary
+                TranslationService.TranslationResult translationResult = 
+                    translationService.translateContent(titleToTranslate, summaryToTranslate, detectedLang);
+                
+                boolean hasTranslation = false;
+                
+                // Set Chinese translations - relaxed validation
+                if (translationResult.getTitleZh() != null && !translationResult.getTitleZh().isEmpty()) {
+                    // 只要翻译结果不是泰语就接受（翻译API返回的应该是中文）
+                    // 不再严格要求必须包含常见中文词，因为短标题可能不包含
+                    if (!languageDetectionService.containsThai(translationResult.getTitleZh())) {
+                        news.setTitleZh(translationResult.getTitleZh());
+                        log.info("✅ Chinese title translation: {} -> {}", 
+                                titleToTranslate.substring(0, Math.min(30, titleToTranslate.length())),
+                                translationResult.getTitleZh().substring(0, Math.min(30, translationResult.getTitleZh().length())));
+                        hasTranslation = true;
+                    } else {
+                        log.warn("⚠️ Translation result contains Thai characters, rejecting: {} for news: {}", 
+                                translationResult.getTitleZh().substring(0, Math.min(50, translationResult.getTitleZh().length())), news.getTitle());
+                    }
+                }
+                
+                // 如果 titleZh 仍然为空，检查原始标题是否包含中文
+                if (news.getTitleZh() == null || news.getTitleZh().isEmpty()) {
+                    // 只要标题包含任何中文字符，就使用原标题作为 titleZh
+                    // 这样可以确保中文标题不会丢失
+                    if (languageDetectionService.containsChinese(titleToTranslate)) {
+                        news.setTitleZh(titleToTranslate);
+                        log.info("✅ News title contains Chinese, using original as titleZh: {}", 
+                                titleToTranslate.substring(0, Math.min(50, titleToTranslate.length())));
+                        hasTranslation = true;
+                    } else if ("zh".equals(detectedLang)) {
+                        // 如果检测为中文但 containsChinese 返回 false（不太可能），仍然使用原标题
+                        news.setTitleZh(titleToTranslate);
+                        log.info("✅ News detected as Chinese, using original as titleZh");
+                        hasTranslation = true;
+                    } else {
+                        log.warn("⚠️ Chinese title translation failed for news: {} (detectedLang: {}, containsChinese: {})", 
+                                news.getTitle().substring(0, Math.min(50, news.getTitle().length())), 
+                                detectedLang, 
+                                languageDetectionService.containsChinese(titleToTranslate));
+                    }
+                }
+                
+                if (translationResult.getBodyZh() != null && !translationResult.getBodyZh().isEmpty()) {
+                    news.setSummaryZh(translationResult.getBodyZh());
+                    log.info("✅ Chinese summary translation completed (length: {})", translationResult.getBodyZh().length());
+                    hasTranslation = true;
+                } else if (languageDetectionService.containsChinese(summaryToTranslate)) {
+                    // 如果摘要包含中文，使用原摘要
+                    news.setSummaryZh(summaryToTranslate);
+                    log.info("✅ News summary contains Chinese, using original as summaryZh");
+                    hasTranslation = true;
+                } else if ("zh".equals(detectedLang)) {
+                    news.setSummaryZh(summaryToTranslate);
+                    log.info("✅ News detected as Chinese, using original summary");
+                    hasTranslation = true;
+                } else {
+                    log.warn("⚠️ Chinese summary translation failed for news: {}", news.getTitle());
+                }
+                
+                // Set English translations
+                if (translationResult.getTitleEn() != null && !translationResult.getTitleEn().isEmpty()) {
+                    news.setTitleEn(translationResult.getTitleEn());
+                    log.info("✅ English title translation: {} -> {}", 
+                            titleToTranslate.substring(0, Math.min(30, titleToTranslate.length())),
+                            translationResult.getTitleEn().substring(0, Math.min(30, translationResult.getTitleEn().length())));
+                    hasTranslation = true;
+                } else if ("en".equals(detectedLang)) {
+                    news.setTitleEn(titleToTranslate);
+                    log.info("✅ News title is already in English, using original");
+                    hasTranslation = true;
+                } else {
+                    log.warn("⚠️ English title translation failed or empty for news: {}", news.getTitle());
+                }
+                
+                if (translationResult.getBodyEn() != null && !translationResult.getBodyEn().isEmpty()) {
+                    news.setSummaryEn(translationResult.getBodyEn());
+                    log.info("✅ English summary translation completed (length: {})", translationResult.getBodyEn().length());
+                    hasTranslation = true;
+                } else if ("en".equals(detectedLang)) {
+                    news.setSummaryEn(summaryToTranslate);
+                    log.info("✅ News summary is already in English, using original");
+                    hasTranslation = true;
+                } else {
+                    log.warn("⚠️ English summary translation failed or empty for news: {}", news.getTitle());
+                }
+                
+                if (hasTranslation) {
+                    log.info("✅ Automatic translation completed for news: {} (has translations: titleZh={}, titleEn={}, summaryZh={}, summaryEn={})", 
+                            news.getTitle(),
+                            news.getTitleZh() != null && !news.getTitleZh().isEmpty(),
+                            news.getTitleEn() != null && !news.getTitleEn().isEmpty(),
+                            news.getSummaryZh() != null && !news.getSummaryZh().isEmpty(),
+                            news.getSummaryEn() != null && !news.getSummaryEn().isEmpty());
+                } else {
+                    log.error("❌ No translations generated for news: {} (detected lang: {})", news.getTitle(), detectedLang);
+                }
+            } else {
+                log.warn("⚠️ News has no content to translate (title and summary are both empty): {}", news.getTitle());
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to translate news: {} - {}", news.getTitle(), e.getMessage(), e);
+            // Continue saving even if translation fails (新闻仍会保存，但没有翻译)
+            log.warn("⚠️ News will be saved without translations due to translation failure");
+        }
+
+        return item;
+    }
+
+    /**
+     * Persist stage: save to database (save even if no AI summary or translation)
+     */
+    private News persist(IngestionItem item, RunContext context) {
+        News news = item.news;
+
+        // Set crawl time
+        if (news.getCreateTime() == null) {
+            news.setCreateTime(new Date());
+        }
+        
+        // Set publish date (if not set)
+        if (news.getPublishDate() == null) {
+            news.setPublishDate(new Date());
+        }
+
+        log.info("Step 3: Saving news to database: {} (source: {})", news.getTitle(), news.getSource());
+        try {
+            News savedNews = newsRepository.save(news);
+            newsUrlDeduplicator.register(savedNews.getUrlHash());
+            context.success.incrementAndGet();
+            context.finished(news);
+            log.info("✅ News saved successfully - ID: {}, Title: {}, Source: {}, Summary: {}", 
+                    savedNews.getId(), 
+                    savedNews.getTitle(), 
+                    savedNews.getSource(),
+                    savedNews.getSummary() != null ? "Yes" : "No");
+            return savedNews;
+        } catch (DataIntegrityViolationException rejected) {
+            // Fails the same way on every attempt, so it must not keep its source's feed from being committed
+            log.error("❌ News rejected by the database: {} - {}", news.getTitle(), rejected.getMessage());
+            context.errors.incrementAndGet();
+            context.finished(news);
+            return null;
+        } catch (Exception saveEx) {
+            log.error("❌ Failed to save news to database: {} - {}", news.getTitle(), saveEx.getMessage(), saveEx);
+            context.errors.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * News item travelling through the pipeline
+     */
+    private static class IngestionItem {
+        private final News news;
+        private Document page;
+
+        IngestionItem(News news) {
+            this.news = news;
+        }
+    }
+
+    /**
+     * Counters shared by the stages of a single run
+     */
+    private static class RunContext {
+        private final AtomicInteger success = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        /** Items per source that are neither stored nor rejected yet */
+        private final Map<Long, AtomicInteger> unfinishedBySource = new ConcurrentHashMap<>();
+
+        void finished(News news) {
+            AtomicInteger unfinished = news.getSourceId() != null ? unfinishedBySource.get(news.getSourceId()) : null;
+            if (unfinished != null) {
+                unfinished.decrementAndGet();
+            }
+        }
+
+        /**
+         * Sources with items that failed in a stage or were cut off by the run timeout
+         */
+        Set<Long> incompleteSources() {
+            Set<Long> incomplete = new HashSet<>();
+            unfinishedBySource.forEach((sourceId, unfinished) -> {
+                if (unfinished.get() > 0) {
+                    incomplete.add(sourceId);
+                }
+            });
+            return incomplete;
+        }
+    }
+
+    /**
+     * Result of a pipeline run
+     */
+    public record RunResult(int totalItems,
+                            int successCount,
+                            int skipCount,
+                            int errorCount,
+                            boolean completed,
+                            long costMs,
+                            Map<Long, Integer> newItemsBySource,
+                            Set<Long> incompleteSources,
+                            List<PipelineStage.StageStats> stages) {
+    }
+}
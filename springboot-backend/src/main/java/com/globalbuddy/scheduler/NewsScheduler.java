@@ -1,329 +1,279 @@
 package com.globalbuddy.scheduler;
 
 import com.globalbuddy.model.News;
-import com.globalbuddy.repository.NewsRepository;
-import com.globalbuddy.service.AiSummaryService;
-import com.globalbuddy.service.LanguageDetectionService;
+import com.globalbuddy.model.NewsSource;
 import com.globalbuddy.service.NewsCrawlerService;
+import com.globalbuddy.service.NewsSourceRegistry;
 import com.globalbuddy.service.NewsToPostService;
-import com.globalbuddy.service.TranslationService;
+import com.globalbuddy.service.RssFeedService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * News Scheduler
- * Scheduled task to crawl news daily and generate AI summaries
+ * Continuously polls news sources, each on its own adaptive interval (see NewsSourceRegistry),
+ * and runs manually requested full crawls as background jobs.
+ * Only one crawl runs at a time: a tick that finds a crawl in progress is skipped,
+ * a queued job waits for it.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class NewsScheduler {
 
+    private static final int MAX_JOBS_KEPT = 50;
+    private static final int DEFAULT_MAX_ITEMS_PER_FEED = 15;
+
     private final NewsCrawlerService newsCrawlerService;
-    private final AiSummaryService aiSummaryService;
-    private final NewsRepository newsRepository;
     private final NewsToPostService newsToPostService;
-    private final LanguageDetectionService languageDetectionService;
-    private final TranslationService translationService;
+    private final NewsIngestionPipeline ingestionPipeline;
+    private final NewsSourceRegistry newsSourceRegistry;
+    private final RssFeedService rssFeedService;
+
+    @Value("${crawler.scheduler.enabled:true}")
+    private boolean continuousEnabled;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "news-refresh-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Recent jobs by id, oldest evicted first
+     */
+    private final Map<String, CrawlJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CrawlJob> eldest) {
+            return size() > MAX_JOBS_KEPT;
+        }
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
 
     /**
-     * Scheduled task: Execute every day at 8:00 AM
-     * Cron expression: second minute hour day month week
-     * "0 0 8 * * ?" means execute at 8:00:00 every day
+     * Scheduler tick: poll every source whose interval has elapsed
+     * Runs with a fixed delay, so a long crawl simply pushes the next tick back.
      */
-    @Scheduled(cron = "0 0 8 * * ?")
-    public void scheduledCrawlAndSummarize() {
-        log.info("========== Starting scheduled news crawling task ==========");
-        
+    @Scheduled(fixedDelayString = "${crawler.scheduler.tick-ms:60000}",
+               initialDelayString = "${crawler.scheduler.initial-delay-ms:60000}")
+    public void pollDueSources() {
+        if (!continuousEnabled) {
+            return;
+        }
+        if (!runLock.tryLock()) {
+            log.debug("A crawl is already running, skipping scheduler tick");
+            return;
+        }
         try {
-            // Step 1: Fetch latest news list (including all Thai news websites and Chiang Mai University)
-            log.info("Step 1: Starting to crawl news list...");
-            List<News> newsList = new ArrayList<>();
-            
-            // Crawl all configured Thai news websites (using RSS)
-            log.info("Fetching news from all Thai news website RSS feeds...");
-            List<News> thaiNews = newsCrawlerService.crawlAllThaiNews();
-            newsList.addAll(thaiNews);
-            
-            // Crawl Chiang Mai University news
-            log.info("Crawling Chiang Mai University news...");
-            List<News> cmuNews = newsCrawlerService.crawlChiangMaiUniversity();
-            newsList.addAll(cmuNews);
-            
-            if (newsList == null || newsList.isEmpty()) {
-                log.warn("No news crawled, task ended. Possible reasons: 1) Website structure changed 2) Network issue 3) Selector mismatch");
+            List<NewsSource> dueSources = newsSourceRegistry.findDueSources();
+            if (dueSources.isEmpty()) {
                 return;
             }
-            
-            log.info("Successfully crawled {} news items, starting processing...", newsList.size());
-
-            // Step 2: Iterate through news, generate AI summaries and save
-            int successCount = 0;
-            int skipCount = 0;
-            int errorCount = 0;
-
-            for (News news : newsList) {
-                try {
-                    // Check if already exists (deduplicate by original URL)
-                    if (news.getOriginalUrl() != null && 
-                        newsRepository.findByOriginalUrl(news.getOriginalUrl()).isPresent()) {
-                        log.debug("News already exists, skipping: {}", news.getTitle());
-                        skipCount++;
-                        continue;
-                    }
-
-                    // Fetch full news content (if needed)
-                    if (news.getOriginalContent() == null || news.getOriginalContent().isEmpty()) {
-                        if (news.getOriginalUrl() != null) {
-                            log.info("Starting to crawl news content: {}", news.getTitle());
-                            String content = newsCrawlerService.crawlNewsContent(news.getOriginalUrl());
-                            if (content != null && !content.isEmpty()) {
-                                news.setOriginalContent(content);
-                                log.info("Successfully crawled content, length: {} characters", content.length());
-                            } else {
-                                log.warn("Failed to crawl content: {}", news.getTitle());
-                            }
-                        }
-                    }
+            log.info("========== Polling {} due news sources ==========", dueSources.size());
 
-                    // Generate AI summary using AI service (optional, failure doesn't affect saving)
-                    log.info("Step 2: Generating AI summary for news: {}", news.getTitle());
-                    
-                    // Save original summary from RSS before AI processing
-                    String originalSummary = news.getSummary();
-                    
-                    // Prefer using full content for summary, otherwise use title (at least generate a simple summary)
-                    String contentForSummary = news.getOriginalContent();
-                    if (contentForSummary == null || contentForSummary.isEmpty()) {
-                        contentForSummary = originalSummary; // Use RSS summary as input
-                    }
-                    
-                    // If still no content, at least use title to generate a simple summary
-                    if (contentForSummary == null || contentForSummary.isEmpty()) {
-                        contentForSummary = news.getTitle();
-                        log.info("Content is empty, using title to generate summary: {}", news.getTitle());
-                    }
-                    
-                    // Limit content length for AI processing (to avoid API errors with very long content)
-                    if (contentForSummary != null && contentForSummary.length() > 2000) {
-                        log.info("Content too long ({} chars), truncating to 2000 chars for AI summary", contentForSummary.length());
-                        contentForSummary = contentForSummary.substring(0, 2000) + "...";
-                    }
-                    
-                    if (contentForSummary != null && !contentForSummary.isEmpty()) {
-                        try {
-                            log.info("Calling AI service to generate summary, content length: {}", contentForSummary.length());
-                            String aiSummary = aiSummaryService.generateSummary(contentForSummary);
-                            if (aiSummary != null && !aiSummary.isEmpty()) {
-                                news.setSummary(aiSummary);
-                                log.info("✅ AI summary generated successfully: {} - {}", news.getTitle(), aiSummary.length() > 50 ? aiSummary.substring(0, 50) + "..." : aiSummary);
-                            } else {
-                                log.warn("⚠️ AI returned empty summary: {}", news.getTitle());
-                                // Restore original summary if AI failed
-                                if (originalSummary != null && !originalSummary.isEmpty()) {
-                                    news.setSummary(originalSummary);
-                                    log.info("Restored original RSS summary: {}", news.getTitle());
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.error("⚠️ Failed to generate AI summary: {} - {}", news.getTitle(), e.getMessage(), e);
-                            // If AI summary generation fails, restore original summary (if any)
-                            if (originalSummary != null && !originalSummary.isEmpty()) {
-                                news.setSummary(originalSummary);
-                                log.info("Restored original RSS summary after AI failure: {}", news.getTitle());
-                            }
-                        }
-                    } else {
-                        log.warn("⚠️ News content is empty, skipping AI summary generation: {}", news.getTitle());
-                    }
-                    
-                    // If no summary at all, at least keep title as summary
-                    if (news.getSummary() == null || news.getSummary().isEmpty()) {
-                        news.setSummary(news.getTitle());
-                        log.info("Using title as summary: {}", news.getTitle());
-                    }
-
-                    // Step 2.5: Translate title and summary to Chinese and English (自动翻译，与帖子一样)
-                    try {
-                        String titleToTranslate = news.getTitle() != null ? news.getTitle() : "";
-                        String summaryToTranslate = news.getSummary() != null ? news.getSummary() : "";
-                        
-                        if (!titleToTranslate.isEmpty() || !summaryToTranslate.isEmpty()) {
-                            log.info("🌐 Starting automatic translation for news: {}", titleToTranslate.substring(0, Math.min(50, titleToTranslate.length())));
-                            
-                            // Detect language
-                            String combinedText = titleToTranslate + " " + summaryToTranslate;
-                            String detectedLang = languageDetectionService.detectLanguage(combinedText);
-                            log.info("🔍 Detected language for news: {} (title: {})", detectedLang, titleToTranslate.substring(0, Math.min(50, titleToTranslate.length())));
-                            
-                            // Translate title and summary
-                            TranslationService.TranslationResult translationResult = 
-                                translationService.translateContent(titleToTranslate, summaryToTranslate, detectedLang);
-                            
-                            boolean hasTranslation = false;
-                            
-                            // Set Chinese translations - relaxed validation
-                            if (translationResult.getTitleZh() != null && !translationResult.getTitleZh().isEmpty()) {
-                                // 只要翻译结果不是泰语就接受（翻译API返回的应该是中文）
-                                // 不再严格要求必须包含常见中文词，因为短标题可能不包含
-                                if (!languageDetectionService.containsThai(translationResult.getTitleZh())) {
-                                    news.setTitleZh(translationResult.getTitleZh());
-                                    log.info("✅ Chinese title translation: {} -> {}", 
-                                            titleToTranslate.substring(0, Math.min(30, titleToTranslate.length())),
-                                            translationResult.getTitleZh().substring(0, Math.min(30, translationResult.getTitleZh().length())));
-                                    hasTranslation = true;
-                                } else {
-                                    log.warn("⚠️ Translation result contains Thai characters, rejecting: {} for news: {}", 
-                                            translationResult.getTitleZh().substring(0, Math.min(50, translationResult.getTitleZh().length())), news.getTitle());
-                                }
-                            }
-                            
-                            // 如果 titleZh 仍然为空，检查原始标题是否包含中文
-                            if (news.getTitleZh() == null || news.getTitleZh().isEmpty()) {
-                                // 只要标题包含任何中文字符，就使用原标题作为 titleZh
-                                // 这样可以确保中文标题不会丢失
-                                if (languageDetectionService.containsChinese(titleToTranslate)) {
-                                    news.setTitleZh(titleToTranslate);
-                                    log.info("✅ News title contains Chinese, using original as titleZh: {}", 
-                                            titleToTranslate.substring(0, Math.min(50, titleToTranslate.length())));
-                                    hasTranslation = true;
-                                } else if ("zh".equals(detectedLang)) {
-                                    // 如果检测为中文但 containsChinese 返回 false（不太可能），仍然使用原标题
-                                    news.setTitleZh(titleToTranslate);
-                                    log.info("✅ News detected as Chinese, using original as titleZh");
-                                    hasTranslation = true;
-                                } else {
-                                    log.warn("⚠️ Chinese title translation failed for news: {} (detectedLang: {}, containsChinese: {})", 
-                                            news.getTitle().substring(0, Math.min(50, news.getTitle().length())), 
-                                            detectedLang, 
-                                            languageDetectionService.containsChinese(titleToTranslate));
-                                }
-                            }
-                            
-                            if (translationResult.getBodyZh() != null && !translationResult.getBodyZh().isEmpty()) {
-                                news.setSummaryZh(translationResult.getBodyZh());
-                                log.info("✅ Chinese summary translation completed (length: {})", translationResult.getBodyZh().length());
-                                hasTranslation = true;
-                            } else if (languageDetectionService.containsChinese(summaryToTranslate)) {
-                                // 如果摘要包含中文，使用原摘要
-                                news.setSummaryZh(summaryToTranslate);
-                                log.info("✅ News summary contains Chinese, using original as summaryZh");
-                                hasTranslation = true;
-                            } else if ("zh".equals(detectedLang)) {
-                                news.setSummaryZh(summaryToTranslate);
-                                log.info("✅ News detected as Chinese, using original summary");
-                                hasTranslation = true;
-                            } else {
-                                log.warn("⚠️ Chinese summary translation failed for news: {}", news.getTitle());
-                            }
-                            
-                            // Set English translations
-                            if (translationResult.getTitleEn() != null && !translationResult.getTitleEn().isEmpty()) {
-                                news.setTitleEn(translationResult.getTitleEn());
-                                log.info("✅ English title translation: {} -> {}", 
-                                        titleToTranslate.substring(0, Math.min(30, titleToTranslate.length())),
-                                        translationResult.getTitleEn().substring(0, Math.min(30, translationResult.getTitleEn().length())));
-                                hasTranslation = true;
-                            } else if ("en".equals(detectedLang)) {
-                                news.setTitleEn(titleToTranslate);
-                                log.info("✅ News title is already in English, using original");
-                                hasTranslation = true;
-                            } else {
-                                log.warn("⚠️ English title translation failed or empty for news: {}", news.getTitle());
-                            }
-                            
-                            if (translationResult.getBodyEn() != null && !translationResult.getBodyEn().isEmpty()) {
-                                news.setSummaryEn(translationResult.getBodyEn());
-                                log.info("✅ English summary translation completed (length: {})", translationResult.getBodyEn().length());
-                                hasTranslation = true;
-                            } else if ("en".equals(detectedLang)) {
-                                news.setSummaryEn(summaryToTranslate);
-                                log.info("✅ News summary is already in English, using original");
-                                hasTranslation = true;
-                            } else {
-                                log.warn("⚠️ English summary translation failed or empty for news: {}", news.getTitle());
-                            }
-                            
-                            if (hasTranslation) {
-                                log.info("✅ Automatic translation completed for news: {} (has translations: titleZh={}, titleEn={}, summaryZh={}, summaryEn={})", 
-                                        news.getTitle(),
-                                        news.getTitleZh() != null && !news.getTitleZh().isEmpty(),
-                                        news.getTitleEn() != null && !news.getTitleEn().isEmpty(),
-                                        news.getSummaryZh() != null && !news.getSummaryZh().isEmpty(),
-                                        news.getSummaryEn() != null && !news.getSummaryEn().isEmpty());
-                            } else {
-                                log.error("❌ No translations generated for news: {} (detected lang: {})", news.getTitle(), detectedLang);
-                            }
-                        } else {
-                            log.warn("⚠️ News has no content to translate (title and summary are both empty): {}", news.getTitle());
-                        }
-                    } catch (Exception e) {
-                        log.error("❌ Failed to translate news: {} - {}", news.getTitle(), e.getMessage(), e);
-                        // Continue saving even if translation fails (新闻仍会保存，但没有翻译)
-                        log.warn("⚠️ News will be saved without translations due to translation failure");
+            List<News> newsList = new ArrayList<>();
+            List<RssFeedService.RssFeedConfig> feeds = new ArrayList<>();
+            List<NewsSource> htmlSources = new ArrayList<>();
+            Map<Long, String> groupBySourceId = new HashMap<>();
+            for (NewsSource source : dueSources) {
+                if (source.getType() == NewsSource.SourceType.RSS) {
+                    RssFeedService.RssFeedConfig feed = newsSourceRegistry.feedConfigFor(source);
+                    if (feed != null) {
+                        feeds.add(feed);
+                        groupBySourceId.put(source.getId(), source.getGroup());
                     }
+                } else {
+                    htmlSources.add(source);
+                }
+            }
+            RssFeedService.FeedBatch feedBatch = rssFeedService.pollFeeds(feeds, DEFAULT_MAX_ITEMS_PER_FEED);
+            newsList.addAll(feedBatch.getItems());
+            if (!feeds.isEmpty()) {
+                log.info("RSS poll - fetched: {}, not modified: {}, unchanged: {}, failed: {}",
+                        feedBatch.count(RssFeedService.FeedFetchStatus.FETCHED),
+                        feedBatch.count(RssFeedService.FeedFetchStatus.NOT_MODIFIED),
+                        feedBatch.count(RssFeedService.FeedFetchStatus.UNCHANGED),
+                        feedBatch.count(RssFeedService.FeedFetchStatus.FAILED));
+            }
 
-                    // Set crawl time
-                    if (news.getCreateTime() == null) {
-                        news.setCreateTime(new Date());
-                    }
-                    
-                    // Set publish date (if not set)
-                    if (news.getPublishDate() == null) {
-                        news.setPublishDate(new Date());
-                    }
+            // HTML list pages are only a fallback for groups whose RSS feeds give nothing
+            Set<String> polledGroups = new HashSet<>(groupBySourceId.values());
+            Set<String> usableGroups = new HashSet<>();
+            for (RssFeedService.FeedFetchResult feedResult : feedBatch.getResults()) {
+                if (feedResult.isUsable() && feedResult.getSourceId() != null) {
+                    usableGroups.add(groupBySourceId.get(feedResult.getSourceId()));
+                }
+            }
+            List<NewsSource> skippedSources = new ArrayList<>();
+            for (NewsSource source : htmlSources) {
+                String group = source.getGroup();
+                boolean rssDown = polledGroups.contains(group)
+                        ? !usableGroups.contains(group)
+                        : newsSourceRegistry.resolveRssFeeds(group).isEmpty();
+                if (!rssDown) {
+                    // Left due, so it is reconsidered when the group's feeds are next polled
+                    skippedSources.add(source);
+                    continue;
+                }
+                log.info("RSS of group {} returned nothing, crawling HTML source {}", group, source.getName());
+                List<News> items = newsCrawlerService.crawlHtmlSource(source);
+                items.forEach(news -> news.setSourceId(source.getId()));
+                newsList.addAll(items);
+            }
 
-                    // Step 3: Save to database (save even if no AI summary or translation)
-                    log.info("Step 3: Saving news to database: {} (source: {})", news.getTitle(), news.getSource());
-                    try {
-                        News savedNews = newsRepository.save(news);
-                        successCount++;
-                        log.info("✅ News saved successfully - ID: {}, Title: {}, Source: {}, Summary: {}", 
-                                savedNews.getId(), 
-                                savedNews.getTitle(), 
-                                savedNews.getSource(),
-                                savedNews.getSummary() != null ? "Yes" : "No");
-                    } catch (Exception saveEx) {
-                        log.error("❌ Failed to save news to database: {} - {}", news.getTitle(), saveEx.getMessage(), saveEx);
-                        errorCount++;
-                    }
+            Map<Long, Integer> newItemsBySource = Map.of();
+            Set<Long> incompleteSources = Set.of();
+            if (!newsList.isEmpty()) {
+                NewsIngestionPipeline.RunResult result = ingestionPipeline.run(newsList);
+                newItemsBySource = result.newItemsBySource();
+                incompleteSources = result.incompleteSources();
+                log.info("Poll completed - Success: {}, Skipped: {}, Failed: {}, Cost: {} ms",
+                        result.successCount(), result.skipCount(), result.errorCount(), result.costMs());
+                if (result.successCount() > 0) {
+                    convertNewsToPosts();
+                }
+            }
+            // Remember a feed's validators only once its own items are stored; otherwise the next
+            // poll downloads it again and the deduplicator drops what was already saved
+            for (RssFeedService.FeedFetchResult feedResult : feedBatch.getResults()) {
+                if (!incompleteSources.contains(feedResult.getSourceId())) {
+                    rssFeedService.commitFeedState(feedResult);
+                }
+            }
+            if (!incompleteSources.isEmpty()) {
+                log.warn("Ingestion incomplete for {} sources, their RSS feed states are not updated so the items are fetched again",
+                        incompleteSources.size());
+            }
 
-                } catch (Exception e) {
-                    log.error("Exception occurred while processing news: {} - {}", news.getTitle(), e.getMessage(), e);
-                    errorCount++;
+            // Adapt each source's interval to whether it had anything new
+            for (NewsSource source : dueSources) {
+                if (skippedSources.contains(source)) {
+                    continue;
                 }
+                newsSourceRegistry.recordPoll(source, newItemsBySource.getOrDefault(source.getId(), 0));
             }
+        } catch (Exception e) {
+            log.error("Scheduler tick failed: {}", e.getMessage(), e);
+        } finally {
+            runLock.unlock();
+        }
+    }
 
-            log.info("========== Scheduled task completed ==========");
-            log.info("Statistics - Success: {}, Skipped: {}, Failed: {}", successCount, skipCount, errorCount);
-            
-            // Step 4: Automatically convert news to posts and push to homepage
-            log.info("Step 4: Starting to convert news to posts...");
+    /**
+     * Queue a full crawl of all sources and return immediately
+     *
+     * @return The queued job, poll it with {@link #getJob(String)}
+     */
+    public CrawlJob submitRefresh() {
+        CrawlJob job = new CrawlJob();
+        jobs.put(job.getId(), job);
+        jobExecutor.submit(() -> {
+            runLock.lock();
             try {
-                NewsToPostService.ConversionResult conversionResult = newsToPostService.convertNewsToPosts(20);
-                log.info("News to posts conversion completed: {}", conversionResult);
+                job.markRunning();
+                log.info("Refresh job {} started", job.getId());
+                job.markSucceeded(crawlAndSummarize());
+                log.info("Refresh job {} finished", job.getId());
             } catch (Exception e) {
-                log.error("Failed to automatically convert news to posts: {}", e.getMessage(), e);
+                log.error("Refresh job {} failed: {}", job.getId(), e.getMessage(), e);
+                job.markFailed(e.getMessage());
+            } finally {
+                runLock.unlock();
             }
+        });
+        log.info("Refresh job {} queued", job.getId());
+        return job;
+    }
 
-        } catch (Exception e) {
-            log.error("Scheduled task execution failed: {}", e.getMessage(), e);
-        }
+    public Optional<CrawlJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
     }
 
     /**
-     * Manually trigger task (for testing)
-     * Can be called via API or other methods
+     * Manually trigger a full crawl and wait for it (for testing)
      */
     public void manualTrigger() {
         log.info("Manually triggering news crawling task");
-        scheduledCrawlAndSummarize();
+        runLock.lock();
+        try {
+            crawlAndSummarize();
+        } finally {
+            runLock.unlock();
+        }
     }
-}
 
+    /**
+     * Full crawl of every source regardless of poll intervals
+     *
+     * @return Pipeline statistics, null if nothing was crawled
+     */
+    private NewsIngestionPipeline.RunResult crawlAndSummarize() {
+        log.info("========== Starting news crawling task ==========");
+
+        // Step 1: Fetch latest news list (including all Thai news websites and Chiang Mai University)
+        log.info("Step 1: Starting to crawl news list...");
+        List<News> newsList = new ArrayList<>();
+
+        // Crawl all configured Thai news websites (using RSS)
+        log.info("Fetching news from all Thai news website RSS feeds...");
+        List<News> thaiNews = newsCrawlerService.crawlAllThaiNews();
+        newsList.addAll(thaiNews);
+
+        // Crawl Chiang Mai University news
+        log.info("Crawling Chiang Mai University news...");
+        List<News> cmuNews = newsCrawlerService.crawlChiangMaiUniversity();
+        newsList.addAll(cmuNews);
+
+        if (newsList.isEmpty()) {
+            log.warn("No news crawled, task ended. Possible reasons: 1) Website structure changed 2) Network issue 3) Selector mismatch");
+            return null;
+        }
+
+        log.info("Successfully crawled {} news items, starting processing...", newsList.size());
+
+        // Step 2-3: Fetch content, generate AI summaries, translate and save (staged pipeline)
+        NewsIngestionPipeline.RunResult result = ingestionPipeline.run(newsList);
+
+        log.info("========== Crawling task completed ==========");
+        log.info("Statistics - Success: {}, Skipped: {}, Failed: {}, Cost: {} ms{}",
+                result.successCount(), result.skipCount(), result.errorCount(), result.costMs(),
+                result.completed() ? "" : " (timed out)");
+
+        // Step 4: Automatically convert news to posts and push to homepage
+        convertNewsToPosts();
+        return result;
+    }
+
+    private void convertNewsToPosts() {
+        log.info("Step 4: Starting to convert news to posts...");
+        try {
+            NewsToPostService.ConversionResult conversionResult = newsToPostService.convertNewsToPosts(20);
+            log.info("News to posts conversion completed: {}", conversionResult);
+        } catch (Exception e) {
+            log.error("Failed to automatically convert news to posts: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.globalbuddy.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One stage of the news ingestion pipeline
+ * A fixed number of worker threads take items from a bounded input queue, process them,
+ * and hand the results to the next stage. A full downstream queue blocks the workers
+ * (backpressure), so a slow stage throttles the stages in front of it instead of
+ * buffering the whole run in memory.
+ *
+ * @param <I> Input item type
+ * @param <O> Output item type
+ */
+@Slf4j
+public class PipelineStage<I, O> {
+
+    private static final long POLL_INTERVAL_MS = 200;
+
+    /**
+     * Stage processing function, returning null drops the item
+     */
+    @FunctionalInterface
+    public interface Handler<I, O> {
+        O handle(I item) throws Exception;
+    }
+
+    private final String name;
+    private final int concurrency;
+    private final BlockingQueue<I> input;
+    private final Handler<I, O> handler;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private PipelineStage<O, ?> downstream;
+    private volatile boolean inputClosed;
+
+    // Metrics
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong backpressureWaitNanos = new AtomicLong();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    public PipelineStage(String name, int concurrency, int queueCapacity, Handler<I, O> handler) {
+        this.name = name;
+        this.concurrency = Math.max(1, concurrency);
+        this.input = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.handler = handler;
+    }
+
+    /**
+     * Connect the output of this stage to the input of the next one
+     *
+     * @return The next stage, for chaining
+     */
+    public <R> PipelineStage<O, R> connect(PipelineStage<O, R> next) {
+        this.downstream = next;
+        return next;
+    }
+
+    /**
+     * Start the worker threads
+     */
+    public void start() {
+        startedAt = System.nanoTime();
+        activeWorkers.set(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(this::runWorker, "ingest-" + name + "-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Submit an item, blocking while the input queue is full
+     */
+    public void submit(I item) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        input.put(item);
+        backpressureWaitNanos.addAndGet(System.nanoTime() - waitStart);
+    }
+
+    /**
+     * Signal that no more items will be submitted; the stage finishes once its queue is drained
+     */
+    public void closeInput() {
+        inputClosed = true;
+    }
+
+    /**
+     * Wait until every worker of this stage has exited
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    /**
+     * Stop the workers immediately (used when a run exceeds its time limit)
+     */
+    public void abort() {
+        inputClosed = true;
+        input.clear();
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void runWorker() {
+        try {
+            while (true) {
+                I item = input.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    if (inputClosed && input.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                received.incrementAndGet();
+
+                O result;
+                long start = System.nanoTime();
+                try {
+                    result = handler.handle(item);
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.error("Pipeline stage '{}' failed to process item: {}", name, e.getMessage(), e);
+                    continue;
+                } finally {
+                    long latency = System.nanoTime() - start;
+                    totalLatencyNanos.addAndGet(latency);
+                    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                }
+
+                if (result == null) {
+                    dropped.incrementAndGet();
+                    continue;
+                }
+                emitted.incrementAndGet();
+                if (downstream != null) {
+                    downstream.submit(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Pipeline stage '{}' worker interrupted", name);
+        } finally {
+            if (activeWorkers.decrementAndGet() == 0) {
+                finishedAt = System.nanoTime();
+                if (downstream != null) {
+                    downstream.closeInput();
+                }
+                finished.countDown();
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the stage counters
+     */
+    public StageStats stats() {
+        long processed = received.get();
+        long end = finishedAt > 0 ? finishedAt : System.nanoTime();
+        double elapsedSeconds = startedAt > 0 ? (end - startedAt) / 1_000_000_000.0 : 0;
+        return new StageStats(
+                name,
+                concurrency,
+                processed,
+                emitted.get(),
+                dropped.get(),
+                failed.get(),
+                input.size(),
+                processed > 0 ? totalLatencyNanos.get() / processed / 1_000_000.0 : 0,
+                maxLatencyNanos.get() / 1_000_000.0,
+                backpressureWaitNanos.get() / 1_000_000,
+                elapsedSeconds > 0 ? processed / elapsedSeconds : 0
+        );
+    }
+
+    /**
+     * Per-stage throughput and latency counters
+     */
+    public record StageStats(String name,
+                             int concurrency,
+                             long received,
+                             long emitted,
+                             long dropped,
+                             long failed,
+                             int queueDepth,
+                             double avgLatencyMs,
+                             double maxLatencyMs,
+                             long backpressureWaitMs,
+                             double throughputPerSecond) {
+    }
+}
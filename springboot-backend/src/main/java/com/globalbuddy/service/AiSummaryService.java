@@ -1,31 +1,106 @@
 package com.globalbuddy.service;
 
-import com.alibaba.dashscope.aigc.generation.Generation;
-import com.alibaba.dashscope.aigc.generation.models.QwenParam;
-import com.alibaba.dashscope.common.Message;
-import com.alibaba.dashscope.common.Role;
 import com.alibaba.dashscope.exception.ApiException;
 import com.alibaba.dashscope.exception.InputRequiredException;
 import com.alibaba.dashscope.exception.NoApiKeyException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalbuddy.util.HashUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * AI Summary Service
  * Uses Alibaba Cloud DashScope SDK (Qwen model) to generate news summaries
+ * Besides the single-article call, {@link #summarizeAsync(String)} packs concurrent requests
+ * into batches (up to a token budget, or whatever arrived within linger-ms) that are
+ * summarized with one structured-JSON call each; identical articles already in flight share
+ * one result.
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class AiSummaryService {
 
-    @Value("${dashscope.api.key:}")
-    private String apiKey;
+    private static final String SINGLE_PROMPT =
+            "Please read the following news content and generate a brief summary in Chinese (not exceeding 100 characters): %s";
 
-    private final Generation gen = new Generation();
+    private final LlmGateway llmGateway;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${summary.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${summary.batch.max-items:10}")
+    private int maxBatchItems;
+
+    @Value("${summary.batch.max-tokens:6000}")
+    private int maxBatchTokens;
+
+    @Value("${summary.batch.linger-ms:300}")
+    private long lingerMs;
+
+    @Value("${summary.batch.concurrency:4}")
+    private int batchConcurrency;
+
+    private ExecutorService batchExecutor;
+    private ScheduledExecutorService lingerTimer;
+
+    // Batch being filled
+    private final Object batchLock = new Object();
+    private List<PendingSummary> pending = new ArrayList<>();
+    private int pendingTokens;
+    private ScheduledFuture<?> lingerFlush;
+
+    // Content hash -> summary in progress
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedItems = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(Math.max(1, batchConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "summary-batch-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        lingerTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "summary-batch-linger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lingerTimer.shutdownNow();
+        batchExecutor.shutdownNow();
+    }
 
     /**
      * Generate news summary
@@ -33,29 +108,11 @@ public class AiSummaryService {
      * 
      * @param content Original news content
      * @return AI-generated summary text
-     * @throws IllegalStateException If API Key is not configured
      * @throws NoApiKeyException API Key exception
      * @throws ApiException API call exception
      * @throws InputRequiredException Input parameter exception
      */
     public String generateSummary(String content) throws NoApiKeyException, ApiException, InputRequiredException {
-        // Check if API Key is configured
-        if (apiKey == null || apiKey.isEmpty()) {
-            log.error("DashScope API Key not configured, please set dashscope.api.key in application.properties or application.yml");
-            throw new IllegalStateException("Please configure dashscope.api.key");
-        }
-        
-        // Check API Key format (DashScope API Key usually starts with sk-)
-        if (!apiKey.startsWith("sk-")) {
-            log.warn("API Key format may be incorrect, DashScope API Key usually starts with 'sk-', current: {}...", 
-                     apiKey.substring(0, Math.min(10, apiKey.length())));
-        }
-        
-        log.info("Using API Key: {}...{} (length: {})", 
-                 apiKey.substring(0, Math.min(10, apiKey.length())), 
-                 apiKey.length() > 10 ? apiKey.substring(apiKey.length() - 4) : "",
-                 apiKey.length());
-
         // Check if input content is empty
         if (content == null || content.trim().isEmpty()) {
             log.warn("Input content is empty, cannot generate summary");
@@ -66,28 +123,17 @@ public class AiSummaryService {
             log.info("Starting to generate summary, content length: {}", content.length());
 
             // Construct prompt
-            String prompt = String.format("Please read the following news content and generate a brief summary in Chinese (not exceeding 100 characters): %s", content);
+            String prompt = String.format(SINGLE_PROMPT, content);
             log.debug("Prompt: {}", prompt.substring(0, Math.min(100, prompt.length())));
 
-            // Build message list
-            List<Message> messages = new ArrayList<>();
-            messages.add(Message.builder()
-                    .role(Role.USER.getValue())
-                    .content(prompt)
-                    .build());
-
-            // Build Qwen parameters
-            QwenParam param = QwenParam.builder()
-                    .apiKey(apiKey)
-                    .model("qwen-max-2025-01-25") // Updated model version
-                    .messages(messages)
-                    .resultFormat(QwenParam.ResultFormat.MESSAGE)
-                    .temperature(0.3f) // Lower temperature value to make output more deterministic and concise
-                    .build();
-
             log.info("Starting to call DashScope API...");
-            // Call Qwen API (direct chained call, refer to QwenService)
-            String summary = gen.call(param).getOutput().getChoices().get(0).getMessage().getContent();
+            // Background lane of the LLM gateway (concurrency, rate limit, retries)
+            String summary = llmGateway.complete(LlmRequest.builder()
+                    .lane(LlmRequest.Lane.BATCH)
+                    .purpose("news-summary")
+                    .userPrompt(prompt)
+                    .temperature(0.3f) // Lower temperature value to make output more deterministic and concise
+                    .build());
             log.info("DashScope API call successful");
             
             if (summary == null || summary.isEmpty()) {
@@ -116,17 +162,23 @@ public class AiSummaryService {
 
     /**
      * Batch generate summaries
-     * Generate summaries for multiple news contents
+     * All contents are packed into batched calls that run concurrently
      * 
      * @param contents List of news contents
-     * @return List of summaries, corresponding to input list order
+     * @return List of summaries, corresponding to input list order (empty string on failure)
      */
     public List<String> generateSummaries(List<String> contents) {
-        List<String> summaries = new ArrayList<>();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
         for (String content : contents) {
+            futures.add(summarizeAsync(content));
+        }
+        // Nothing else is coming, don't wait for the linger timeout
+        flush();
+
+        List<String> summaries = new ArrayList<>();
+        for (CompletableFuture<String> future : futures) {
             try {
-                String summary = generateSummary(content);
-                summaries.add(summary);
+                summaries.add(future.join());
             } catch (Exception e) {
                 log.warn("Failed to generate summary for content: {}", e.getMessage());
                 summaries.add(""); // Return empty string on failure
@@ -134,5 +186,200 @@ public class AiSummaryService {
         }
         return summaries;
     }
-}
 
+    /**
+     * Generate a summary as part of a batch
+     * The content waits up to linger-ms for other articles to share one call with;
+     * identical content already being summarized joins the existing request.
+     *
+     * @param content Original news content
+     * @return Future of the summary, completed exceptionally when the call fails
+     */
+    public CompletableFuture<String> summarizeAsync(String content) {
+        if (content == null || content.trim().isEmpty()) {
+            return CompletableFuture.completedFuture("");
+        }
+        String text = content.trim();
+        String key = HashUtils.sha256Hex(text);
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+        future.whenComplete((summary, error) -> inFlight.remove(key, future));
+
+        if (!batchEnabled) {
+            dispatch(List.of(new PendingSummary(text, future)));
+            return future;
+        }
+
+        int tokens = estimateTokens(text);
+        List<List<PendingSummary>> ready = new ArrayList<>();
+        synchronized (batchLock) {
+            if (!pending.isEmpty() && pendingTokens + tokens > maxBatchTokens) {
+                ready.add(takePending());
+            }
+            pending.add(new PendingSummary(text, future));
+            pendingTokens += tokens;
+            if (pending.size() >= maxBatchItems || pendingTokens >= maxBatchTokens) {
+                ready.add(takePending());
+            } else if (pending.size() == 1) {
+                lingerFlush = lingerTimer.schedule(this::flush, lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        ready.forEach(this::dispatch);
+        return future;
+    }
+
+    /**
+     * Send the batch being filled right away
+     */
+    public void flush() {
+        List<PendingSummary> batch;
+        synchronized (batchLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Batching statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long batchCount = batches.get();
+        stats.put("batches", batchCount);
+        stats.put("batchedItems", batchedItems.get());
+        stats.put("avgBatchSize", batchCount == 0 ? 0 : (double) batchedItems.get() / batchCount);
+        stats.put("coalesced", coalesced.get());
+        stats.put("fallbacks", fallbacks.get());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    private List<PendingSummary> takePending() {
+        List<PendingSummary> batch = pending;
+        pending = new ArrayList<>();
+        pendingTokens = 0;
+        if (lingerFlush != null) {
+            lingerFlush.cancel(false);
+            lingerFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<PendingSummary> batch) {
+        try {
+            batchExecutor.execute(() -> runBatch(batch));
+        } catch (RejectedExecutionException e) {
+            batch.forEach(item -> item.future.completeExceptionally(e));
+        }
+    }
+
+    private void runBatch(List<PendingSummary> batch) {
+        if (batch.size() == 1) {
+            summarizeSingle(batch.get(0));
+            return;
+        }
+        batches.incrementAndGet();
+        batchedItems.addAndGet(batch.size());
+
+        Map<String, String> summaries;
+        try {
+            summaries = callBatchSummary(batch);
+        } catch (Exception e) {
+            // API unavailable: single calls would fail the same way
+            log.error("Batched summary of {} articles failed: {}", batch.size(), e.getMessage());
+            batch.forEach(item -> item.future.completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String summary = summaries.get(itemKey(i));
+            if (summary != null) {
+                batch.get(i).future.complete(summary);
+            } else {
+                fallbacks.incrementAndGet();
+                log.warn("Article {} missing from batched summary reply, summarizing it separately", i + 1);
+                summarizeSingle(batch.get(i));
+            }
+        }
+        log.info("Batched summary of {} articles completed", batch.size());
+    }
+
+    private void summarizeSingle(PendingSummary item) {
+        try {
+            item.future.complete(generateSummary(item.content));
+        } catch (Exception e) {
+            item.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * One structured-JSON call for the whole batch
+     *
+     * @return Non-empty summaries by item key
+     */
+    private Map<String, String> callBatchSummary(List<PendingSummary> batch) throws Exception {
+        Map<String, String> input = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            input.put(itemKey(i), batch.get(i).content);
+        }
+        String prompt = String.format(
+                "Please read each of the following news articles and generate a brief summary in Chinese "
+                + "(not exceeding 100 characters) for each one. The input is a JSON object mapping an id to the article. "
+                + "Respond ONLY with a JSON object that maps every id to its summary, with exactly these keys: %s. "
+                + "Do not add explanations.\n\nInput JSON:\n%s",
+                objectMapper.writeValueAsString(input.keySet()),
+                objectMapper.writeValueAsString(input));
+
+        String reply = llmGateway.complete(LlmRequest.builder()
+                .lane(LlmRequest.Lane.BATCH)
+                .purpose("news-summary-batch")
+                .userPrompt(prompt)
+                .temperature(0.3f)
+                .jsonFields(input.keySet())
+                .build());
+
+        Map<String, String> summaries = new HashMap<>();
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(TranslationService.extractJsonObject(reply));
+        } catch (Exception e) {
+            log.warn("Batched summary reply is not valid JSON: {}", e.getMessage());
+            return summaries;
+        }
+        for (String key : input.keySet()) {
+            JsonNode value = node.path(key);
+            if (value.isTextual() && !value.asText().trim().isEmpty()) {
+                summaries.put(key, value.asText().trim());
+            }
+        }
+        return summaries;
+    }
+
+    private static String itemKey(int index) {
+        return "article_" + (index + 1);
+    }
+
+    /**
+     * Same rough estimate as the gateway: about two characters per token
+     */
+    private static int estimateTokens(String text) {
+        return text.length() / 2;
+    }
+
+    private static class PendingSummary {
+        final String content;
+        final CompletableFuture<String> future;
+
+        PendingSummary(String content, CompletableFuture<String> future) {
+            this.content = content;
+            this.future = future;
+        }
+    }
+}
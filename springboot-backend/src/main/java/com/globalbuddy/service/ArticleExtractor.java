@@ -0,0 +1,331 @@
+package com.globalbuddy.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Article Extractor
+ * Pulls the main text out of a news page without modifying the DOM:
+ * 1. A selector profile chosen by host (one or two known selectors instead of trying everything)
+ * 2. Otherwise a text-density scorer: paragraphs vote for their container, link-heavy blocks lose
+ * 3. Otherwise the body text
+ * Script/style/navigation/ad blocks are skipped while collecting text, and the output is capped
+ * at max-chars, so the cost per article is a couple of tree walks and bounded memory.
+ */
+@Slf4j
+@Service
+public class ArticleExtractor {
+
+    private static final int MIN_PARAGRAPH_CHARS = 25;
+    private static final int TOP_CANDIDATES = 5;
+
+    private static final Set<String> NOISE_TAGS = Set.of(
+            "script", "style", "noscript", "nav", "header", "footer", "aside",
+            "form", "iframe", "svg", "button", "select", "template"
+    );
+    private static final Set<String> NOISE_CLASSES = Set.of(
+            "ad", "ads", "advertisement", "social-share", "share", "related", "related-articles",
+            "sidebar", "comments", "breadcrumb"
+    );
+
+    /**
+     * Built-in selector profiles, tried in order
+     */
+    private static final Map<String, List<String>> PROFILES = Map.of(
+            "wordpress", List.of(".entry-content", ".td-post-content", "article .post-content"),
+            "bangkokpost", List.of(".article-content", ".articl-content"),
+            "nationthailand", List.of(".article-content", ".detail"),
+            "thairath", List.of("[itemprop=articleBody]", ".article-content"),
+            "consulate", List.of("#News_Body_Txt_A", ".TRS_Editor"),
+            "schema-org", List.of("[itemprop=articleBody]")
+    );
+
+    @Value("${crawler.extract.max-bytes:1048576}")
+    private long maxBytes;
+
+    @Value("${crawler.extract.max-chars:20000}")
+    private int maxChars;
+
+    @Value("${crawler.extract.min-chars:100}")
+    private int minChars;
+
+    /**
+     * Host (or parent domain) -> profile name
+     */
+    private final Map<String, String> hostProfiles = new ConcurrentHashMap<>(Map.of(
+            "matichon.co.th", "wordpress",
+            "khaosod.co.th", "wordpress",
+            "prachachat.net", "wordpress",
+            "cmuac.com", "wordpress",
+            "bangkokpost.com", "bangkokpost",
+            "nationthailand.com", "nationthailand",
+            "thairath.co.th", "thairath",
+            "china-consulate.gov.cn", "consulate"
+    ));
+
+    /**
+     * Maximum response size to download for an article page
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Use a selector profile for a host (and its subdomains)
+     *
+     * @return false if the profile name is unknown
+     */
+    public boolean registerHostProfile(String host, String profile) {
+        if (host == null || profile == null || !PROFILES.containsKey(profile)) {
+            return false;
+        }
+        hostProfiles.put(host.toLowerCase(Locale.ROOT), profile);
+        return true;
+    }
+
+    public Set<String> getProfileNames() {
+        return PROFILES.keySet();
+    }
+
+    /**
+     * Extract the article text
+     *
+     * @param doc Downloaded page
+     * @param url Page URL (selects the profile, used in logs)
+     * @return Article text, or null if nothing long enough was found
+     */
+    public String extract(Document doc, String url) {
+        // 1. Site-specific selectors
+        String profile = profileFor(url);
+        if (profile != null) {
+            for (String selector : PROFILES.get(profile)) {
+                Element element = doc.selectFirst(selector);
+                if (element != null) {
+                    String text = collectText(element);
+                    if (text.length() > minChars) {
+                        log.debug("Extracted with profile '{}' selector '{}', length: {}", profile, selector, text.length());
+                        return text;
+                    }
+                }
+            }
+        }
+
+        // 2. Text-density scoring
+        Element body = doc.body();
+        if (body == null) {
+            return null;
+        }
+        Element best = findDensestBlock(body);
+        if (best != null) {
+            String text = collectText(best);
+            if (text.length() > minChars) {
+                log.debug("Extracted with density scorer <{}>, length: {}", best.tagName(), text.length());
+                return text;
+            }
+        }
+
+        // 3. Whole body
+        String bodyText = collectText(body);
+        if (bodyText.length() > minChars) {
+            log.debug("Extracted from body, length: {}", bodyText.length());
+            return bodyText;
+        }
+        log.warn("Could not extract enough article text: {}", url);
+        return null;
+    }
+
+    /**
+     * Score containers by the paragraphs inside them.
+     * Each paragraph with enough own text adds its score to its parent and half to its grandparent;
+     * the top candidates are then penalised by their link density.
+     */
+    private Element findDensestBlock(Element body) {
+        Map<Element, Double> scores = new IdentityHashMap<>();
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (!(node instanceof Element element)) {
+                    return FilterResult.CONTINUE;
+                }
+                if (isNoise(element)) {
+                    return FilterResult.SKIP_ENTIRELY;
+                }
+                String tag = element.normalName();
+                if (!"p".equals(tag) && !"pre".equals(tag) && !"td".equals(tag) && !"div".equals(tag)) {
+                    return FilterResult.CONTINUE;
+                }
+                int ownLength = ownTextLength(element);
+                if (ownLength < MIN_PARAGRAPH_CHARS) {
+                    return FilterResult.CONTINUE;
+                }
+                double score = 1 + punctuationCount(element) + Math.min(3, ownLength / 100.0);
+                Element parent = element.parent();
+                if (parent != null) {
+                    scores.merge(parent, score, Double::sum);
+                    Element grandParent = parent.parent();
+                    if (grandParent != null) {
+                        scores.merge(grandParent, score / 2, Double::sum);
+                    }
+                }
+                return FilterResult.CONTINUE;
+            }
+        }, body);
+
+        if (scores.isEmpty()) {
+            return null;
+        }
+        List<Map.Entry<Element, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Element, Double>comparingByValue().reversed());
+
+        Element best = null;
+        double bestScore = 0;
+        for (Map.Entry<Element, Double> entry : ranked.subList(0, Math.min(TOP_CANDIDATES, ranked.size()))) {
+            double adjusted = entry.getValue() * (1 - linkDensity(entry.getKey()));
+            if (adjusted > bestScore) {
+                bestScore = adjusted;
+                best = entry.getKey();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Visible text of an element, skipping noise blocks, capped at max-chars
+     */
+    private String collectText(Element root) {
+        StringBuilder sb = new StringBuilder();
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (node instanceof Element element) {
+                    return isNoise(element) ? FilterResult.SKIP_ENTIRELY : FilterResult.CONTINUE;
+                }
+                if (node instanceof TextNode textNode) {
+                    String text = textNode.text().trim();
+                    if (!text.isEmpty()) {
+                        if (sb.length() > 0) {
+                            sb.append(' ');
+                        }
+                        sb.append(text);
+                        if (sb.length() >= maxChars) {
+                            return FilterResult.STOP;
+                        }
+                    }
+                }
+                return FilterResult.CONTINUE;
+            }
+        }, root);
+        return sb.length() > maxChars ? sb.substring(0, maxChars) : sb.toString();
+    }
+
+    /**
+     * Share of an element's text that sits inside links
+     */
+    private double linkDensity(Element element) {
+        long[] lengths = new long[2]; // [total, inside links]
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (node instanceof Element child) {
+                    return isNoise(child) ? FilterResult.SKIP_ENTIRELY : FilterResult.CONTINUE;
+                }
+                if (node instanceof TextNode textNode) {
+                    int length = textNode.text().trim().length();
+                    lengths[0] += length;
+                    if (insideLink(textNode, element)) {
+                        lengths[1] += length;
+                    }
+                }
+                return FilterResult.CONTINUE;
+            }
+        }, element);
+        return lengths[0] == 0 ? 1 : (double) lengths[1] / lengths[0];
+    }
+
+    private static boolean insideLink(Node node, Element stop) {
+        for (Element parent = (Element) node.parent(); parent != null && parent != stop; parent = parent.parent()) {
+            if ("a".equals(parent.normalName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int ownTextLength(Element element) {
+        int length = 0;
+        for (TextNode textNode : element.textNodes()) {
+            length += textNode.text().trim().length();
+        }
+        return length;
+    }
+
+    private static int punctuationCount(Element element) {
+        int count = 0;
+        for (TextNode textNode : element.textNodes()) {
+            String text = textNode.getWholeText();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == ',' || c == '，' || c == '、' || c == '。') {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean isNoise(Element element) {
+        if (NOISE_TAGS.contains(element.normalName())) {
+            return true;
+        }
+        for (String className : element.classNames()) {
+            if (NOISE_CLASSES.contains(className.toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String profileFor(String url) {
+        if (url == null) {
+            return null;
+        }
+        String host;
+        try {
+            host = URI.create(url.trim()).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (host == null) {
+            return null;
+        }
+        // Walk up the domain: www.news.example.com -> news.example.com -> example.com
+        host = host.toLowerCase(Locale.ROOT);
+        while (true) {
+            String profile = hostProfiles.get(host);
+            if (profile != null) {
+                return profile;
+            }
+            int dot = host.indexOf('.');
+            if (dot < 0) {
+                return null;
+            }
+            host = host.substring(dot + 1);
+        }
+    }
+}
@@ -144,7 +144,7 @@ public class ContentModerationService {
         );
 
         try {
-            return qwenService.answerQuestion(prompt, "");
+            return qwenService.moderate(prompt);
         } catch (Exception e) {
             log.warn("AI 服务调用失败，使用默认分析", e);
             // 返回默认的不确定结果
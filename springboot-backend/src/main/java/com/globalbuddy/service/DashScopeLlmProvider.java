@@ -0,0 +1,130 @@
+package com.globalbuddy.service;
+
+import com.alibaba.dashscope.aigc.generation.Generation;
+import com.alibaba.dashscope.aigc.generation.GenerationResult;
+import com.alibaba.dashscope.aigc.generation.GenerationUsage;
+import com.alibaba.dashscope.aigc.generation.models.QwenParam;
+import com.alibaba.dashscope.common.Message;
+import com.alibaba.dashscope.common.Role;
+import com.alibaba.dashscope.embeddings.TextEmbedding;
+import com.alibaba.dashscope.embeddings.TextEmbeddingParam;
+import com.alibaba.dashscope.embeddings.TextEmbeddingResult;
+import com.alibaba.dashscope.embeddings.TextEmbeddingResultItem;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * LLM provider backed by the DashScope API (Qwen chat models, text-embedding models)
+ */
+public class DashScopeLlmProvider implements LlmProvider {
+
+    private final String apiKey;
+    private final String defaultModel;
+    private final Generation gen = new Generation();
+    private final TextEmbedding embedding = new TextEmbedding();
+
+    public DashScopeLlmProvider(String apiKey, String defaultModel) {
+        this.apiKey = apiKey;
+        this.defaultModel = defaultModel;
+    }
+
+    @Override
+    public String name() {
+        return "dashscope";
+    }
+
+    @Override
+    public LlmResponse complete(LlmRequest request) throws Exception {
+        checkApiKey();
+        GenerationResult result = gen.call(buildParam(request));
+        GenerationUsage usage = result.getUsage();
+        return new LlmResponse(contentOf(result),
+                usage != null ? usage.getInputTokens() : null,
+                usage != null ? usage.getOutputTokens() : null);
+    }
+
+    @Override
+    public Flux<String> stream(LlmRequest request) {
+        return Flux.defer(() -> {
+            try {
+                checkApiKey();
+                AtomicReference<String> emitted = new AtomicReference<>("");
+                return Flux.from(gen.streamCall(buildParam(request)))
+                        .map(result -> increment(emitted, contentOf(result)))
+                        .filter(delta -> !delta.isEmpty());
+            } catch (Exception e) {
+                return Flux.error(e);
+            }
+        });
+    }
+
+    @Override
+    public EmbeddingResponse embed(String model, List<String> texts) throws Exception {
+        checkApiKey();
+        TextEmbeddingResult result = embedding.call(TextEmbeddingParam.builder()
+                .apiKey(apiKey)
+                .model(model)
+                .texts(texts)
+                .build());
+        // Items carry their input index and are not guaranteed to come back in order
+        float[][] vectors = new float[texts.size()][];
+        for (TextEmbeddingResultItem item : result.getOutput().getEmbeddings()) {
+            List<Double> values = item.getEmbedding();
+            float[] vector = new float[values.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = values.get(i).floatValue();
+            }
+            vectors[item.getTextIndex()] = vector;
+        }
+        return new EmbeddingResponse(Arrays.asList(vectors),
+                result.getUsage() != null ? result.getUsage().getTotalTokens() : null);
+    }
+
+    private void checkApiKey() {
+        if (apiKey == null || apiKey.isEmpty()) {
+            throw new IllegalStateException("Please configure dashscope.api.key");
+        }
+    }
+
+    private QwenParam buildParam(LlmRequest request) {
+        List<Message> messages = new ArrayList<>();
+        if (request.getSystemPrompt() != null) {
+            messages.add(Message.builder()
+                    .role(Role.SYSTEM.getValue())
+                    .content(request.getSystemPrompt())
+                    .build());
+        }
+        messages.add(Message.builder()
+                .role(Role.USER.getValue())
+                .content(request.getUserPrompt())
+                .build());
+
+        return QwenParam.builder()
+                .apiKey(apiKey)
+                .model(request.getModel() != null ? request.getModel() : defaultModel)
+                .messages(messages)
+                .resultFormat(QwenParam.ResultFormat.MESSAGE)
+                .temperature(request.getTemperature()) // null keeps the model default
+                .build();
+    }
+
+    private static String contentOf(GenerationResult result) {
+        if (result.getOutput() == null || result.getOutput().getChoices() == null || result.getOutput().getChoices().isEmpty()) {
+            return "";
+        }
+        String content = result.getOutput().getChoices().get(0).getMessage().getContent();
+        return content != null ? content : "";
+    }
+
+    /**
+     * Stream chunks carry the whole answer so far; only the new suffix is passed on
+     */
+    private static String increment(AtomicReference<String> emitted, String full) {
+        String previous = emitted.getAndSet(full);
+        return full.startsWith(previous) ? full.substring(previous.length()) : full;
+    }
+}
@@ -0,0 +1,19 @@
+package com.globalbuddy.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Text embeddings returned by an LlmProvider, one vector per input text in input order
+ */
+@Value
+public class EmbeddingResponse {
+
+    List<float[]> vectors;
+
+    /**
+     * Token usage reported by the provider, null when unknown
+     */
+    Integer totalTokens;
+}
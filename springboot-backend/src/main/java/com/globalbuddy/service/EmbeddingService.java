@@ -0,0 +1,437 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.model.CommunityPost;
+import com.globalbuddy.repository.CommunityPostRepository;
+import com.globalbuddy.util.HashUtils;
+import com.globalbuddy.util.HnswIndex;
+import com.globalbuddy.util.QuantizedVector;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Post Embedding Service
+ * Computes an embedding of every approved post (title + body, multilingual model) when it is
+ * written, stores it int8-quantized in posts.embedding and keeps all of them in an in-memory
+ * HNSW index for semantic search and related-post lookups.
+ * - writes are picked up by SearchIndexListener and embedded in batches on a background thread
+ * - each stored vector carries a hash of its source text and model, so edited posts and
+ *   model changes are re-embedded, while unrelated updates (translations, likes) are not
+ * - the index is loaded from the stored vectors at startup; posts without one are queued
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmbeddingService {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+    private static final long FAILURE_PAUSE_MS = 60_000;
+
+    private final LlmGateway llmGateway;
+    private final CommunityPostRepository postRepository;
+
+    @Value("${embedding.enabled:true}")
+    private boolean enabled;
+
+    @Value("${embedding.model:text-embedding-v2}")
+    private String model;
+
+    @Value("${embedding.batch-size:25}")
+    private int batchSize;
+
+    @Value("${embedding.max-chars:2000}")
+    private int maxChars;
+
+    @Value("${embedding.linger-ms:500}")
+    private long lingerMs;
+
+    @Value("${embedding.query-cache-size:1000}")
+    private int queryCacheSize;
+
+    @Value("${embedding.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${embedding.hnsw.ef-construction:100}")
+    private int hnswEfConstruction;
+
+    @Value("${embedding.hnsw.ef-search:64}")
+    private int hnswEfSearch;
+
+    @Value("${embedding.hnsw.rebuild-tombstone-ratio:0.3}")
+    private double rebuildTombstoneRatio;
+
+    private volatile HnswIndex index;
+    private volatile boolean loaded;
+    private volatile long pausedUntil;
+    private ScheduledExecutorService worker;
+
+    /** Posts waiting to be embedded: id -> text, guarded by itself */
+    private final Map<String, String> pending = new LinkedHashMap<>();
+
+    /**
+     * Guards changes to the index, so a worker result cannot resurrect a removed post
+     * and a rebuild cannot drop changes made while it copies the graph
+     */
+    private final Object indexLock = new Object();
+    /** Posts removed since the worker started its current load or batch, guarded by indexLock */
+    private final Set<String> removedInFlight = new HashSet<>();
+    /** Changes made while a rebuild runs, replayed onto the new graph (null = removal), guarded by indexLock */
+    private Map<String, QuantizedVector> rebuildChanges;
+    private Map<String, QuantizedVector> queryCache;
+
+    private final AtomicLong embedded = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong queryCacheHits = new AtomicLong();
+    private final AtomicLong queryCacheMisses = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        index = new HnswIndex(hnswM, hnswEfConstruction);
+        int cacheSize = Math.max(1, queryCacheSize);
+        queryCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QuantizedVector> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "post-embedding");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Load stored vectors into the index and queue posts that have none (or a stale one),
+     * then start the background embedding loop
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        worker.execute(this::loadIndex);
+        worker.scheduleWithFixedDelay(this::drain, lingerMs, Math.max(50, lingerMs), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called after a post was inserted or updated
+     */
+    public void onPostSaved(CommunityPost post) {
+        if (!enabled || post.getId() == null) {
+            return;
+        }
+        if (post.getStatus() != CommunityPost.Status.APPROVED) {
+            onPostRemoved(post.getId());
+            return;
+        }
+        String text = embeddingText(post.getTitle(), post.getBody());
+        String hash = sourceHash(text);
+        if (hash.equals(QuantizedVector.sourceHashOf(post.getEmbedding()))) {
+            // Unchanged text, e.g. a translation was added; just make sure it is indexed (newly approved)
+            if (index.get(post.getId()) == null) {
+                QuantizedVector vector = QuantizedVector.decode(post.getEmbedding());
+                if (vector != null) {
+                    synchronized (indexLock) {
+                        removedInFlight.remove(post.getId());
+                        putLocked(post.getId(), vector);
+                    }
+                }
+            }
+            return;
+        }
+        enqueue(post.getId(), text);
+    }
+
+    /**
+     * Called after a post was deleted, or when it is no longer approved
+     */
+    public void onPostRemoved(String postId) {
+        synchronized (indexLock) {
+            removedInFlight.add(postId);
+            index.remove(postId);
+            if (rebuildChanges != null) {
+                rebuildChanges.put(postId, null);
+            }
+        }
+        synchronized (pending) {
+            pending.remove(postId);
+        }
+    }
+
+    /**
+     * Approved posts semantically closest to a free-text query, in any supported language
+     *
+     * @return Post ids with cosine similarity, best first
+     */
+    public List<HnswIndex.Hit> searchSimilar(String query, int limit) throws Exception {
+        if (!enabled || !StringUtils.hasText(query)) {
+            return Collections.emptyList();
+        }
+        String text = truncate(query.trim());
+        QuantizedVector vector = queryCache.get(text);
+        if (vector != null) {
+            queryCacheHits.incrementAndGet();
+        } else {
+            queryCacheMisses.incrementAndGet();
+            vector = QuantizedVector.of(llmGateway.embed(LlmRequest.Lane.INTERACTIVE, model, List.of(text)).get(0));
+            queryCache.put(text, vector);
+        }
+        return index.search(vector, limit, hnswEfSearch);
+    }
+
+    /**
+     * Approved posts closest to the given post (the post itself excluded)
+     *
+     * @return Post ids with cosine similarity, best first; empty when the post has no vector yet
+     */
+    public List<HnswIndex.Hit> relatedPosts(String postId, int limit) {
+        QuantizedVector vector = index.get(postId);
+        if (vector == null) {
+            return Collections.emptyList();
+        }
+        return index.search(vector, limit + 1, hnswEfSearch).stream()
+                .filter(hit -> !hit.key().equals(postId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("model", model);
+        stats.put("loaded", loaded);
+        stats.put("indexed", index.size());
+        stats.put("tombstones", index.tombstones());
+        synchronized (pending) {
+            stats.put("pending", pending.size());
+        }
+        stats.put("embedded", embedded.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("queryCacheHits", queryCacheHits.get());
+        stats.put("queryCacheMisses", queryCacheMisses.get());
+        stats.put("pausedForMs", Math.max(0, pausedUntil - System.currentTimeMillis()));
+        return stats;
+    }
+
+    private void loadIndex() {
+        long start = System.currentTimeMillis();
+        int indexed = 0;
+        int queued = 0;
+        beginInFlight();
+        try {
+            for (int page = 0; ; page++) {
+                List<Object[]> rows = postRepository.findEmbeddingRows(CommunityPost.Status.APPROVED, PageRequest.of(page, LOAD_PAGE_SIZE));
+                for (Object[] row : rows) {
+                    String id = (String) row[0];
+                    String text = embeddingText((String) row[1], (String) row[2]);
+                    String stored = (String) row[3];
+                    QuantizedVector vector = sourceHash(text).equals(QuantizedVector.sourceHashOf(stored))
+                            ? QuantizedVector.decode(stored) : null;
+                    if (vector != null) {
+                        if (putUnlessRemoved(id, vector)) {
+                            indexed++;
+                        }
+                    } else {
+                        enqueue(id, text);
+                        queued++;
+                    }
+                }
+                if (rows.size() < LOAD_PAGE_SIZE) {
+                    break;
+                }
+            }
+            loaded = true;
+            log.info("Embedding index loaded: {} posts indexed, {} queued for embedding in {} ms",
+                    indexed, queued, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to load embedding index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Embed up to batch-size pending posts per call until the queue is empty
+     */
+    private void drain() {
+        try {
+            while (System.currentTimeMillis() >= pausedUntil) {
+                beginInFlight();
+                Map<String, String> batch = takeBatch();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                embedBatch(batch);
+            }
+            maybeRebuild();
+        } catch (Exception e) {
+            log.error("Embedding loop failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void embedBatch(Map<String, String> batch) {
+        List<String> ids = new ArrayList<>(batch.keySet());
+        List<String> texts = new ArrayList<>(batch.values());
+        List<float[]> vectors;
+        try {
+            vectors = llmGateway.embed(LlmRequest.Lane.BATCH, model, texts);
+        } catch (Exception e) {
+            failedBatches.incrementAndGet();
+            pausedUntil = System.currentTimeMillis() + FAILURE_PAUSE_MS;
+            log.warn("Embedding {} posts failed, retrying in {} s: {}", ids.size(), FAILURE_PAUSE_MS / 1000, e.getMessage());
+            // Back to the queue unless a newer version was queued meanwhile
+            synchronized (pending) {
+                batch.forEach(pending::putIfAbsent);
+            }
+            return;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (vectors.get(i) == null) {
+                continue;
+            }
+            QuantizedVector vector = QuantizedVector.of(vectors.get(i));
+            postRepository.updateEmbedding(ids.get(i), vector.encode(sourceHash(texts.get(i))));
+            synchronized (pending) {
+                // Re-queued with newer text while the call was running
+                if (pending.containsKey(ids.get(i))) {
+                    continue;
+                }
+            }
+            // Deleted or rejected while the call was running
+            if (putUnlessRemoved(ids.get(i), vector)) {
+                embedded.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Rebuild the graph once replaced/removed nodes make up a large part of it.
+     * The graph is copied outside the lock; changes made meanwhile are recorded and
+     * replayed onto the new graph in the same critical section as the swap.
+     */
+    private void maybeRebuild() {
+        HnswIndex current = index;
+        int tombstones = current.tombstones();
+        if (tombstones < 100 || tombstones < current.size() * rebuildTombstoneRatio) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, QuantizedVector> snapshot;
+        synchronized (indexLock) {
+            snapshot = current.entries();
+            rebuildChanges = new LinkedHashMap<>();
+        }
+        HnswIndex rebuilt = new HnswIndex(hnswM, hnswEfConstruction);
+        boolean copied = false;
+        try {
+            snapshot.forEach(rebuilt::put);
+            copied = true;
+        } finally {
+            synchronized (indexLock) {
+                Map<String, QuantizedVector> changes = rebuildChanges;
+                rebuildChanges = null;
+                if (copied) {
+                    changes.forEach((id, vector) -> {
+                        if (vector != null) {
+                            rebuilt.put(id, vector);
+                        } else {
+                            rebuilt.remove(id);
+                        }
+                    });
+                    index = rebuilt;
+                }
+            }
+        }
+        log.info("Embedding index rebuilt without {} tombstones: {} posts in {} ms",
+                tombstones, rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Start tracking removals for the worker's next load or batch
+     */
+    private void beginInFlight() {
+        synchronized (indexLock) {
+            removedInFlight.clear();
+        }
+    }
+
+    /**
+     * Index a vector computed by the worker, unless its post was removed since the work started
+     */
+    private boolean putUnlessRemoved(String postId, QuantizedVector vector) {
+        synchronized (indexLock) {
+            if (removedInFlight.contains(postId)) {
+                return false;
+            }
+            putLocked(postId, vector);
+            return true;
+        }
+    }
+
+    private void putLocked(String postId, QuantizedVector vector) {
+        index.put(postId, vector);
+        if (rebuildChanges != null) {
+            rebuildChanges.put(postId, vector);
+        }
+    }
+
+    private Map<String, String> takeBatch() {
+        Map<String, String> batch = new LinkedHashMap<>();
+        synchronized (pending) {
+            Iterator<Map.Entry<String, String>> it = pending.entrySet().iterator();
+            while (it.hasNext() && batch.size() < Math.max(1, batchSize)) {
+                Map.Entry<String, String> entry = it.next();
+                batch.put(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+        }
+        return batch;
+    }
+
+    private void enqueue(String postId, String text) {
+        synchronized (pending) {
+            pending.remove(postId);
+            pending.put(postId, text);
+        }
+    }
+
+    private String embeddingText(String title, String body) {
+        return truncate((title != null ? title : "") + "\n" + (body != null ? body : ""));
+    }
+
+    private String truncate(String text) {
+        return text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+
+    /**
+     * Identifies the text and model a vector was computed from
+     */
+    private String sourceHash(String text) {
+        return HashUtils.sha256Hex(model + "\0" + text).substring(0, 16);
+    }
+}
@@ -0,0 +1,163 @@
+package com.globalbuddy.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.globalbuddy.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Record/replay LLM provider
+ * RECORD passes every call to the real provider and stores the answer under the fixture
+ * directory, one JSON file per request (named by a hash of model, temperature, prompts and
+ * expected JSON fields). REPLAY answers only from those files and fails on a miss, so a
+ * recorded session can be replayed offline and byte-for-byte reproducibly.
+ * Embedding calls are recorded the same way, keyed by model and input texts.
+ */
+@Slf4j
+public class FixtureLlmProvider implements LlmProvider {
+
+    public enum Mode { RECORD, REPLAY }
+
+    private static final int STREAM_CHUNK_CHARS = 8;
+
+    private final LlmProvider delegate;
+    private final Path directory;
+    private final Mode mode;
+    private final String defaultModel;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public FixtureLlmProvider(LlmProvider delegate, Path directory, Mode mode, String defaultModel) {
+        this.delegate = delegate;
+        this.directory = directory;
+        this.mode = mode;
+        this.defaultModel = defaultModel;
+    }
+
+    @Override
+    public String name() {
+        return mode == Mode.RECORD ? "record(" + delegate.name() + ")" : "replay";
+    }
+
+    @Override
+    public LlmResponse complete(LlmRequest request) throws Exception {
+        if (mode == Mode.REPLAY) {
+            return load(request);
+        }
+        LlmResponse response = delegate.complete(request);
+        save(request, response);
+        return response;
+    }
+
+    @Override
+    public Flux<String> stream(LlmRequest request) {
+        if (mode == Mode.REPLAY) {
+            return Flux.defer(() -> {
+                try {
+                    String content = load(request).getContent();
+                    return Flux.range(0, (content.length() + STREAM_CHUNK_CHARS - 1) / STREAM_CHUNK_CHARS)
+                            .map(i -> content.substring(i * STREAM_CHUNK_CHARS,
+                                    Math.min(content.length(), (i + 1) * STREAM_CHUNK_CHARS)));
+                } catch (Exception e) {
+                    return Flux.error(e);
+                }
+            });
+        }
+        // Only completed streams are recorded
+        StringBuilder answer = new StringBuilder();
+        return delegate.stream(request)
+                .doOnNext(answer::append)
+                .doOnComplete(() -> save(request, LlmResponse.of(answer.toString())));
+    }
+
+    @Override
+    public EmbeddingResponse embed(String model, List<String> texts) throws Exception {
+        Path file = directory.resolve(HashUtils.sha256Hex("embedding\0" + model + "\0" + String.join("\0", texts)) + ".json");
+        if (mode == Mode.REPLAY) {
+            if (!Files.exists(file)) {
+                throw new IllegalStateException("No recorded embedding fixture (" + file.getFileName() + ")");
+            }
+            ObjectNode node = (ObjectNode) objectMapper.readTree(file.toFile());
+            List<float[]> vectors = new ArrayList<>();
+            for (JsonNode values : node.path("vectors")) {
+                float[] vector = new float[values.size()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = (float) values.get(i).asDouble();
+                }
+                vectors.add(vector);
+            }
+            return new EmbeddingResponse(vectors, node.hasNonNull("totalTokens") ? node.get("totalTokens").asInt() : null);
+        }
+        EmbeddingResponse response = delegate.embed(model, texts);
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("model", model);
+        ArrayNode vectors = node.putArray("vectors");
+        for (float[] vector : response.getVectors()) {
+            ArrayNode values = vectors.addArray();
+            for (float value : vector) {
+                values.add(value);
+            }
+        }
+        node.put("totalTokens", response.getTotalTokens());
+        write(file, node);
+        return response;
+    }
+
+    private LlmResponse load(LlmRequest request) throws IOException {
+        Path file = fileFor(request);
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("No recorded LLM fixture for " + request.getPurpose() + " request (" + file.getFileName() + ")");
+        }
+        ObjectNode node = (ObjectNode) objectMapper.readTree(file.toFile());
+        return new LlmResponse(node.path("content").asText(),
+                node.hasNonNull("inputTokens") ? node.get("inputTokens").asInt() : null,
+                node.hasNonNull("outputTokens") ? node.get("outputTokens").asInt() : null);
+    }
+
+    private void save(LlmRequest request, LlmResponse response) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("purpose", request.getPurpose());
+        node.put("model", modelOf(request));
+        node.put("temperature", request.getTemperature());
+        node.put("systemPrompt", request.getSystemPrompt());
+        node.put("userPrompt", request.getUserPrompt());
+        node.put("content", response.getContent());
+        node.put("inputTokens", response.getInputTokens());
+        node.put("outputTokens", response.getOutputTokens());
+        write(fileFor(request), node);
+    }
+
+    private void write(Path file, ObjectNode node) {
+        try {
+            Files.createDirectories(directory);
+            // Write to a temp file first so a concurrent replay never sees half a fixture
+            Path temp = Files.createTempFile(directory, "fixture", ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), node);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to record LLM fixture: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Model the request runs on, so fixtures recorded with another llm.model are not replayed
+     */
+    private String modelOf(LlmRequest request) {
+        return request.getModel() != null ? request.getModel() : defaultModel;
+    }
+
+    private Path fileFor(LlmRequest request) {
+        String key = HashUtils.sha256Hex(modelOf(request) + "\0" + request.getTemperature() + "\0"
+                + request.getSystemPrompt() + "\0" + request.getUserPrompt() + "\0" + String.join(",", request.getJsonFields()));
+        return directory.resolve(key + ".json");
+    }
+}
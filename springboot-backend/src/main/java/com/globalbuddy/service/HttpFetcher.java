@@ -0,0 +1,325 @@
+package com.globalbuddy.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.TrustSelfSignedStrategy;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.ssl.SSLContextBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared HTTP Fetcher
+ * Single pooled HTTP client used by every crawler (RSS feeds, list pages, article pages),
+ * so connections to the same publisher are reused instead of paying a TCP + TLS handshake
+ * per request. gzip/deflate responses are decoded transparently.
+ *
+ * A second, small pool with relaxed certificate checks exists for the few government sites
+ * with self-signed certificates; it is only used when a request asks for it.
+ */
+@Slf4j
+@Service
+public class HttpFetcher {
+
+    public static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+    @Value("${crawler.http.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${crawler.http.max-connections-per-host:4}")
+    private int maxConnectionsPerHost;
+
+    @Value("${crawler.http.connect-timeout-ms:10000}")
+    private long connectTimeoutMs;
+
+    @Value("${crawler.http.timeout-ms:30000}")
+    private long defaultTimeoutMs;
+
+    @Value("${crawler.http.idle-eviction-seconds:30}")
+    private long idleEvictionSeconds;
+
+    @Value("${crawler.http.max-body-bytes:5242880}")
+    private long defaultMaxBytes;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private PoolingHttpClientConnectionManager relaxedConnectionManager;
+    private CloseableHttpClient relaxedHttpClient;
+
+    @PostConstruct
+    public void init() throws Exception {
+        connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerHost)
+                .setDefaultConnectionConfig(connectionConfig())
+                .build();
+        httpClient = buildClient(connectionManager);
+
+        SSLContext sslContext = SSLContextBuilder.create()
+                .loadTrustMaterial(new TrustSelfSignedStrategy())
+                .build();
+        relaxedConnectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(Math.max(2, maxConnectionsPerHost))
+                .setMaxConnPerRoute(Math.max(1, maxConnectionsPerHost))
+                .setDefaultConnectionConfig(connectionConfig())
+                .setSSLSocketFactory(new SSLConnectionSocketFactory(sslContext, (hostname, session) -> true))
+                .build();
+        relaxedHttpClient = buildClient(relaxedConnectionManager);
+
+        log.info("HTTP fetcher initialized (max connections: {}, per host: {})", maxConnections, maxConnectionsPerHost);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closeQuietly(httpClient);
+        closeQuietly(relaxedHttpClient);
+    }
+
+    /**
+     * GET a URL with default options
+     */
+    public FetchResponse fetch(String url) throws IOException {
+        return fetch(url, FetchOptions.defaults());
+    }
+
+    /**
+     * GET a URL
+     * Redirects are followed; any status code is returned to the caller (no exception for 4xx/5xx).
+     *
+     * @param url     Target URL
+     * @param options Request headers, overall timeout, body size cap, TLS mode
+     * @return Response status, headers and (possibly truncated) body
+     * @throws IOException On connection failure or when the overall timeout is exceeded
+     */
+    public FetchResponse fetch(String url, FetchOptions options) throws IOException {
+        long timeoutMs = options.getTimeoutMs() != null ? options.getTimeoutMs() : defaultTimeoutMs;
+        long maxBytes = options.getMaxBytes() != null ? options.getMaxBytes() : defaultMaxBytes;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+
+        HttpGet request = new HttpGet(url);
+        request.setConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(timeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(timeoutMs))
+                .setRedirectsEnabled(true)
+                .build());
+        options.getHeaders().forEach(request::setHeader);
+
+        HttpClientContext context = HttpClientContext.create();
+        CloseableHttpClient client = options.isRelaxedTls() ? relaxedHttpClient : httpClient;
+
+        try (ClassicHttpResponse response = client.executeOpen(null, request, context)) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (Header header : response.getHeaders()) {
+                headers.putIfAbsent(header.getName().toLowerCase(), header.getValue());
+            }
+
+            byte[] body = new byte[0];
+            boolean truncated = false;
+            Charset charset = null;
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                ContentType contentType = ContentType.parseLenient(entity.getContentType());
+                charset = contentType != null ? contentType.getCharset() : null;
+                // Reading to EOF returns the connection to the pool; stopping early (size cap or
+                // deadline) makes close() discard it instead of draining the rest
+                InputStream in = entity.getContent();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    // A slow server trickling bytes is cut off at the deadline
+                    if (System.currentTimeMillis() > deadline) {
+                        throw new SocketTimeoutException("Fetch deadline exceeded: " + url);
+                    }
+                    int keep = (int) Math.min(read, maxBytes - out.size());
+                    out.write(buffer, 0, keep);
+                    if (out.size() >= maxBytes) {
+                        truncated = true;
+                        log.debug("Response body truncated at {} bytes: {}", maxBytes, url);
+                        break;
+                    }
+                }
+                body = out.toByteArray();
+            }
+
+            return new FetchResponse(response.getCode(), finalUrl(url, context), headers, body, charset, truncated);
+        }
+    }
+
+    /**
+     * GET a URL and parse it as HTML
+     * Charset comes from the Content-Type header, or the page's meta tag when the header has none.
+     *
+     * @throws IOException On network failure or non-2xx status
+     */
+    public Document fetchDocument(String url) throws IOException {
+        return fetchDocument(url, FetchOptions.defaults());
+    }
+
+    public Document fetchDocument(String url, FetchOptions options) throws IOException {
+        FetchResponse response = fetch(url, options);
+        if (!response.isSuccessful()) {
+            throw new IOException("HTTP " + response.getStatusCode() + " fetching " + url);
+        }
+        return response.toDocument();
+    }
+
+    /**
+     * Connection pool usage, for diagnostics
+     */
+    public Map<String, Object> getPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        PoolStats total = connectionManager.getTotalStats();
+        stats.put("leased", total.getLeased());
+        stats.put("available", total.getAvailable());
+        stats.put("pending", total.getPending());
+        stats.put("max", total.getMax());
+        return stats;
+    }
+
+    private ConnectionConfig connectionConfig() {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(defaultTimeoutMs))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build();
+    }
+
+    private CloseableHttpClient buildClient(PoolingHttpClientConnectionManager manager) {
+        return HttpClients.custom()
+                .setConnectionManager(manager)
+                .setUserAgent(USER_AGENT)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictionSeconds))
+                .build();
+    }
+
+    private static String finalUrl(String url, HttpClientContext context) {
+        if (context.getRedirectLocations() != null) {
+            List<URI> locations = context.getRedirectLocations().getAll();
+            if (!locations.isEmpty()) {
+                return locations.get(locations.size() - 1).toString();
+            }
+        }
+        return url;
+    }
+
+    private static void closeQuietly(CloseableHttpClient client) {
+        if (client == null) {
+            return;
+        }
+        try {
+            client.close();
+        } catch (IOException e) {
+            log.warn("Failed to close HTTP client: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Per-request options
+     */
+    @Getter
+    @Builder
+    public static class FetchOptions {
+        /**
+         * Extra request headers (User-Agent is set by default)
+         */
+        @Singular
+        private final Map<String, String> headers;
+
+        /**
+         * Overall time limit for the request including the body, null = crawler.http.timeout-ms
+         */
+        private final Long timeoutMs;
+
+        /**
+         * Maximum number of body bytes to read, null = crawler.http.max-body-bytes
+         */
+        private final Long maxBytes;
+
+        /**
+         * Accept self-signed certificates and skip host name verification
+         */
+        private final boolean relaxedTls;
+
+        public static FetchOptions defaults() {
+            return FetchOptions.builder().build();
+        }
+    }
+
+    /**
+     * Fetched response, body fully buffered
+     */
+    @Getter
+    public static class FetchResponse {
+        private final int statusCode;
+        private final String finalUrl;
+        private final Map<String, String> headers;
+        private final byte[] body;
+        private final Charset charset;
+        private final boolean truncated;
+
+        public FetchResponse(int statusCode, String finalUrl, Map<String, String> headers,
+                             byte[] body, Charset charset, boolean truncated) {
+            this.statusCode = statusCode;
+            this.finalUrl = finalUrl;
+            this.headers = headers;
+            this.body = body;
+            this.charset = charset;
+            this.truncated = truncated;
+        }
+
+        public boolean isSuccessful() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+
+        /**
+         * Response header value (case-insensitive), null if absent
+         */
+        public String getHeader(String name) {
+            return headers.get(name.toLowerCase());
+        }
+
+        /**
+         * Parse the body as HTML, relative links resolve against the final URL
+         */
+        public Document toDocument() throws IOException {
+            return Jsoup.parse(new ByteArrayInputStream(body), charset != null ? charset.name() : null, finalUrl);
+        }
+    }
+}
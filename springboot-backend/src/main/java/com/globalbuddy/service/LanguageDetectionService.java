@@ -1,85 +1,134 @@
 package com.globalbuddy.service;
 
+import com.globalbuddy.util.LanguageGuess;
+import com.globalbuddy.util.NgramLanguageModel;
+import com.globalbuddy.util.ScriptScanner;
+import com.globalbuddy.util.ScriptStats;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Language Detection Service
  * Detects the language of text content (Chinese/English/Thai)
+ * Language identification uses a character n-gram model trained at startup from the
+ * samples in classpath:langid/{lang}.txt (add a file and a code to langid.languages to
+ * support another language). Script checks are based on {@link ScriptScanner#scan(String)}, a single pass over the code points
+ * with Unicode range checks and primitive counters (no regex, no per-character strings).
  */
 @Slf4j
 @Service
 public class LanguageDetectionService {
 
-    // Unicode blocks for language detection
-    private static final Pattern CHINESE_PATTERN = Pattern.compile("[\u4E00-\u9FFF]");  // CJK Unified Ideographs
-    private static final Pattern THAI_PATTERN = Pattern.compile("[\u0E00-\u0E7F]");    // Thai
-    private static final Pattern ENGLISH_PATTERN = Pattern.compile("[a-zA-Z]");
-    
-    // Common words and characters for validation
-    private static final String[] CHINESE_COMMON_WORDS = {"的", "是", "在", "我", "有", "和", "了", "不", "人", "这"};
+    // Multi-character common words, only searched when the script counts make them matter
     private static final String[] THAI_COMMON_WORDS = {"และ", "ใน", "เป็น", "ของ", "ที่", "จะ", "ได้", "นี้", "กับ", "เขา"};
-    private static final String[] ENGLISH_COMMON_WORDS = {"the", "be", "to", "of", "and", "a", "in", "that", "have", "I"};
+    private static final String[] ENGLISH_COMMON_WORDS = {"the", "be", "to", "of", "and", "a", "in", "that", "have"};
+
+    @Value("${langid.languages:zh,en,th}")
+    private List<String> languages;
+
+    @Value("${langid.bucket-bits:15}")
+    private int bucketBits;
+
+    @Value("${langid.temperature:4.0}")
+    private double temperature;
+
+    @Value("${langid.min-confidence:0.8}")
+    private double minConfidence;
+
+    private volatile NgramLanguageModel model;
+
+    @PostConstruct
+    public void init() {
+        Map<String, String> samples = new LinkedHashMap<>();
+        for (String language : languages) {
+            String code = language.trim();
+            try (InputStream in = new ClassPathResource("langid/" + code + ".txt").getInputStream()) {
+                StringBuilder text = new StringBuilder();
+                for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                    if (!line.startsWith("#")) {
+                        text.append(line).append('\n');
+                    }
+                }
+                samples.put(code, text.toString());
+            } catch (IOException e) {
+                log.warn("No language-ID samples for '{}', language skipped: {}", code, e.getMessage());
+            }
+        }
+        if (samples.size() < 2) {
+            log.warn("Language-ID model not available, using script ratios only");
+            return;
+        }
+        model = NgramLanguageModel.train(samples, bucketBits, temperature);
+        log.info("Language-ID model trained for {} ({} buckets each)", samples.keySet(), 1 << bucketBits);
+    }
+
+    /**
+     * Identify the language with the n-gram model
+     *
+     * @return Most likely language and its probability; UNKNOWN if the text has no letters or no model is loaded
+     */
+    public LanguageGuess identify(String text) {
+        NgramLanguageModel current = model;
+        if (current == null || text == null) {
+            return LanguageGuess.UNKNOWN;
+        }
+        return current.identify(text);
+    }
+
+    /**
+     * Collect the script statistics of a text in one pass
+     */
+    public ScriptStats analyze(String text) {
+        return ScriptScanner.scan(text);
+    }
 
     /**
      * Detect language of the text with enhanced accuracy
+     * Text with a noticeable share of Chinese characters is always Chinese; otherwise the
+     * n-gram model decides, and the script-ratio rules are the fallback for low-confidence guesses
      * 
      * @param text Text to detect
      * @return Language code: "zh" (Chinese), "en" (English), "th" (Thai), or "unknown"
      */
     public String detectLanguage(String text) {
-        if (text == null || text.trim().isEmpty()) {
+        ScriptStats stats = analyze(text);
+        if (stats.getLetters() == 0) {
             return "unknown";
         }
-
-        // First pass: count characters
-        int chineseCount = 0;
-        int thaiCount = 0;
-        int englishWordCount = 0;
-        int totalChars = 0;
-        int wordCount = 0;
-
-        // Count characters and words
-        String[] words = text.split("\\s+");
-        wordCount = words.length;
-        
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c) || Character.isIdeographic(c)) {
-                totalChars++;
-                String charStr = String.valueOf(c);
-                if (CHINESE_PATTERN.matcher(charStr).find()) {
-                    chineseCount++;
-                } else if (THAI_PATTERN.matcher(charStr).find()) {
-                    thaiCount++;
-                } else if (ENGLISH_PATTERN.matcher(charStr).find()) {
-                    // Count English words (not just characters)
-                    if (charStr.matches("[a-zA-Z]")) {
-                        englishWordCount++;
-                    }
-                }
-            }
+        // Mixed Chinese text (e.g. product names in Latin letters) is still treated as Chinese
+        if (stats.hanRatio() > 0.1 && stats.getHan() >= 2) {
+            return "zh";
         }
-
-        if (totalChars == 0) {
-            return "unknown";
+        LanguageGuess guess = identify(text);
+        if (guess.isConfident(minConfidence)) {
+            log.debug("Detected as {} by n-gram model (confidence {})", guess.language(), guess.confidence());
+            return guess.language();
         }
+        return detectByScriptRatios(text, stats);
+    }
 
-        // Calculate ratios
-        double chineseRatio = (double) chineseCount / totalChars;
-        double thaiRatio = (double) thaiCount / totalChars;
-        double englishRatio = wordCount > 0 ? (double) englishWordCount / wordCount : 0;
-
-        // Second pass: validate with common words
-        int chineseWordMatches = countCommonWords(text, CHINESE_COMMON_WORDS);
-        int thaiWordMatches = countCommonWords(text, THAI_COMMON_WORDS);
-        int englishWordMatches = countCommonWords(text.toLowerCase(), ENGLISH_COMMON_WORDS);
+    /**
+     * Rule-based detection from script ratios and common words
+     */
+    private String detectByScriptRatios(String text, ScriptStats stats) {
+        double chineseRatio = stats.hanRatio();
+        double thaiRatio = stats.thaiRatio();
+        double englishRatio = stats.latinPerWord();
+        int chineseCount = stats.getHan();
+        int thaiCount = stats.getThai();
+        int englishCount = stats.getLatin();
 
-        log.debug("Language detection - Chinese: {:.2f}% ({} matches), Thai: {:.2f}% ({} matches), English: {:.2f}% ({} matches)", 
-                 chineseRatio * 100, chineseWordMatches,
-                 thaiRatio * 100, thaiWordMatches,
-                 englishRatio * 100, englishWordMatches);
+        log.debug("Language detection - {}", stats);
 
         // Decision logic - Chinese detection is prioritized and relaxed
         // Chinese characters are distinctive, so even a small ratio is reliable
@@ -92,14 +141,14 @@ public class LanguageDetectionService {
         }
         
         // 2. Thai detection - requires higher threshold and common words
-        if (thaiRatio > 0.2 && thaiWordMatches >= 1) {
-            log.debug("Detected as Thai: ratio={}, wordMatches={}", thaiRatio, thaiWordMatches);
+        if (thaiRatio > 0.2 && countCommonWords(text, THAI_COMMON_WORDS, false) >= 1) {
+            log.debug("Detected as Thai: ratio={}", thaiRatio);
             return "th";
         }
         
         // 3. English detection
-        if (englishRatio > 0.3 && englishWordMatches >= 1) {
-            log.debug("Detected as English: ratio={}, wordMatches={}", englishRatio, englishWordMatches);
+        if (englishRatio > 0.3 && countCommonWords(text, ENGLISH_COMMON_WORDS, true) >= 1) {
+            log.debug("Detected as English: ratio={}", englishRatio);
             return "en";
         }
         
@@ -117,51 +166,46 @@ public class LanguageDetectionService {
         }
 
         // Last resort: use the most common script
-        if (thaiCount > 0 && thaiCount > englishWordCount) {
+        if (thaiCount > 0 && thaiCount > englishCount) {
             return "th";
-        } else if (englishWordCount > 0) {
+        } else if (englishCount > 0) {
             return "en";
         }
 
         return "unknown";
     }
-    
+
     /**
-     * Count occurrences of common words in the text
+     * Count how many of the common words occur in the text (substring match, no copies of the text)
      */
-    private int countCommonWords(String text, String[] commonWords) {
+    private static int countCommonWords(String text, String[] commonWords, boolean ignoreCase) {
         int count = 0;
         for (String word : commonWords) {
-            if (text.contains(word)) {
+            if (containsRegion(text, word, ignoreCase)) {
                 count++;
             }
         }
         return count;
     }
 
+    private static boolean containsRegion(String text, String word, boolean ignoreCase) {
+        int last = text.length() - word.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(ignoreCase, i, word, 0, word.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Check if text contains Chinese characters (relaxed validation)
      * For translation validation, we only check if there are Chinese characters
      */
     public boolean containsChinese(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
-        }
-        
-        // Check for Chinese characters - count them
-        int chineseCount = 0;
-        int totalChars = 0;
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c) || Character.isIdeographic(c)) {
-                totalChars++;
-                if (CHINESE_PATTERN.matcher(String.valueOf(c)).find()) {
-                    chineseCount++;
-                }
-            }
-        }
-        
+        ScriptStats stats = analyze(text);
         // If at least 2 Chinese characters or 20% of text is Chinese, consider it contains Chinese
-        return chineseCount >= 2 || (totalChars > 0 && (double) chineseCount / totalChars >= 0.2);
+        return stats.getHan() >= 2 || (stats.getLetters() > 0 && stats.hanRatio() >= 0.2);
     }
     
     /**
@@ -169,19 +213,8 @@ public class LanguageDetectionService {
      * Use this for language detection, not for translation validation
      */
     public boolean containsChineseStrict(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
-        }
-        
-        // First check for Chinese characters
-        boolean hasChineseChars = CHINESE_PATTERN.matcher(text).find();
-        if (!hasChineseChars) {
-            return false;
-        }
-        
-        // Then validate with common Chinese words to reduce false positives
-        int chineseWordMatches = countCommonWords(text, CHINESE_COMMON_WORDS);
-        return chineseWordMatches >= 1; // At least one common Chinese word found
+        // At least one Chinese character, and one common Chinese word to reduce false positives
+        return analyze(text).getChineseCommonWords() >= 1;
     }
 
     /**
@@ -190,87 +223,36 @@ public class LanguageDetectionService {
      * This allows accepting translations that have some Thai mixed in but are primarily Chinese
      */
     public boolean containsThai(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
-        }
-        
-        // Check for Thai characters - count them
-        int thaiCount = 0;
-        int chineseCount = 0;
-        int totalChars = 0;
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c) || Character.isIdeographic(c)) {
-                totalChars++;
-                if (THAI_PATTERN.matcher(String.valueOf(c)).find()) {
-                    thaiCount++;
-                } else if (CHINESE_PATTERN.matcher(String.valueOf(c)).find()) {
-                    chineseCount++;
-                }
-            }
-        }
-        
+        ScriptStats stats = analyze(text);
         // If Chinese characters are more than Thai, don't consider it as Thai
         // This handles mixed Chinese-Thai text where Chinese is dominant
-        if (chineseCount > thaiCount) {
+        if (stats.getHan() > stats.getThai()) {
             return false;
         }
-        
         // Only return true if Thai is dominant (>30% of text)
-        return totalChars > 0 && (double) thaiCount / totalChars > 0.3;
+        return stats.thaiRatio() > 0.3;
     }
     
     /**
      * Check if text has any Thai characters at all (strict check)
+     * Stops at the first Thai character
      */
     public boolean hasAnyThai(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
-        }
-        return THAI_PATTERN.matcher(text).find();
+        return ScriptScanner.hasThai(text);
     }
     
     /**
      * Check if text is primarily Chinese (Chinese characters > 50%)
      */
     public boolean isPrimarilyChinese(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
-        }
-        
-        int chineseCount = 0;
-        int totalChars = 0;
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c) || Character.isIdeographic(c)) {
-                totalChars++;
-                if (CHINESE_PATTERN.matcher(String.valueOf(c)).find()) {
-                    chineseCount++;
-                }
-            }
-        }
-        
-        return totalChars > 0 && (double) chineseCount / totalChars > 0.5;
+        return analyze(text).hanRatio() > 0.5;
     }
     
     /**
      * Check if text is primarily Thai (Thai characters > 50%)
      */
     public boolean isPrimarilyThai(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
-        }
-        
-        int thaiCount = 0;
-        int totalChars = 0;
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c) || Character.isIdeographic(c)) {
-                totalChars++;
-                if (THAI_PATTERN.matcher(String.valueOf(c)).find()) {
-                    thaiCount++;
-                }
-            }
-        }
-        
-        return totalChars > 0 && (double) thaiCount / totalChars > 0.5;
+        return analyze(text).thaiRatio() > 0.5;
     }
     
     /**
@@ -278,39 +260,18 @@ public class LanguageDetectionService {
      * Use this for language detection, not for translation validation
      */
     public boolean containsThaiStrict(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
-        }
-        
-        // First check for Thai characters
-        boolean hasThaiChars = THAI_PATTERN.matcher(text).find();
-        if (!hasThaiChars) {
+        if (!hasAnyThai(text)) {
             return false;
         }
-        
         // Then validate with common Thai words to reduce false positives
-        int thaiWordMatches = countCommonWords(text, THAI_COMMON_WORDS);
-        return thaiWordMatches >= 1; // At least one common Thai word found
+        return countCommonWords(text, THAI_COMMON_WORDS, false) >= 1; // At least one common Thai word found
     }
 
     /**
      * Check if text is primarily English
      */
     public boolean isPrimarilyEnglish(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
-        }
-        int englishCount = 0;
-        int totalChars = 0;
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c)) {
-                totalChars++;
-                if (ENGLISH_PATTERN.matcher(String.valueOf(c)).find()) {
-                    englishCount++;
-                }
-            }
-        }
-        return totalChars > 0 && (double) englishCount / totalChars > 0.7;
+        ScriptStats stats = analyze(text);
+        return stats.getLetters() > 0 && (double) stats.getLatin() / stats.getLetters() > 0.7;
     }
 }
-
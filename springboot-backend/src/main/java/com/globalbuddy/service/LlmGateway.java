@@ -0,0 +1,559 @@
+package com.globalbuddy.service;
+
+import com.alibaba.dashscope.exception.InputRequiredException;
+import com.alibaba.dashscope.exception.NoApiKeyException;
+import com.globalbuddy.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * LLM Gateway
+ * Single entry point for all chat and embedding calls; the calls themselves are made by the
+ * configured LlmProvider (DashScope, offline stub or recorded fixtures). Provides:
+ * - priority lanes: waiting INTERACTIVE requests always get the next free slot, and BATCH
+ *   requests may only use part of the slots, so bulk jobs cannot starve user-facing calls
+ * - a global concurrency limit
+ * - token-bucket rate limiting by requests per second and by (estimated) tokens per minute
+ * - retries with jittered exponential backoff for transient errors
+ * - a circuit breaker that fails fast after repeated failures and probes again after a pause
+ * - per-lane latency, queue wait and queue depth metrics
+ * Streaming calls share the slots, rate limits and circuit breaker but are not retried,
+ * since part of the answer may already have reached the client.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LlmGateway {
+
+    private static final int LATENCY_SAMPLES = 512;
+
+    @Value("${llm.gateway.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${llm.gateway.batch-max-concurrency:6}")
+    private int batchMaxConcurrency;
+
+    @Value("${llm.gateway.interactive-queue-timeout-ms:30000}")
+    private long interactiveQueueTimeoutMs;
+
+    @Value("${llm.gateway.batch-queue-timeout-ms:600000}")
+    private long batchQueueTimeoutMs;
+
+    @Value("${llm.gateway.requests-per-second:5}")
+    private double requestsPerSecond;
+
+    @Value("${llm.gateway.tokens-per-minute:200000}")
+    private double tokensPerMinute;
+
+    @Value("${llm.gateway.expected-output-tokens:300}")
+    private int expectedOutputTokens;
+
+    @Value("${llm.gateway.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${llm.gateway.backoff-base-ms:500}")
+    private long backoffBaseMs;
+
+    @Value("${llm.gateway.backoff-max-ms:8000}")
+    private long backoffMaxMs;
+
+    @Value("${llm.gateway.circuit-failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${llm.gateway.circuit-open-seconds:30}")
+    private long circuitOpenSeconds;
+
+    private final LlmProvider provider;
+
+    private TokenBucket requestBucket;
+    private TokenBucket tokenBucket;
+
+    // Slot scheduling
+    private final ReentrantLock slotLock = new ReentrantLock();
+    private final Condition interactiveTurn = slotLock.newCondition();
+    private final Condition batchTurn = slotLock.newCondition();
+    private int running;
+    private int batchRunning;
+    private int waitingInteractive;
+    private int waitingBatch;
+
+    // Circuit breaker
+    private enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+    private final Object circuitLock = new Object();
+    private CircuitState circuitState = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long circuitOpenedAt;
+    private boolean probeInFlight;
+
+    private final Map<LlmRequest.Lane, LaneMetrics> metrics = new EnumMap<>(LlmRequest.Lane.class);
+
+    @PostConstruct
+    public void init() {
+        requestBucket = new TokenBucket(requestsPerSecond, Math.max(1, requestsPerSecond));
+        tokenBucket = new TokenBucket(tokensPerMinute / 60.0, tokensPerMinute / 6.0);
+        batchMaxConcurrency = Math.max(1, Math.min(batchMaxConcurrency, maxConcurrency));
+        for (LlmRequest.Lane lane : LlmRequest.Lane.values()) {
+            metrics.put(lane, new LaneMetrics());
+        }
+    }
+
+    /**
+     * Run a chat completion
+     *
+     * @return Content of the first choice
+     * @throws LlmUnavailableException When the circuit is open or no slot became free in time
+     */
+    public String complete(LlmRequest request) throws NoApiKeyException, InputRequiredException {
+        LlmRequest.Lane lane = request.getLane();
+        LaneMetrics laneMetrics = metrics.get(lane);
+        laneMetrics.submitted.incrementAndGet();
+        return callWithRetry(lane, request.getPurpose(), estimateTokens(request), laneMetrics,
+                () -> provider.complete(request), LlmResponse::getTotalTokens).getContent();
+    }
+
+    /**
+     * Compute text embeddings, with the same slots, rate limits, retries and circuit breaker as chat calls
+     *
+     * @param texts Input texts (the caller keeps batches within the model's per-call limit)
+     * @return One vector per text, in input order
+     */
+    public List<float[]> embed(LlmRequest.Lane lane, String model, List<String> texts) throws NoApiKeyException, InputRequiredException {
+        LaneMetrics laneMetrics = metrics.get(lane);
+        laneMetrics.submitted.incrementAndGet();
+        int estimatedTokens = texts.stream().mapToInt(text -> text.length() / 2).sum();
+        return callWithRetry(lane, "embedding", estimatedTokens, laneMetrics,
+                () -> provider.embed(model, texts), EmbeddingResponse::getTotalTokens).getVectors();
+    }
+
+    /**
+     * Run a chat completion in streaming mode
+     * The slot is held until the stream completes, fails or is cancelled; cancelling the
+     * returned Flux (e.g. because the HTTP client went away) also cancels the upstream call.
+     *
+     * @return Text increments as the model produces them
+     */
+    public Flux<String> stream(LlmRequest request) {
+        return Flux.defer(() -> {
+            LlmRequest.Lane lane = request.getLane();
+            LaneMetrics laneMetrics = metrics.get(lane);
+            laneMetrics.submitted.incrementAndGet();
+
+            // Wait for the rate limits before taking a slot, so waiting does not keep a slot busy
+            throttle(estimateTokens(request));
+            long queuedAt = System.nanoTime();
+            acquireSlot(lane);
+            laneMetrics.recordQueueWait(System.nanoTime() - queuedAt);
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    releaseSlot(lane);
+                }
+            };
+
+            try {
+                beforeCall(laneMetrics);
+
+                long start = System.nanoTime();
+                AtomicBoolean firstToken = new AtomicBoolean(true);
+
+                return provider.stream(request)
+                        .doOnNext(delta -> {
+                            if (firstToken.compareAndSet(true, false)) {
+                                laneMetrics.recordFirstToken(System.nanoTime() - start);
+                            }
+                        })
+                        .doOnComplete(() -> {
+                            onSuccess();
+                            laneMetrics.recordSuccess(System.nanoTime() - start);
+                        })
+                        .doOnError(e -> {
+                            if (e instanceof Exception exception && isRetryable(exception)) {
+                                onFailure();
+                            } else {
+                                releaseProbe();
+                            }
+                            laneMetrics.failed.incrementAndGet();
+                            log.warn("LLM stream failed ({} / {}): {}", lane, request.getPurpose(), e.getMessage());
+                        })
+                        .doOnCancel(() -> {
+                            releaseProbe();
+                            laneMetrics.cancelled.incrementAndGet();
+                            log.debug("LLM stream cancelled by the client ({} / {})", lane, request.getPurpose());
+                        })
+                        .doFinally(signal -> release.run());
+            } catch (Exception e) {
+                release.run();
+                return Flux.<String>error(e);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Gateway state and per-lane metrics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("provider", provider.name());
+        slotLock.lock();
+        try {
+            stats.put("running", running);
+            stats.put("maxConcurrency", maxConcurrency);
+            stats.put("batchMaxConcurrency", batchMaxConcurrency);
+        } finally {
+            slotLock.unlock();
+        }
+        synchronized (circuitLock) {
+            stats.put("circuit", circuitState.name());
+            stats.put("consecutiveFailures", consecutiveFailures);
+        }
+        stats.put("availableRequestPermits", requestBucket.available());
+        stats.put("availableTokens", tokenBucket.available());
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        for (Map.Entry<LlmRequest.Lane, LaneMetrics> entry : metrics.entrySet()) {
+            Map<String, Object> laneStats = entry.getValue().snapshot();
+            slotLock.lock();
+            try {
+                laneStats.put("queueDepth", entry.getKey() == LlmRequest.Lane.INTERACTIVE ? waitingInteractive : waitingBatch);
+            } finally {
+                slotLock.unlock();
+            }
+            lanes.put(entry.getKey().name(), laneStats);
+        }
+        stats.put("lanes", lanes);
+        return stats;
+    }
+
+    /**
+     * One provider call
+     */
+    @FunctionalInterface
+    private interface ProviderCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Each attempt waits for the rate limits first and only then takes a slot, and gives the slot
+     * back before backing off, so neither kind of waiting keeps other requests from running
+     */
+    private <T> T callWithRetry(LlmRequest.Lane lane, String purpose, int estimatedTokens, LaneMetrics laneMetrics,
+                                ProviderCall<T> call, Function<T, Integer> actualTokens) throws NoApiKeyException, InputRequiredException {
+        for (int attempt = 1; ; attempt++) {
+            throttle(estimatedTokens);
+            long queuedAt = System.nanoTime();
+            acquireSlot(lane);
+            laneMetrics.recordQueueWait(System.nanoTime() - queuedAt);
+
+            long backoff;
+            try {
+                beforeCall(laneMetrics);
+                long start = System.nanoTime();
+                try {
+                    T response = call.call();
+                    chargeActualUsage(actualTokens.apply(response), estimatedTokens);
+                    onSuccess();
+                    laneMetrics.recordSuccess(System.nanoTime() - start);
+                    return response;
+                } catch (Exception e) {
+                    boolean retryable = isRetryable(e);
+                    if (retryable) {
+                        onFailure();
+                    } else {
+                        // Not the service's fault, only give back a half-open probe
+                        releaseProbe();
+                    }
+                    if (!retryable || attempt >= maxAttempts) {
+                        laneMetrics.failed.incrementAndGet();
+                        log.warn("LLM call failed ({} / {}, attempt {}): {}", lane, purpose, attempt, e.getMessage());
+                        throw rethrow(e);
+                    }
+                    backoff = backoffMillis(attempt);
+                    laneMetrics.retries.incrementAndGet();
+                    log.warn("LLM call failed ({} / {}, attempt {}), retrying in {} ms: {}",
+                            lane, purpose, attempt, backoff, e.getMessage());
+                }
+            } finally {
+                releaseSlot(lane);
+            }
+            sleep(backoff);
+        }
+    }
+
+    // ============ Slots and priority ============
+
+    private void acquireSlot(LlmRequest.Lane lane) {
+        boolean interactive = lane == LlmRequest.Lane.INTERACTIVE;
+        long remaining = TimeUnit.MILLISECONDS.toNanos(interactive ? interactiveQueueTimeoutMs : batchQueueTimeoutMs);
+        slotLock.lock();
+        try {
+            if (interactive) {
+                waitingInteractive++;
+                try {
+                    while (running >= maxConcurrency) {
+                        if (remaining <= 0) {
+                            throw queueTimeout(lane);
+                        }
+                        remaining = interactiveTurn.awaitNanos(remaining);
+                    }
+                } finally {
+                    waitingInteractive--;
+                    if (waitingInteractive == 0) {
+                        batchTurn.signalAll();
+                    }
+                }
+            } else {
+                waitingBatch++;
+                try {
+                    // Batch requests yield to every waiting interactive request
+                    while (running >= maxConcurrency || batchRunning >= batchMaxConcurrency || waitingInteractive > 0) {
+                        if (remaining <= 0) {
+                            throw queueTimeout(lane);
+                        }
+                        remaining = batchTurn.awaitNanos(remaining);
+                    }
+                } finally {
+                    waitingBatch--;
+                }
+                batchRunning++;
+            }
+            running++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("Interrupted while waiting for an LLM slot");
+        } finally {
+            slotLock.unlock();
+        }
+    }
+
+    private void releaseSlot(LlmRequest.Lane lane) {
+        slotLock.lock();
+        try {
+            running--;
+            if (lane == LlmRequest.Lane.BATCH) {
+                batchRunning--;
+            }
+            if (waitingInteractive > 0) {
+                interactiveTurn.signal();
+            } else {
+                batchTurn.signalAll();
+            }
+        } finally {
+            slotLock.unlock();
+        }
+    }
+
+    private LlmUnavailableException queueTimeout(LlmRequest.Lane lane) {
+        metrics.get(lane).rejected.incrementAndGet();
+        return new LlmUnavailableException("Timed out waiting for an LLM slot (" + lane + " lane)");
+    }
+
+    // ============ Rate limiting ============
+
+    private void throttle(int estimatedTokens) {
+        long waitNanos = Math.max(requestBucket.reserve(1), tokenBucket.reserve(estimatedTokens));
+        if (waitNanos > 0) {
+            sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+    }
+
+    /**
+     * Rough token estimate: CJK/Thai text is about one token per character,
+     * Latin text about four characters per token; averaged to two, plus the expected answer
+     */
+    private int estimateTokens(LlmRequest request) {
+        int chars = request.getUserPrompt() != null ? request.getUserPrompt().length() : 0;
+        if (request.getSystemPrompt() != null) {
+            chars += request.getSystemPrompt().length();
+        }
+        return chars / 2 + expectedOutputTokens;
+    }
+
+    /**
+     * Charge the difference when the call used more tokens than estimated
+     */
+    private void chargeActualUsage(Integer actualTokens, int estimatedTokens) {
+        if (actualTokens != null && actualTokens > estimatedTokens) {
+            tokenBucket.reserve(actualTokens - estimatedTokens);
+        }
+    }
+
+    // ============ Retries and circuit breaker ============
+
+    private void beforeCall(LaneMetrics laneMetrics) {
+        synchronized (circuitLock) {
+            if (circuitState == CircuitState.OPEN) {
+                if (System.currentTimeMillis() - circuitOpenedAt < TimeUnit.SECONDS.toMillis(circuitOpenSeconds)) {
+                    laneMetrics.rejected.incrementAndGet();
+                    throw new LlmUnavailableException("LLM circuit breaker is open");
+                }
+                circuitState = CircuitState.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (circuitState == CircuitState.HALF_OPEN) {
+                // Let exactly one probe through
+                if (probeInFlight) {
+                    laneMetrics.rejected.incrementAndGet();
+                    throw new LlmUnavailableException("LLM circuit breaker is half-open, probe in progress");
+                }
+                probeInFlight = true;
+            }
+        }
+    }
+
+    private void onSuccess() {
+        synchronized (circuitLock) {
+            if (circuitState != CircuitState.CLOSED) {
+                log.info("LLM circuit breaker closed");
+            }
+            circuitState = CircuitState.CLOSED;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+        }
+    }
+
+    private void onFailure() {
+        synchronized (circuitLock) {
+            consecutiveFailures++;
+            probeInFlight = false;
+            if (circuitState == CircuitState.HALF_OPEN
+                    || (circuitState == CircuitState.CLOSED && consecutiveFailures >= circuitFailureThreshold)) {
+                circuitState = CircuitState.OPEN;
+                circuitOpenedAt = System.currentTimeMillis();
+                log.warn("LLM circuit breaker opened after {} consecutive failures, pausing {} s",
+                        consecutiveFailures, circuitOpenSeconds);
+            }
+        }
+    }
+
+    private void releaseProbe() {
+        synchronized (circuitLock) {
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Configuration and input errors fail immediately; everything else (network, throttling,
+     * server errors) is treated as transient
+     */
+    private static boolean isRetryable(Exception e) {
+        if (e instanceof NoApiKeyException || e instanceof InputRequiredException
+                || e instanceof IllegalArgumentException || e instanceof IllegalStateException
+                || e instanceof LlmUnavailableException) {
+            return false;
+        }
+        String message = e.getMessage();
+        return message == null || !(message.contains("InvalidParameter") || message.contains("InvalidApiKey")
+                || message.contains("DataInspectionFailed"));
+    }
+
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(backoffMaxMs, backoffBaseMs << Math.min(20, attempt - 1));
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    /**
+     * Checked DashScope exceptions are passed on as they are, other checked ones are wrapped
+     */
+    private static RuntimeException rethrow(Exception e) throws NoApiKeyException, InputRequiredException {
+        if (e instanceof NoApiKeyException noApiKey) {
+            throw noApiKey;
+        }
+        if (e instanceof InputRequiredException inputRequired) {
+            throw inputRequired;
+        }
+        return e instanceof RuntimeException runtime ? runtime : new LlmUnavailableException(e.getMessage(), e);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("Interrupted while waiting to call the LLM");
+        }
+    }
+
+    /**
+     * Counters and recent latencies of one lane
+     */
+    private static class LaneMetrics {
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong cancelled = new AtomicLong();
+        final AtomicLong firstTokens = new AtomicLong();
+        final AtomicLong totalFirstTokenNanos = new AtomicLong();
+        final AtomicLong totalQueueWaitNanos = new AtomicLong();
+        final AtomicLong queued = new AtomicLong();
+
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int latencyNext;
+
+        void recordQueueWait(long nanos) {
+            queued.incrementAndGet();
+            totalQueueWaitNanos.addAndGet(nanos);
+        }
+
+        void recordFirstToken(long nanos) {
+            firstTokens.incrementAndGet();
+            totalFirstTokenNanos.addAndGet(nanos);
+        }
+
+        synchronized void recordSuccess(long nanos) {
+            succeeded.incrementAndGet();
+            latencies[latencyNext] = nanos;
+            latencyNext = (latencyNext + 1) % latencies.length;
+            latencyCount = Math.min(latencies.length, latencyCount + 1);
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("submitted", submitted.get());
+            stats.put("succeeded", succeeded.get());
+            stats.put("failed", failed.get());
+            stats.put("rejected", rejected.get());
+            stats.put("retries", retries.get());
+            stats.put("cancelled", cancelled.get());
+            long queuedCount = queued.get();
+            stats.put("avgQueueWaitMs", queuedCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.get() / queuedCount));
+            long streamed = firstTokens.get();
+            stats.put("avgFirstTokenMs", streamed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalFirstTokenNanos.get() / streamed));
+
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            stats.put("latencySamples", latencyCount);
+            stats.put("p50LatencyMs", percentileMillis(sorted, 0.50));
+            stats.put("p95LatencyMs", percentileMillis(sorted, 0.95));
+            stats.put("maxLatencyMs", percentileMillis(sorted, 1.0));
+            return stats;
+        }
+
+        private static long percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(sorted.length - 1, index))]);
+        }
+    }
+}
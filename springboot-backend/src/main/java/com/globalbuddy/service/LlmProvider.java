@@ -0,0 +1,38 @@
+package com.globalbuddy.service;
+
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Backend that actually produces chat completions and embeddings for the LlmGateway
+ * Selected with llm.provider (see LlmProviderConfig): the DashScope API, a deterministic
+ * offline stub, or recorded fixtures.
+ */
+public interface LlmProvider {
+
+    /**
+     * Provider name shown in the gateway statistics
+     */
+    String name();
+
+    /**
+     * Run a chat completion
+     */
+    LlmResponse complete(LlmRequest request) throws Exception;
+
+    /**
+     * Run a chat completion in streaming mode
+     *
+     * @return Text increments; cancelling the subscription cancels the call
+     */
+    Flux<String> stream(LlmRequest request);
+
+    /**
+     * Compute text embeddings
+     *
+     * @param model Embedding model name
+     * @param texts Input texts; the provider may limit how many are accepted per call
+     */
+    EmbeddingResponse embed(String model, List<String> texts) throws Exception;
+}
@@ -0,0 +1,53 @@
+package com.globalbuddy.service;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One chat completion request sent through the LlmGateway
+ */
+@Value
+@Builder
+public class LlmRequest {
+
+    /**
+     * Scheduling lane of a request
+     */
+    public enum Lane {
+        INTERACTIVE,  // A user is waiting for the answer (moderation, Q&A)
+        BATCH         // Background work (news summaries, translations)
+    }
+
+    @Builder.Default
+    Lane lane = Lane.BATCH;
+
+    /**
+     * Short label of the caller, e.g. "translation" or "moderation" (used for logging and metrics)
+     */
+    @Builder.Default
+    String purpose = "default";
+
+    /**
+     * Model name, null for the configured default
+     */
+    String model;
+
+    /**
+     * Optional system message
+     */
+    String systemPrompt;
+
+    String userPrompt;
+
+    Float temperature;
+
+    /**
+     * Keys of the JSON object the caller asks for in the prompt, empty for free text
+     * (lets offline providers answer in the expected shape)
+     */
+    @Singular
+    List<String> jsonFields;
+}
@@ -0,0 +1,29 @@
+package com.globalbuddy.service;
+
+import lombok.Value;
+
+/**
+ * Completion returned by an LlmProvider
+ */
+@Value
+public class LlmResponse {
+
+    String content;
+
+    /**
+     * Token usage reported by the provider, null when unknown
+     */
+    Integer inputTokens;
+    Integer outputTokens;
+
+    /**
+     * Input plus output tokens, null when unknown
+     */
+    public Integer getTotalTokens() {
+        return inputTokens != null && outputTokens != null ? inputTokens + outputTokens : null;
+    }
+
+    public static LlmResponse of(String content) {
+        return new LlmResponse(content, null, null);
+    }
+}
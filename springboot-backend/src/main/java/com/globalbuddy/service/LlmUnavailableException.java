@@ -0,0 +1,16 @@
+package com.globalbuddy.service;
+
+/**
+ * Thrown by the LlmGateway when a request is not sent: the circuit breaker is open
+ * or no slot became free within the lane's queue timeout
+ */
+public class LlmUnavailableException extends RuntimeException {
+
+    public LlmUnavailableException(String message) {
+        super(message);
+    }
+
+    public LlmUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
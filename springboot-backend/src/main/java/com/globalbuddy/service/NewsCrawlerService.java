@@ -1,23 +1,14 @@
 package com.globalbuddy.service;
 
 import com.globalbuddy.model.News;
+import com.globalbuddy.model.NewsSource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.stereotype.Service;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
-import org.apache.hc.client5.http.ssl.TrustSelfSignedStrategy;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.ssl.SSLContextBuilder;
 
-import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
@@ -34,11 +25,13 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class NewsCrawlerService {
 
-    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
-    private static final int TIMEOUT = 30000; // 30 seconds timeout (increased timeout)
     private static final String BANGKOK_POST_BASE_URL = "https://www.bangkokpost.com";
     
     private final RssFeedService rssFeedService;
+    private final HttpFetcher httpFetcher;
+    private final HostCrawlScheduler hostCrawlScheduler;
+    private final ArticleExtractor articleExtractor;
+    private final NewsSourceRegistry newsSourceRegistry;
 
     /**
      * Crawl all configured Thai news websites (using RSS)
@@ -51,50 +44,8 @@ public class NewsCrawlerService {
         try {
             log.info("Starting to fetch news from all configured Thai news website RSS feeds...");
             
-            // Configure all Thai news website RSS feeds
-            List<RssFeedService.RssFeedConfig> rssFeeds = new ArrayList<>();
-            
-            // 1. Thai Rath (ไทยรัฐ) - One of Thailand's largest news websites
-            rssFeeds.add(new RssFeedService.RssFeedConfig(
-                "https://www.thairath.co.th/rss",
-                "Thai Rath (ไทยรัฐ)"
-            ));
-            
-            // 2. Matichon (มติชน) - Established authoritative media
-            rssFeeds.add(new RssFeedService.RssFeedConfig(
-                "https://www.matichon.co.th/feed",
-                "Matichon (มติชน)"
-            ));
-            
-            // 3. Khaosod (ข่าวสด) - Popular content covering society/entertainment/politics
-            rssFeeds.add(new RssFeedService.RssFeedConfig(
-                "https://www.khaosod.co.th/feed",
-                "Khaosod (ข่าวสด)"
-            ));
-            
-            // 4. Post Today - Focus on finance, business, market news
-            rssFeeds.add(new RssFeedService.RssFeedConfig(
-                "https://www.posttoday.com/rss",
-                "Post Today"
-            ));
-            
-            // 5. Bangkok Post (English) - Thailand's mainstream English newspaper
-            rssFeeds.add(new RssFeedService.RssFeedConfig(
-                "https://www.bangkokpost.com/rss.xml",
-                "Bangkok Post"
-            ));
-            
-            // 6. The Nation Thailand (English) - Former Nation Multimedia
-            rssFeeds.add(new RssFeedService.RssFeedConfig(
-                "https://www.nationthailand.com/rss",
-                "The Nation Thailand"
-            ));
-            
-            // 7. Prachachat (ประชาชาติธุรกิจ) - Focus on economy, finance, business news
-            rssFeeds.add(new RssFeedService.RssFeedConfig(
-                "https://www.prachachat.net/feed",
-                "Prachachat (ประชาชาติธุรกิจ)"
-            ));
+            // Thai news website RSS feeds come from the source registry
+            List<RssFeedService.RssFeedConfig> rssFeeds = newsSourceRegistry.resolveRssFeeds(NewsSourceRegistry.GROUP_THAI_NEWS);
             
             // Fetch news from all RSS feeds
             log.info("Configured {} RSS feeds, starting to fetch...", rssFeeds.size());
@@ -150,11 +101,7 @@ public class NewsCrawlerService {
             log.info("Starting to crawl Bangkok Post: {}", url);
 
             // Use Jsoup to connect and parse webpage, set User-Agent and timeout
-            Document doc = Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .timeout(TIMEOUT)
-                    .followRedirects(true)
-                    .get();
+            Document doc = httpFetcher.fetchDocument(url);
 
             // Try multiple selectors to find news links
             Elements linkElements = doc.select("a[href*='/thailand/']");
@@ -321,21 +268,11 @@ public class NewsCrawlerService {
             } else {
                 log.warn("RSS 订阅源未获取到新闻，尝试使用 HTML 爬取...");
                 
-                // RSS 失败时，回退到 HTML 爬取
-                // 1. 从清迈大学校友会网站抓取
-                log.info("开始从清迈大学校友会网站抓取新闻...");
-                List<News> cmuacNews = crawlCmuac();
-                newsList.addAll(cmuacNews);
-                
-                // 2. 从中国驻清迈总领馆网站抓取
-                log.info("开始从中国驻清迈总领馆网站抓取新闻...");
-                List<News> consulateNews = crawlConsulate();
-                newsList.addAll(consulateNews);
-                
-                // 3. 从泰国电子签证网站抓取（如果有新闻）
-                log.info("开始从泰国电子签证网站抓取新闻...");
-                List<News> visaNews = crawlThailandVisa();
-                newsList.addAll(visaNews);
+                // RSS 失败时，回退到注册表中的 HTML 列表页
+                for (NewsSource source : newsSourceRegistry.getHtmlSources(NewsSourceRegistry.GROUP_CMU)) {
+                    log.info("开始从 {} 抓取新闻: {}", source.getName(), source.getUrl());
+                    newsList.addAll(crawlHtmlSource(source));
+                }
             }
             
             log.info("成功获取 {} 条清迈大学相关新闻", newsList.size());
@@ -356,65 +293,8 @@ public class NewsCrawlerService {
         List<News> newsList = new ArrayList<>();
         
         try {
-            // 配置 RSS 订阅源列表
-            List<RssFeedService.RssFeedConfig> rssFeeds = new ArrayList<>();
-            
-            // 1. 中国驻清迈总领馆 RSS（尝试多个可能的 URL）
-            String[] consulateRssUrls = {
-                "https://chiangmai.china-consulate.gov.cn/rss.xml",
-                "https://chiangmai.china-consulate.gov.cn/feed",
-                "https://chiangmai.china-consulate.gov.cn/xwdt/rss.xml"
-            };
-            for (String rssUrl : consulateRssUrls) {
-                try {
-                    List<News> testNews = rssFeedService.fetchNewsFromRss(rssUrl, "中国驻清迈总领馆", 1);
-                    if (!testNews.isEmpty()) {
-                        rssFeeds.add(new RssFeedService.RssFeedConfig(rssUrl, "中国驻清迈总领馆"));
-                        log.info("找到可用的中国驻清迈总领馆 RSS: {}", rssUrl);
-                        break;
-                    }
-                } catch (Exception e) {
-                    // 继续尝试下一个 URL
-                }
-            }
-            
-            // 2. 清迈大学校友会 RSS（尝试多个可能的 URL）
-            String[] cmuacRssUrls = {
-                "https://cmuac.com/feed",
-                "https://cmuac.com/rss",
-                "https://cmuac.com/rss.xml"
-            };
-            for (String rssUrl : cmuacRssUrls) {
-                try {
-                    List<News> testNews = rssFeedService.fetchNewsFromRss(rssUrl, "清迈大学校友会 (CMUAC)", 1);
-                    if (!testNews.isEmpty()) {
-                        rssFeeds.add(new RssFeedService.RssFeedConfig(rssUrl, "清迈大学校友会 (CMUAC)"));
-                        log.info("找到可用的清迈大学校友会 RSS: {}", rssUrl);
-                        break;
-                    }
-                } catch (Exception e) {
-                    // 继续尝试下一个 URL
-                }
-            }
-            
-            // 3. 泰国电子签证 RSS（如果存在）
-            String[] visaRssUrls = {
-                "https://www.thaievisa.go.th/feed",
-                "https://www.thaievisa.go.th/rss",
-                "https://www.thaievisa.go.th/rss.xml"
-            };
-            for (String rssUrl : visaRssUrls) {
-                try {
-                    List<News> testNews = rssFeedService.fetchNewsFromRss(rssUrl, "泰国电子签证", 1);
-                    if (!testNews.isEmpty()) {
-                        rssFeeds.add(new RssFeedService.RssFeedConfig(rssUrl, "泰国电子签证"));
-                        log.info("找到可用的泰国电子签证 RSS: {}", rssUrl);
-                        break;
-                    }
-                } catch (Exception e) {
-                    // 继续尝试下一个 URL
-                }
-            }
+            // RSS 订阅源来自注册表，候选地址的探测结果已缓存，只请求已知可用的地址
+            List<RssFeedService.RssFeedConfig> rssFeeds = newsSourceRegistry.resolveRssFeeds(NewsSourceRegistry.GROUP_CMU);
             
             // 从所有 RSS 订阅源获取新闻
             if (!rssFeeds.isEmpty()) {
@@ -431,24 +311,41 @@ public class NewsCrawlerService {
         return newsList;
     }
 
+    /**
+     * 使用内置的 HTML 列表页爬虫抓取注册表中的 HTML 新闻源
+     * 
+     * @param source HTML 新闻源
+     * @return 新闻对象列表
+     */
+    public List<News> crawlHtmlSource(NewsSource source) {
+        String crawler = source.getHtmlCrawler() != null ? source.getHtmlCrawler() : "";
+        switch (crawler) {
+            case NewsSourceRegistry.CRAWLER_CMUAC:
+                return crawlCmuac(source.getUrl());
+            case NewsSourceRegistry.CRAWLER_CONSULATE:
+                return crawlConsulate(source.getUrl());
+            case NewsSourceRegistry.CRAWLER_THAI_VISA:
+                return crawlThailandVisa(source.getUrl());
+            default:
+                log.warn("新闻源 {} 未配置可用的 HTML 爬虫: {}", source.getName(), crawler);
+                return new ArrayList<>();
+        }
+    }
+
     /**
      * 爬取清迈大学校友会网站 (cmuac.com)
      * 
+     * @param url 列表页地址（来自新闻源注册表）
      * @return 新闻对象列表
      */
-    private List<News> crawlCmuac() {
+    private List<News> crawlCmuac(String url) {
         List<News> newsList = new ArrayList<>();
         Set<String> seenUrls = new HashSet<>();
         
         try {
-            String url = "https://cmuac.com/";
             log.info("开始爬取清迈大学校友会网站: {}", url);
             
-            Document doc = Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .timeout(TIMEOUT)
-                    .followRedirects(true)
-                    .get();
+            Document doc = httpFetcher.fetchDocument(url);
             
             // 尝试多种选择器来找到新闻链接
             Elements linkElements = doc.select("a[href]");
@@ -578,14 +475,14 @@ public class NewsCrawlerService {
     /**
      * 爬取中国驻清迈总领馆网站
      * 
+     * @param baseUrl 列表页地址（来自新闻源注册表）
      * @return 新闻对象列表
      */
-    private List<News> crawlConsulate() {
+    private List<News> crawlConsulate(String baseUrl) {
         List<News> newsList = new ArrayList<>();
         Set<String> seenUrls = new HashSet<>();
         
         try {
-            String baseUrl = "https://chiangmai.china-consulate.gov.cn/";
             String[] newsUrls = {
                 baseUrl,  // 首页
                 baseUrl + "xwdt/",  // 新闻动态
@@ -595,41 +492,16 @@ public class NewsCrawlerService {
                 try {
                     log.info("开始爬取中国驻清迈总领馆网站: {}", url);
                     
-                    // 先尝试使用 Jsoup（如果 SSL 失败，会抛出异常）
+                    // 先用默认连接池（如果 SSL 失败，会抛出异常）
                     Document doc;
                     try {
-                        doc = Jsoup.connect(url)
-                                .userAgent(USER_AGENT)
-                                .timeout(TIMEOUT)
-                                .followRedirects(true)
-                                .get();
+                        doc = httpFetcher.fetchDocument(url);
                     } catch (javax.net.ssl.SSLException e) {
-                        // SSL 证书验证失败，使用 HttpClient 绕过
-                        log.warn("Jsoup SSL 验证失败，尝试使用 HttpClient: {}", e.getMessage());
-                        
-                        SSLContext sslContext = SSLContextBuilder.create()
-                                .loadTrustMaterial(new TrustSelfSignedStrategy())
-                                .build();
-                        
-                        SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(
-                                sslContext,
-                                (hostname, session) -> true
-                        );
-                        
-                        try (CloseableHttpClient httpClient = HttpClients.custom()
-                                .setConnectionManager(org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder.create()
-                                        .setSSLSocketFactory(sslSocketFactory)
-                                        .build())
-                                .build()) {
-                            
-                            HttpGet request = new HttpGet(url);
-                            request.setHeader("User-Agent", USER_AGENT);
-                            
-                            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                                String html = EntityUtils.toString(response.getEntity());
-                                doc = Jsoup.parse(html, url);
-                            }
-                        }
+                        // SSL 证书验证失败，改用放宽证书校验的连接池重试
+                        log.warn("SSL 验证失败，使用宽松 TLS 重试: {}", e.getMessage());
+                        doc = httpFetcher.fetchDocument(url, HttpFetcher.FetchOptions.builder()
+                                .relaxedTls(true)
+                                .build());
                     }
                     
                     // 查找新闻链接 - 总领馆网站通常有特定的新闻列表结构
@@ -762,21 +634,17 @@ public class NewsCrawlerService {
     /**
      * 爬取泰国电子签证网站
      * 
+     * @param url 列表页地址（来自新闻源注册表）
      * @return 新闻对象列表
      */
-    private List<News> crawlThailandVisa() {
+    private List<News> crawlThailandVisa(String url) {
         List<News> newsList = new ArrayList<>();
         Set<String> seenUrls = new HashSet<>();
         
         try {
-            String url = "https://www.thaievisa.go.th/";
             log.info("开始爬取泰国电子签证网站: {}", url);
             
-            Document doc = Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .timeout(TIMEOUT)
-                    .followRedirects(true)
-                    .get();
+            Document doc = httpFetcher.fetchDocument(url);
             
             // 查找新闻或公告链接
             Elements linkElements = doc.select("a[href*='news'], a[href*='announcement'], a[href*='notice'], .news a, .announcement a");
@@ -875,11 +743,7 @@ public class NewsCrawlerService {
                 try {
                     log.info("开始爬取清迈大学新闻: {}", url);
                     
-                    Document doc = Jsoup.connect(url)
-                            .userAgent(USER_AGENT)
-                            .timeout(TIMEOUT)
-                            .followRedirects(true)
-                            .get();
+                    Document doc = httpFetcher.fetchDocument(url);
                     
                     // 尝试多种选择器来找到新闻链接（更通用的选择器）
                     Elements linkElements = doc.select("a[href]");
@@ -1111,61 +975,31 @@ public class NewsCrawlerService {
      * @return 新闻正文内容
      */
     public String crawlNewsContent(String url) {
+        Document doc = fetchArticlePage(url);
+        return doc != null ? extractArticleContent(doc, url) : null;
+    }
+
+    /**
+     * 下载新闻详情页（网络阶段）
+     *
+     * @param url 新闻详情页 URL
+     * @return 解析后的页面，失败时返回 null
+     */
+    public Document fetchArticlePage(String url) {
         try {
             log.debug("爬取新闻详情: {}", url);
             
-            Document doc = Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .timeout(TIMEOUT)
-                    .followRedirects(true)
-                    .get();
-
-            // 尝试多种选择器来提取正文内容
-            Element contentElement = null;
-            
-            // 方法1: 尝试常见的文章容器
-            String[] selectors = {
-                "article .article-body",
-                "article .story-body",
-                ".article-content",
-                ".story-content",
-                ".article-body",
-                ".story-body",
-                "article",
-                ".content",
-                "main article",
-                "[class*='article']",
-                "[class*='story']"
-            };
-            
-            for (String selector : selectors) {
-                contentElement = doc.selectFirst(selector);
-                if (contentElement != null) {
-                    // 移除脚本、样式、广告等不需要的元素
-                    contentElement.select("script, style, .advertisement, .ad, .social-share, .related-articles, nav, header, footer").remove();
-                    String text = contentElement.text().trim();
-                    if (text.length() > 100) { // 确保内容足够长
-                        log.debug("使用选择器 '{}' 成功提取正文，长度: {}", selector, text.length());
-                        return text;
-                    }
-                }
-            }
-
-            // 方法2: 如果没有找到特定容器，尝试从 body 中提取主要内容
-            Element body = doc.body();
-            if (body != null) {
-                // 移除导航、页脚、广告等
-                body.select("script, style, nav, header, footer, .advertisement, .ad, .sidebar, .related").remove();
-                String bodyText = body.text().trim();
-                if (bodyText.length() > 100) {
-                    log.debug("从 body 提取正文，长度: {}", bodyText.length());
-                    return bodyText;
-                }
-            }
+            // 限制下载大小，超大页面只解析前 max-bytes 字节
+            HttpFetcher.FetchOptions options = HttpFetcher.FetchOptions.builder()
+                    .maxBytes(articleExtractor.getMaxBytes())
+                    .build();
+            // 按站点限速：令牌桶 + 单站点并发上限 + 随机延迟
+            return hostCrawlScheduler.execute(url, () -> httpFetcher.fetchDocument(url, options));
 
-            log.warn("未能提取到足够的正文内容: {}", url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("爬取新闻详情被中断: {}", url);
             return null;
-
         } catch (IOException e) {
             log.error("爬取新闻详情时发生 IO 异常: {} - {}", url, e.getMessage());
             return null;
@@ -1174,5 +1008,22 @@ public class NewsCrawlerService {
             return null;
         }
     }
+
+    /**
+     * 从已下载的新闻详情页中提取正文（CPU 阶段）
+     *
+     * @param doc 新闻详情页
+     * @param url 新闻详情页 URL（用于选择站点配置和日志）
+     * @return 新闻正文内容
+     */
+    public String extractArticleContent(Document doc, String url) {
+        try {
+            // 按站点选择器配置 -> 文本密度评分 -> body 文本，不修改 DOM
+            return articleExtractor.extract(doc, url);
+        } catch (Exception e) {
+            log.error("提取新闻正文时发生未知异常: {} - {}", url, e.getMessage());
+            return null;
+        }
+    }
 }
 
@@ -0,0 +1,296 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.dto.NewsSourceRequest;
+import com.globalbuddy.model.NewsSource;
+import com.globalbuddy.repository.NewsSourceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * News Source Registry
+ * Persisted list of crawlable sources (see NewsSource). Resolves which endpoint of each RSS
+ * source to use: candidate URLs are probed once, the working one is stored as lastKnownGoodUrl,
+ * and the result (including "nothing works") is reused until the probe TTL expires, so a normal
+ * run only requests endpoints that are known to work.
+ * Each source also carries its own poll interval, adapted after every poll to how often the
+ * source actually publishes new items.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NewsSourceRegistry {
+
+    public static final String GROUP_THAI_NEWS = "THAI_NEWS";
+    public static final String GROUP_CMU = "CMU";
+
+    public static final String CRAWLER_CMUAC = "cmuac";
+    public static final String CRAWLER_CONSULATE = "consulate";
+    public static final String CRAWLER_THAI_VISA = "thaievisa";
+    public static final Set<String> HTML_CRAWLERS = Set.of(CRAWLER_CMUAC, CRAWLER_CONSULATE, CRAWLER_THAI_VISA);
+
+    private static final int DEFAULT_MAX_ITEMS = 15;
+
+    private final NewsSourceRepository newsSourceRepository;
+    private final RssFeedService rssFeedService;
+    private final ArticleExtractor articleExtractor;
+
+    @Value("${crawler.sources.probe-ttl-hours:24}")
+    private long probeTtlHours;
+
+    @Value("${crawler.sources.default-interval-minutes:60}")
+    private int defaultIntervalMinutes;
+
+    @Value("${crawler.sources.min-interval-minutes:15}")
+    private int minIntervalMinutes;
+
+    @Value("${crawler.sources.max-interval-minutes:720}")
+    private int maxIntervalMinutes;
+
+    /**
+     * All RSS feeds of a group, each resolved to a working endpoint (full crawl, ignores poll intervals)
+     *
+     * @param group Crawl group
+     * @return Feed configurations
+     */
+    public List<RssFeedService.RssFeedConfig> resolveRssFeeds(String group) {
+        List<RssFeedService.RssFeedConfig> feeds = new ArrayList<>();
+        for (NewsSource source : getSources(group, NewsSource.SourceType.RSS)) {
+            RssFeedService.RssFeedConfig feed = feedConfigFor(source);
+            if (feed != null) {
+                feeds.add(feed);
+            }
+        }
+        return feeds;
+    }
+
+    /**
+     * Feed configuration for an RSS source, null if it has no working endpoint
+     */
+    public RssFeedService.RssFeedConfig feedConfigFor(NewsSource source) {
+        String endpoint = resolveEndpoint(source);
+        if (endpoint == null) {
+            log.debug("No working endpoint for source (cached), skipping: {}", source.getName());
+            return null;
+        }
+        return new RssFeedService.RssFeedConfig(endpoint, source.getName(), maxItems(source), source.getId());
+    }
+
+    /**
+     * Enabled sources (any group, any type) whose poll interval has elapsed
+     */
+    public List<NewsSource> findDueSources() {
+        List<NewsSource> due = new ArrayList<>();
+        for (NewsSource source : newsSourceRepository.findByEnabledTrueOrderByIdAsc()) {
+            if (isDue(source)) {
+                registerProfile(source);
+                due.add(source);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Record a poll and adapt the source's interval to how often it publishes:
+     * new items halve the interval, an empty poll stretches it by half, within the configured bounds
+     *
+     * @param source   Polled source
+     * @param newItems Number of items that were not seen before
+     */
+    public void recordPoll(NewsSource source, int newItems) {
+        int current = pollInterval(source);
+        int next = newItems > 0
+                ? Math.max(minIntervalMinutes, current / 2)
+                : (int) Math.min(maxIntervalMinutes, Math.round(current * 1.5));
+        source.setPollIntervalMinutes(next);
+        source.setLastPolledAt(new Date());
+        if (newItems > 0) {
+            source.setLastNewItemsAt(new Date());
+        }
+        newsSourceRepository.save(source);
+        if (next != current) {
+            log.debug("Source {} poll interval {} -> {} min ({} new items)", source.getName(), current, next, newItems);
+        }
+    }
+
+    /**
+     * Enabled HTML sources of a group
+     */
+    public List<NewsSource> getHtmlSources(String group) {
+        return getSources(group, NewsSource.SourceType.HTML);
+    }
+
+    public List<NewsSource> listAll() {
+        return newsSourceRepository.findAll();
+    }
+
+    /**
+     * Register a new source
+     *
+     * @throws IllegalArgumentException On invalid type, profile or crawler name, or duplicate URL
+     */
+    public NewsSource create(NewsSourceRequest request) {
+        if (newsSourceRepository.findByUrl(request.getUrl()).isPresent()) {
+            throw new IllegalArgumentException("Source already registered: " + request.getUrl());
+        }
+        NewsSource source = new NewsSource();
+        source.setEnabled(true);
+        apply(source, request);
+        NewsSource saved = newsSourceRepository.save(source);
+        log.info("Registered news source: {} ({}, {})", saved.getName(), saved.getType(), saved.getUrl());
+        return saved;
+    }
+
+    /**
+     * Update a source; endpoint changes reset the cached probe result
+     *
+     * @throws IllegalArgumentException On invalid type, profile or crawler name
+     */
+    public NewsSource update(Long id, NewsSourceRequest request) {
+        NewsSource source = newsSourceRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Source not found: " + id));
+        boolean endpointsChanged = !source.getUrl().equals(request.getUrl())
+                || !source.getCandidateUrls().equals(request.getCandidateUrls());
+        apply(source, request);
+        if (endpointsChanged) {
+            source.setLastKnownGoodUrl(null);
+            source.setLastProbeAt(null);
+        }
+        return newsSourceRepository.save(source);
+    }
+
+    /**
+     * Forget the cached probe result so the next run probes again
+     */
+    public NewsSource resetProbe(Long id) {
+        NewsSource source = newsSourceRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Source not found: " + id));
+        source.setLastKnownGoodUrl(null);
+        source.setLastProbeAt(null);
+        return newsSourceRepository.save(source);
+    }
+
+    private List<NewsSource> getSources(String group, NewsSource.SourceType type) {
+        List<NewsSource> result = new ArrayList<>();
+        for (NewsSource source : newsSourceRepository.findByGroupAndEnabledTrueOrderByIdAsc(group)) {
+            if (source.getType() != type) {
+                continue;
+            }
+            registerProfile(source);
+            result.add(source);
+        }
+        return result;
+    }
+
+    /**
+     * Article pages of this source's host use its extraction profile
+     */
+    private void registerProfile(NewsSource source) {
+        if (source.getSelectorProfile() != null) {
+            articleExtractor.registerHostProfile(hostOf(source.getUrl()), source.getSelectorProfile());
+        }
+    }
+
+    private boolean isDue(NewsSource source) {
+        if (source.getLastPolledAt() == null) {
+            return true;
+        }
+        long elapsed = System.currentTimeMillis() - source.getLastPolledAt().getTime();
+        return elapsed >= TimeUnit.MINUTES.toMillis(pollInterval(source));
+    }
+
+    private int pollInterval(NewsSource source) {
+        Integer interval = source.getPollIntervalMinutes();
+        if (interval == null) {
+            return defaultIntervalMinutes;
+        }
+        return (int) Math.min(maxIntervalMinutes, Math.max(minIntervalMinutes, interval));
+    }
+
+    /**
+     * Endpoint to poll, from the probe cache when it is fresh
+     *
+     * @return Working endpoint, or null if none worked at the last probe
+     */
+    private String resolveEndpoint(NewsSource source) {
+        List<String> endpoints = source.allEndpoints();
+        if (endpoints.size() == 1) {
+            // Nothing to choose from, the regular fetch is the probe
+            return source.getUrl();
+        }
+        boolean fresh = source.getLastProbeAt() != null
+                && System.currentTimeMillis() - source.getLastProbeAt().getTime() < TimeUnit.HOURS.toMillis(probeTtlHours);
+        if (fresh) {
+            return source.getLastKnownGoodUrl();
+        }
+
+        String working = null;
+        for (String endpoint : endpoints) {
+            try {
+                if (!rssFeedService.fetchNewsFromRss(endpoint, source.getName(), 1).isEmpty()) {
+                    working = endpoint;
+                    break;
+                }
+            } catch (Exception e) {
+                // Try the next endpoint
+            }
+        }
+        source.setLastKnownGoodUrl(working);
+        source.setLastProbeAt(new Date());
+        newsSourceRepository.save(source);
+        if (working != null) {
+            log.info("Probed source {}: using {}", source.getName(), working);
+        } else {
+            log.warn("Probed source {}: none of {} endpoints returned items, retry after {} h",
+                    source.getName(), endpoints.size(), probeTtlHours);
+        }
+        return working;
+    }
+
+    private void apply(NewsSource source, NewsSourceRequest request) {
+        NewsSource.SourceType type;
+        try {
+            type = NewsSource.SourceType.valueOf(request.getType().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid source type: " + request.getType());
+        }
+        if (request.getSelectorProfile() != null && !articleExtractor.getProfileNames().contains(request.getSelectorProfile())) {
+            throw new IllegalArgumentException("Unknown selector profile: " + request.getSelectorProfile());
+        }
+        if (type == NewsSource.SourceType.HTML && !HTML_CRAWLERS.contains(request.getHtmlCrawler())) {
+            throw new IllegalArgumentException("HTML sources need one of the crawlers " + HTML_CRAWLERS);
+        }
+        source.setName(request.getName());
+        source.setUrl(request.getUrl());
+        source.setCandidateUrls(request.getCandidateUrls() != null ? new ArrayList<>(request.getCandidateUrls()) : new ArrayList<>());
+        source.setType(type);
+        source.setGroup(request.getGroup());
+        source.setSelectorProfile(request.getSelectorProfile());
+        source.setHtmlCrawler(request.getHtmlCrawler());
+        source.setMaxItems(request.getMaxItems());
+        source.setPollIntervalMinutes(request.getPollIntervalMinutes());
+        if (request.getEnabled() != null) {
+            source.setEnabled(request.getEnabled());
+        }
+    }
+
+    private static int maxItems(NewsSource source) {
+        return source.getMaxItems() != null ? source.getMaxItems() : DEFAULT_MAX_ITEMS;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            return URI.create(url.trim()).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
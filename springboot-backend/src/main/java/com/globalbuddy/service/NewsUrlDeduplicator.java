@@ -0,0 +1,209 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.model.News;
+import com.globalbuddy.repository.NewsRepository;
+import com.globalbuddy.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * News URL Deduplicator
+ * Decides which crawled articles are new, using the hashed URL column of News.
+ * An in-memory Bloom filter of stored URL hashes is warmed at startup. A negative answer means
+ * "definitely new" and skips the database. Positives ("probably seen") are either confirmed with
+ * one batched IN query (default), or rejected directly when verify-positives is off, trading a
+ * small chance of dropping a new article for zero database round trips.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NewsUrlDeduplicator {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int IN_QUERY_BATCH = 500;
+
+    private final NewsRepository newsRepository;
+
+    @Value("${ingestion.dedup.expected-urls:200000}")
+    private long expectedUrls;
+
+    @Value("${ingestion.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${ingestion.dedup.verify-positives:true}")
+    private boolean verifyPositives;
+
+    private volatile BloomFilter filter;
+    private volatile boolean ready;
+
+    // Metrics
+    private final AtomicLong filterNegatives = new AtomicLong();
+    private final AtomicLong databaseChecks = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    /**
+     * Backfill missing URL hashes and load all stored hashes into the Bloom filter
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            backfillUrlHashes();
+
+            BloomFilter warmFilter = new BloomFilter(expectedUrls, falsePositiveRate);
+            this.filter = warmFilter;
+            long loaded = 0;
+            Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+            Slice<String> slice;
+            do {
+                slice = newsRepository.findUrlHashes(pageable);
+                for (String hash : slice.getContent()) {
+                    warmFilter.put(hash);
+                    loaded++;
+                }
+                pageable = slice.nextPageable();
+            } while (slice.hasNext());
+
+            ready = true;
+            log.info("URL dedup filter warmed with {} hashes ({} bits, {} hash functions) in {} ms",
+                    loaded, warmFilter.getBitCount(), warmFilter.getHashCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Without the filter every lookup goes to the database, which is still correct
+            log.error("Failed to warm URL dedup filter, falling back to database lookups: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Keep only the articles whose URL is not stored yet
+     * Duplicate URLs within the given list are also removed (first one wins).
+     * Articles without URL cannot be deduplicated and are always kept.
+     *
+     * @param newsList Crawled news items
+     * @return New news items, in input order
+     */
+    public List<News> retainNew(List<News> newsList) {
+        List<News> result = new ArrayList<>();
+        Map<String, News> candidates = new LinkedHashMap<>();
+        List<String> toCheck = new ArrayList<>();
+        List<String> filterPositives = new ArrayList<>();
+        BloomFilter currentFilter = ready ? filter : null;
+
+        for (News news : newsList) {
+            String hash = News.hashUrl(news.getOriginalUrl());
+            if (hash == null) {
+                result.add(news);
+                continue;
+            }
+            if (candidates.putIfAbsent(hash, news) != null) {
+                continue;
+            }
+            if (currentFilter == null) {
+                toCheck.add(hash);
+            } else if (!currentFilter.mightContain(hash)) {
+                filterNegatives.incrementAndGet();
+            } else if (verifyPositives) {
+                toCheck.add(hash);
+            } else {
+                filterPositives.add(hash);
+            }
+        }
+
+        Set<String> existing = new HashSet<>(filterPositives);
+        for (int i = 0; i < toCheck.size(); i += IN_QUERY_BATCH) {
+            List<String> batch = toCheck.subList(i, Math.min(toCheck.size(), i + IN_QUERY_BATCH));
+            databaseChecks.incrementAndGet();
+            existing.addAll(newsRepository.findExistingUrlHashes(batch));
+        }
+        if (currentFilter != null && verifyPositives) {
+            falsePositives.addAndGet(toCheck.size() - existing.size());
+        }
+
+        for (Map.Entry<String, News> entry : candidates.entrySet()) {
+            if (!existing.contains(entry.getKey())) {
+                result.add(entry.getValue());
+            }
+        }
+
+        log.info("URL dedup - input: {}, new: {}, decided without DB: {}, checked in DB: {}, DB queries: {}",
+                newsList.size(), result.size(), candidates.size() - toCheck.size(), toCheck.size(),
+                (toCheck.size() + IN_QUERY_BATCH - 1) / IN_QUERY_BATCH);
+        return result;
+    }
+
+    /**
+     * Record a newly saved URL hash
+     */
+    public void register(String urlHash) {
+        BloomFilter currentFilter = filter;
+        if (urlHash != null && currentFilter != null) {
+            currentFilter.put(urlHash);
+        }
+    }
+
+    /**
+     * Dedup counters since startup
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("filterNegatives", filterNegatives.get());
+        stats.put("databaseChecks", databaseChecks.get());
+        stats.put("falsePositives", falsePositives.get());
+        return stats;
+    }
+
+    /**
+     * Fill url_hash for rows saved before the column existed.
+     * Rows whose URL duplicates an existing hash violate the unique index and keep a null hash;
+     * pages are walked by id, so such rows are passed over instead of being read again.
+     */
+    private void backfillUrlHashes() {
+        int updated = 0;
+        int failed = 0;
+        long lastId = 0;
+        while (true) {
+            List<News> batch = newsRepository.findByUrlHashIsNullAndOriginalUrlIsNotNullAndIdGreaterThanOrderByIdAsc(
+                    lastId, PageRequest.of(0, PAGE_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+            int savedInBatch = 0;
+            for (News news : batch) {
+                news.updateUrlHash();
+                if (news.getUrlHash() == null) {
+                    continue;
+                }
+                try {
+                    newsRepository.save(news);
+                    savedInBatch++;
+                } catch (Exception e) {
+                    failed++;
+                    log.warn("Could not backfill URL hash for news {} (duplicate URL?): {}", news.getId(), e.getMessage());
+                }
+            }
+            updated += savedInBatch;
+            if (batch.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+        if (updated > 0 || failed > 0) {
+            log.info("Backfilled URL hash for {} news items ({} failed)", updated, failed);
+        }
+    }
+}
@@ -2,75 +2,295 @@ package com.globalbuddy.service;
 
 import com.globalbuddy.model.CommunityPost;
 import com.globalbuddy.repository.CommunityPostRepository;
+import com.globalbuddy.repository.NewsRepository;
+import com.globalbuddy.util.HnswIndex;
+import com.globalbuddy.util.InvertedIndex;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 
-import java.util.Comparator;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * 智能问答服务
+ * 检索阶段：从帖子和新闻的段落索引（BM25，覆盖原文及中英文翻译）和帖子向量索引中各取候选，
+ * 按排名融合（RRF）后取前 top-k 个段落；生成阶段：把这些段落作为上下文交给大模型回答。
+ * 相同问题（归一化后）在缓存有效期内直接返回缓存的回答。
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class NlpService {
 
+    private static final int RRF_K = 60;
+    private static final int MAX_PASSAGES_PER_DOCUMENT = 2;
+
     private final CommunityPostRepository postRepository;
-    private final SemanticService semanticService;
+    private final NewsRepository newsRepository;
+    private final SearchIndexService searchIndexService;
+    private final EmbeddingService embeddingService;
+    private final QwenService qwenService;
+
+    @Value("${qa.top-k:5}")
+    private int topK;
+
+    @Value("${qa.cache-size:500}")
+    private int cacheSize;
+
+    @Value("${qa.cache-ttl-ms:600000}")
+    private long cacheTtlMs;
+
+    private Map<String, CachedAnswer> answerCache;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        int maxEntries = Math.max(1, cacheSize);
+        answerCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAnswer> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
 
     public QaResult answerQuestion(String question) {
         if (!StringUtils.hasText(question)) {
             throw new IllegalArgumentException("问题不能为空");
         }
 
-        List<CommunityPost> latestPosts = postRepository.findAll().stream()
-                .sorted(Comparator.comparing(CommunityPost::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
-                .limit(50)
-                .collect(Collectors.toList());
+        String cacheKey = cacheKey(question);
+        QaResult cached = cachedAnswer(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
 
-        List<ScoredPost> scored = latestPosts.stream()
-                .map(post -> new ScoredPost(
-                        post,
-                        semanticService.calculateScore(question, post.getTitle() + " " + post.getBody())
-                ))
-                .sorted(Comparator.comparingDouble(ScoredPost::getScore).reversed())
-                .collect(Collectors.toList());
+        List<RetrievedPassage> passages = retrieve(question);
+        List<QaReference> references = toReferences(passages);
+        try {
+            QaResult result = new QaResult(qwenService.answerQuestion(question, buildContext(passages)), references);
+            answerCache.put(cacheKey, new CachedAnswer(result, System.currentTimeMillis() + cacheTtlMs));
+            return result;
+        } catch (Exception e) {
+            // 大模型不可用时退回到检索结果摘录，不缓存
+            log.warn("QA generation failed, answering with retrieved passages: {}", e.getMessage());
+            return new QaResult(buildAnswer(passages), references);
+        }
+    }
 
-        List<ScoredPost> relevant = scored.stream()
-                .filter(sp -> sp.getScore() > 0)
-                .limit(3)
-                .collect(Collectors.toList());
+    /**
+     * 流式问答：先检索参考段落，再由大模型基于这些段落逐步生成回答
+     * 命中缓存时整段返回缓存的回答；完整生成的回答会写入缓存
+     *
+     * @param question 用户问题
+     * @return 参考来源和回答的增量文本流
+     */
+    public QaStream streamAnswer(String question) {
+        if (!StringUtils.hasText(question)) {
+            throw new IllegalArgumentException("问题不能为空");
+        }
 
-        List<ScoredPost> selected = relevant.isEmpty()
-                ? scored.stream().limit(3).collect(Collectors.toList())
-                : relevant;
+        String cacheKey = cacheKey(question);
+        QaResult cached = cachedAnswer(cacheKey);
+        if (cached != null) {
+            return new QaStream(cached.getReferences(), Flux.just(cached.getAnswer()));
+        }
 
-        String answer = buildAnswer(selected);
+        List<RetrievedPassage> passages = retrieve(question);
+        List<QaReference> references = toReferences(passages);
+        Flux<String> answer = Flux.defer(() -> {
+            StringBuilder full = new StringBuilder();
+            return qwenService.streamAnswer(question, buildContext(passages))
+                    .doOnNext(full::append)
+                    .doOnComplete(() -> answerCache.put(cacheKey, new CachedAnswer(
+                            new QaResult(full.toString(), references), System.currentTimeMillis() + cacheTtlMs)));
+        });
+        return new QaStream(references, answer);
+    }
 
-        List<QaReference> references = selected.stream()
-                .map(sp -> new QaReference(
-                        sp.getPost().getId(),
-                        sp.getPost().getTitle(),
-                        sp.getScore()
-                ))
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("topK", topK);
+        stats.put("cachedAnswers", answerCache.size());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("cacheMisses", cacheMisses.get());
+        return stats;
+    }
+
+    public void clearCache() {
+        answerCache.clear();
+    }
+
+    private QaResult cachedAnswer(String cacheKey) {
+        CachedAnswer cached = answerCache.get(cacheKey);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            cacheHits.incrementAndGet();
+            return cached.result();
+        }
+        if (cached != null) {
+            answerCache.remove(cacheKey);
+        }
+        cacheMisses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 检索与问题最相关的段落
+     * 关键词检索的段落和向量检索的帖子按排名融合；向量命中的是整篇帖子，计入该帖子排名最高的段落（没有则为第一段）。
+     * 候选只按 id 批量加载一次，未通过审核的帖子和已变化的段落被丢弃，每篇文档最多取两段。
+     */
+    private List<RetrievedPassage> retrieve(String question) {
+        int candidates = Math.max(1, topK) * 4;
+        List<InvertedIndex.Hit> lexical = searchIndexService.searchPassages(question, candidates);
+        List<HnswIndex.Hit> semantic;
+        try {
+            semantic = embeddingService.searchSimilar(question, Math.max(1, topK));
+        } catch (Exception e) {
+            log.debug("Semantic retrieval unavailable, using keyword passages only: {}", e.getMessage());
+            semantic = Collections.emptyList();
+        }
+
+        Map<String, Double> fused = new HashMap<>();
+        for (int i = 0; i < lexical.size(); i++) {
+            fused.merge(lexical.get(i).key(), 1.0 / (RRF_K + i + 1), Double::sum);
+        }
+        for (int i = 0; i < semantic.size(); i++) {
+            String documentKey = SearchIndexService.postKey(semantic.get(i).key());
+            String passageKey = lexical.stream()
+                    .map(InvertedIndex.Hit::key)
+                    .filter(key -> documentKey.equals(documentKeyOf(key)))
+                    .findFirst()
+                    .orElse(documentKey + "#0");
+            fused.merge(passageKey, 1.0 / (RRF_K + i + 1), Double::sum);
+        }
+        List<Map.Entry<String, Double>> ranked = fused.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
                 .collect(Collectors.toList());
 
-        return new QaResult(answer, references);
+        Map<String, List<SearchIndexService.Passage>> documents = loadPassages(ranked.stream()
+                .map(entry -> documentKeyOf(entry.getKey()))
+                .distinct()
+                .collect(Collectors.toList()));
+
+        List<RetrievedPassage> selected = new ArrayList<>();
+        Map<String, Integer> perDocument = new HashMap<>();
+        for (Map.Entry<String, Double> entry : ranked) {
+            if (selected.size() >= Math.max(1, topK)) {
+                break;
+            }
+            String documentKey = documentKeyOf(entry.getKey());
+            List<SearchIndexService.Passage> passages = documents.get(documentKey);
+            int position = Integer.parseInt(entry.getKey().substring(entry.getKey().lastIndexOf('#') + 1));
+            if (passages == null || position >= passages.size()
+                    || perDocument.merge(documentKey, 1, Integer::sum) > MAX_PASSAGES_PER_DOCUMENT) {
+                continue;
+            }
+            int colon = documentKey.indexOf(':');
+            SearchIndexService.Passage passage = passages.get(position);
+            selected.add(new RetrievedPassage(documentKey.substring(0, colon), documentKey.substring(colon + 1),
+                    passage.title(), passage.text(), entry.getValue()));
+        }
+        return selected;
+    }
+
+    /**
+     * 批量加载文档并切分为段落（与建索引时的切分一致）
+     *
+     * @return 文档 key -> 段落；找不到或未通过审核的文档不在其中
+     */
+    private Map<String, List<SearchIndexService.Passage>> loadPassages(List<String> documentKeys) {
+        List<String> postIds = new ArrayList<>();
+        List<Long> newsIds = new ArrayList<>();
+        for (String documentKey : documentKeys) {
+            String id = documentKey.substring(documentKey.indexOf(':') + 1);
+            if (documentKey.startsWith("post:")) {
+                postIds.add(id);
+            } else if (documentKey.startsWith("news:")) {
+                newsIds.add(Long.valueOf(id));
+            }
+        }
+        Map<String, List<SearchIndexService.Passage>> passages = new HashMap<>();
+        postRepository.findAllById(postIds).stream()
+                .filter(post -> post.getStatus() == CommunityPost.Status.APPROVED)
+                .forEach(post -> passages.put(SearchIndexService.postKey(post.getId()), SearchIndexService.postPassages(post)));
+        newsRepository.findAllById(newsIds)
+                .forEach(news -> passages.put(SearchIndexService.newsKey(news.getId()), SearchIndexService.newsPassages(news)));
+        return passages;
+    }
+
+    private static String documentKeyOf(String passageKey) {
+        return passageKey.substring(0, passageKey.lastIndexOf('#'));
+    }
+
+    /**
+     * 缓存 key：NFKC 归一化、转小写、合并空白后的问题
+     */
+    private static String cacheKey(String question) {
+        return Normalizer.normalize(question, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    private List<QaReference> toReferences(List<RetrievedPassage> passages) {
+        Map<String, QaReference> references = new LinkedHashMap<>();
+        for (RetrievedPassage passage : passages) {
+            references.putIfAbsent(passage.type() + ":" + passage.id(),
+                    new QaReference(passage.type(), passage.id(), passage.title(), passage.score()));
+        }
+        return new ArrayList<>(references.values());
+    }
+
+    /**
+     * 大模型的上下文：参考段落及其来源标题
+     */
+    private String buildContext(List<RetrievedPassage> passages) {
+        if (passages.isEmpty()) {
+            return "（暂无相关内容）";
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < passages.size(); i++) {
+            RetrievedPassage passage = passages.get(i);
+            builder.append(i + 1)
+                    .append(". [")
+                    .append("news".equals(passage.type()) ? "新闻" : "帖子")
+                    .append("] ")
+                    .append(passage.title())
+                    .append("\n")
+                    .append(passage.text())
+                    .append("\n\n");
+        }
+        return builder.toString().trim();
     }
 
-    private String buildAnswer(List<ScoredPost> posts) {
-        if (posts.isEmpty()) {
-            return "暂时没有找到相关的帖子，欢迎稍后再试试或发布新问题。";
+    private String buildAnswer(List<RetrievedPassage> passages) {
+        if (passages.isEmpty()) {
+            return "暂时没有找到相关的内容，欢迎稍后再试试或发布新问题。";
         }
-        StringBuilder builder = new StringBuilder("根据最近的社区讨论，总结如下：\n");
-        for (int i = 0; i < posts.size(); i++) {
-            CommunityPost post = posts.get(i).getPost();
-            String snippet = post.getBody();
+        StringBuilder builder = new StringBuilder("根据社区讨论和新闻，相关内容如下：\n");
+        for (int i = 0; i < passages.size(); i++) {
+            RetrievedPassage passage = passages.get(i);
+            String snippet = passage.text();
             if (snippet.length() > 120) {
                 snippet = snippet.substring(0, 120) + "...";
             }
             builder.append(i + 1)
                     .append("、")
-                    .append(post.getTitle())
+                    .append(passage.title())
                     .append("：")
                     .append(snippet)
                     .append("\n");
@@ -78,22 +298,15 @@ public class NlpService {
         return builder.toString().trim();
     }
 
-    private static class ScoredPost {
-        private final CommunityPost post;
-        private final double score;
-
-        ScoredPost(CommunityPost post, double score) {
-            this.post = post;
-            this.score = score;
-        }
-
-        public CommunityPost getPost() {
-            return post;
-        }
+    /**
+     * 检索到的段落
+     *
+     * @param type 来源类型：post / news
+     */
+    private record RetrievedPassage(String type, String id, String title, String text, double score) {
+    }
 
-        public double getScore() {
-            return score;
-        }
+    private record CachedAnswer(QaResult result, long expiresAt) {
     }
 
     public static class QaResult {
@@ -114,17 +327,44 @@ public class NlpService {
         }
     }
 
+    public static class QaStream {
+        private final List<QaReference> references;
+        private final Flux<String> answer;
+
+        public QaStream(List<QaReference> references, Flux<String> answer) {
+            this.references = references;
+            this.answer = answer;
+        }
+
+        public List<QaReference> getReferences() {
+            return references;
+        }
+
+        public Flux<String> getAnswer() {
+            return answer;
+        }
+    }
+
     public static class QaReference {
+        private final String type;
         private final String id;
         private final String title;
         private final double score;
 
-        public QaReference(String id, String title, double score) {
+        public QaReference(String type, String id, String title, double score) {
+            this.type = type;
             this.id = id;
             this.title = title;
             this.score = score;
         }
 
+        /**
+         * post / news
+         */
+        public String getType() {
+            return type;
+        }
+
         public String getId() {
             return id;
         }
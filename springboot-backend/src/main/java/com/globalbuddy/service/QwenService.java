@@ -1,29 +1,21 @@
 package com.globalbuddy.service;
 
-import com.alibaba.dashscope.aigc.generation.Generation;
-import com.alibaba.dashscope.aigc.generation.models.QwenParam;
-import com.alibaba.dashscope.common.Message;
-import com.alibaba.dashscope.common.Role;
-import com.alibaba.dashscope.exception.ApiException;
 import com.alibaba.dashscope.exception.InputRequiredException;
 import com.alibaba.dashscope.exception.NoApiKeyException;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-
-import java.util.ArrayList;
-import java.util.List;
+import reactor.core.publisher.Flux;
 
 /**
  * Qwen 模型服务
  * 使用阿里云 DashScope SDK 调用 Qwen 模型进行文本总结
+ * 调用经由 LlmGateway 的交互通道（优先于后台批量任务）
  */
 @Service
+@RequiredArgsConstructor
 public class QwenService {
 
-    @Value("${dashscope.api.key:}")
-    private String apiKey;
-
-    private final Generation gen = new Generation();
+    private final LlmGateway llmGateway;
 
     /**
      * 使用 Qwen 模型总结文本内容
@@ -31,31 +23,15 @@ public class QwenService {
      * @param text 需要总结的文本
      * @return 总结后的文本
      */
-    public String summarizeText(String text) throws NoApiKeyException, ApiException, InputRequiredException {
-        if (apiKey == null || apiKey.isEmpty()) {
-            throw new IllegalStateException("请配置 dashscope.api.key");
-        }
-
-        List<Message> messages = new ArrayList<>();
-        messages.add(Message.builder()
-                .role(Role.SYSTEM.getValue())
-                .content("你是一个专业的文本总结助手，请用简洁明了的语言总结用户提供的内容。")
-                .build());
-        messages.add(Message.builder()
-                .role(Role.USER.getValue())
-                .content("请总结以下内容：\n" + text)
-                .build());
-
-        QwenParam param = QwenParam.builder()
-                .apiKey(apiKey)
-                .model("qwen-max-2025-01-25") // Updated model version
-                .messages(messages)
-                .resultFormat(QwenParam.ResultFormat.MESSAGE)
+    public String summarizeText(String text) throws NoApiKeyException, InputRequiredException {
+        return llmGateway.complete(LlmRequest.builder()
+                .lane(LlmRequest.Lane.INTERACTIVE)
+                .purpose("summarize")
+                .systemPrompt("你是一个专业的文本总结助手，请用简洁明了的语言总结用户提供的内容。")
+                .userPrompt("请总结以下内容：\n" + text)
                 // 当前 SDK 版本不支持 maxTokens(...)，使用默认长度配置
                 .temperature(0.7f)
-                .build();
-
-        return gen.call(param).getOutput().getChoices().get(0).getMessage().getContent();
+                .build());
     }
 
     /**
@@ -65,31 +41,47 @@ public class QwenService {
      * @param context 上下文信息（如相关帖子内容）
      * @return 回答内容
      */
-    public String answerQuestion(String question, String context) throws NoApiKeyException, ApiException, InputRequiredException {
-        if (apiKey == null || apiKey.isEmpty()) {
-            throw new IllegalStateException("请配置 dashscope.api.key");
-        }
+    public String answerQuestion(String question, String context) throws NoApiKeyException, InputRequiredException {
+        return llmGateway.complete(qaRequest(question, context));
+    }
 
-        List<Message> messages = new ArrayList<>();
-        messages.add(Message.builder()
-                .role(Role.SYSTEM.getValue())
-                .content("你是一个留学生互助平台的智能助手，请根据提供的上下文信息回答用户问题。")
-                .build());
-        messages.add(Message.builder()
-                .role(Role.USER.getValue())
-                .content(String.format("上下文信息：\n%s\n\n用户问题：%s", context, question))
+    /**
+     * 内容安全审核，提示词要求模型返回 is_safe / reason / confidence_score 三个字段的 JSON
+     * 
+     * @param prompt 审核提示词（包含帖子标题和正文）
+     * @return 模型返回的 JSON 文本
+     */
+    public String moderate(String prompt) throws NoApiKeyException, InputRequiredException {
+        return llmGateway.complete(LlmRequest.builder()
+                .lane(LlmRequest.Lane.INTERACTIVE)
+                .purpose("moderation")
+                .userPrompt(prompt)
+                .temperature(0.1f)
+                .jsonField("is_safe")
+                .jsonField("reason")
+                .jsonField("confidence_score")
                 .build());
+    }
 
-        QwenParam param = QwenParam.builder()
-                .apiKey(apiKey)
-                .model("qwen-max-2025-01-25") // Updated model version
-                .messages(messages)
-                .resultFormat(QwenParam.ResultFormat.MESSAGE)
-                // 当前 SDK 版本不支持 maxTokens(...)，使用默认长度配置
+    /**
+     * 流式回答问题，边生成边返回增量文本
+     * 
+     * @param question 用户问题
+     * @param context 上下文信息（如相关帖子内容）
+     * @return 回答的增量文本流，取消订阅即取消调用
+     */
+    public Flux<String> streamAnswer(String question, String context) {
+        return llmGateway.stream(qaRequest(question, context));
+    }
+
+    private LlmRequest qaRequest(String question, String context) {
+        return LlmRequest.builder()
+                .lane(LlmRequest.Lane.INTERACTIVE)
+                .purpose("qa")
+                .systemPrompt("你是一个留学生互助平台的智能助手，请根据提供的上下文信息（社区帖子和新闻的相关段落）回答用户问题，"
+                        + "使用与问题相同的语言；上下文中没有相关信息时请如实说明。")
+                .userPrompt(String.format("上下文信息：\n%s\n\n用户问题：%s", context, question))
                 .temperature(0.7f)
                 .build();
-
-        return gen.call(param).getOutput().getChoices().get(0).getMessage().getContent();
     }
 }
-
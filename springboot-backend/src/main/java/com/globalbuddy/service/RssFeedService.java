@@ -1,19 +1,36 @@
 package com.globalbuddy.service;
 
 import com.globalbuddy.model.News;
+import com.globalbuddy.model.RssFeedState;
+import com.globalbuddy.repository.RssFeedStateRepository;
+import com.globalbuddy.util.HashUtils;
 import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.io.SyndFeedInput;
 import com.rometools.rome.io.XmlReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
-import java.net.URL;
-import java.net.URLConnection;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * RSS Feed Service
@@ -21,13 +38,68 @@ import java.util.List;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class RssFeedService {
 
-    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
     private static final int TIMEOUT = 30000; // 30 seconds timeout
 
+    /**
+     * Fetch all feeds of a batch concurrently instead of one after another
+     */
+    @Value("${crawler.rss.parallel:true}")
+    private boolean parallelFetch;
+
+    /**
+     * Maximum number of feeds downloaded at the same time
+     */
+    @Value("${crawler.rss.max-concurrency:8}")
+    private int maxConcurrency;
+
+    /**
+     * Deadline for a single feed (connect + download + parse), in milliseconds
+     */
+    @Value("${crawler.rss.feed-timeout-ms:20000}")
+    private long feedTimeoutMs;
+
+    /**
+     * Overall wall-time budget for one batch of feeds, in milliseconds
+     */
+    @Value("${crawler.rss.crawl-budget-ms:45000}")
+    private long crawlBudgetMs;
+
+    /**
+     * Send If-None-Match / If-Modified-Since and skip unchanged feeds when polling
+     */
+    @Value("${crawler.rss.conditional-get:true}")
+    private boolean conditionalGet;
+
+    private final RssFeedStateRepository feedStateRepository;
+    private final HttpFetcher httpFetcher;
+
+    private ExecutorService fetchExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        fetchExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "rss-fetch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("RSS fetch executor initialized (parallel: {}, maxConcurrency: {}, feedTimeout: {} ms, crawlBudget: {} ms)",
+                parallelFetch, maxConcurrency, feedTimeoutMs, crawlBudgetMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+        }
+    }
+
     /**
      * Fetch news from RSS feed
+     * Always downloads and parses the full feed (used for probing and manual tests)
      * 
      * @param feedUrl RSS feed URL
      * @param source News source identifier
@@ -35,21 +107,67 @@ public class RssFeedService {
      * @return List of news objects
      */
     public List<News> fetchNewsFromRss(String feedUrl, String source, int maxItems) {
+        return fetchFeed(feedUrl, source, maxItems, TIMEOUT, false).getItems();
+    }
+
+    /**
+     * Fetch news from RSS feed within the given deadline
+     *
+     * @param feedUrl RSS feed URL
+     * @param source News source identifier
+     * @param maxItems Maximum number of news items to fetch
+     * @param timeoutMs Deadline for the whole feed (connect + download + parse)
+     * @param conditional If true, use the stored validators and content hash to skip unchanged feeds
+     * @return Fetch result with status and news items; for a changed feed polled conditionally it
+     *         also carries the new feed state, which the caller saves once the items are ingested
+     */
+    private FeedFetchResult fetchFeed(String feedUrl, String source, int maxItems, long timeoutMs, boolean conditional) {
         List<News> newsList = new ArrayList<>();
+        boolean useValidators = conditional && conditionalGet;
         
         try {
             log.info("Starting to fetch news from RSS feed: {} (source: {})", feedUrl, source);
-            
-            // Create URL connection
-            URL url = new URL(feedUrl);
-            URLConnection connection = url.openConnection();
-            connection.setRequestProperty("User-Agent", USER_AGENT);
-            connection.setConnectTimeout(TIMEOUT);
-            connection.setReadTimeout(TIMEOUT);
-            
-            // Read RSS feed
-            try (InputStream inputStream = connection.getInputStream();
-                 XmlReader reader = new XmlReader(inputStream)) {
+
+            String stateId = HashUtils.sha256Hex(feedUrl);
+            RssFeedState state = useValidators ? feedStateRepository.findById(stateId).orElse(null) : null;
+
+            // Conditional request headers from the last successful poll
+            HttpFetcher.FetchOptions.FetchOptionsBuilder options = HttpFetcher.FetchOptions.builder()
+                    .timeoutMs(timeoutMs);
+            if (state != null) {
+                if (state.getEtag() != null) {
+                    options.header("If-None-Match", state.getEtag());
+                }
+                if (state.getLastModified() != null) {
+                    options.header("If-Modified-Since", state.getLastModified());
+                }
+            }
+
+            // A slow feed trickling bytes is cut off at the deadline by the fetcher
+            HttpFetcher.FetchResponse response = httpFetcher.fetch(feedUrl, options.build());
+            int status = response.getStatusCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                if (state != null) {
+                    recordPoll(state, status, false);
+                }
+                log.info("RSS feed not modified (304), skipping: {}", feedUrl);
+                return new FeedFetchResult(FeedFetchStatus.NOT_MODIFIED, newsList);
+            }
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP " + status + " fetching " + feedUrl);
+            }
+            byte[] body = response.getBody();
+
+            // Same bytes as last time: the server ignored our validators, but there is nothing new to parse
+            String contentHash = HashUtils.sha256Hex(body);
+            if (state != null && contentHash.equals(state.getContentHash())) {
+                updateValidators(state, response);
+                recordPoll(state, status, false);
+                log.info("RSS feed body unchanged (hash match), skipping parse: {}", feedUrl);
+                return new FeedFetchResult(FeedFetchStatus.UNCHANGED, newsList);
+            }
+
+            try (XmlReader reader = new XmlReader(new ByteArrayInputStream(body))) {
                 
                 SyndFeedInput input = new SyndFeedInput();
                 SyndFeed feed = input.build(reader);
@@ -77,12 +195,73 @@ public class RssFeedService {
                 
                 log.info("Successfully fetched {} news items from RSS feed {}", newsList.size(), feedUrl);
             }
+
+            // Not saved here: if the items are lost before they are stored, the next poll would
+            // get a 304 or a hash match and never see them again (see commitFeedState)
+            RssFeedState newState = null;
+            if (useValidators) {
+                newState = state != null ? state : RssFeedState.builder().id(stateId).feedUrl(feedUrl).build();
+                newState.setContentHash(contentHash);
+                newState.setLastStatus(status);
+                updateValidators(newState, response);
+            }
+            return new FeedFetchResult(FeedFetchStatus.FETCHED, newsList, newState);
             
         } catch (Exception e) {
             log.error("Failed to fetch news from RSS feed: {} - {}", feedUrl, e.getMessage(), e);
+            return new FeedFetchResult(FeedFetchStatus.FAILED, newsList);
+        }
+    }
+
+    /**
+     * Fetch one configured feed; its items are tagged with the feed's NewsSource id
+     */
+    private FeedFetchResult fetchFeed(RssFeedConfig config, int maxItemsPerFeed, long timeoutMs, boolean conditional) {
+        FeedFetchResult result = fetchFeed(config.getUrl(), config.getSource(), config.maxItemsOr(maxItemsPerFeed), timeoutMs, conditional);
+        result.getItems().forEach(news -> news.setSourceId(config.getSourceId()));
+        return new FeedFetchResult(result.getStatus(), result.getItems(), result.getPendingState(), config.getSourceId());
+    }
+
+    /**
+     * Copy the response validators into the feed state
+     */
+    private void updateValidators(RssFeedState state, HttpFetcher.FetchResponse response) {
+        String etag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+        if (etag != null) {
+            state.setEtag(etag);
+        }
+        if (lastModified != null) {
+            state.setLastModified(lastModified);
+        }
+    }
+
+    /**
+     * Save the new state of a changed feed, after its items have been stored
+     *
+     * @param result One feed's result from {@link #pollFeeds(List, int)}
+     */
+    public void commitFeedState(FeedFetchResult result) {
+        if (result.getPendingState() != null) {
+            recordPoll(result.getPendingState(), result.getPendingState().getLastStatus(), true);
+        }
+    }
+
+    /**
+     * Persist the outcome of a conditional poll (failure to persist never fails the fetch)
+     */
+    private void recordPoll(RssFeedState state, int status, boolean changed) {
+        try {
+            Date now = new Date();
+            state.setLastStatus(status);
+            state.setLastFetchedAt(now);
+            if (changed) {
+                state.setLastChangedAt(now);
+            }
+            feedStateRepository.save(state);
+        } catch (Exception e) {
+            log.warn("Failed to save RSS feed state: {} - {}", state.getFeedUrl(), e.getMessage());
         }
-        
-        return newsList;
     }
 
     /**
@@ -150,24 +329,202 @@ public class RssFeedService {
 
     /**
      * Fetch news from multiple RSS feeds in batch
+     * Always downloads every feed (full crawls); polling goes through {@link #pollFeeds(List, int)}
      * 
      * @param feedConfigs List of RSS feed configurations (each contains URL and source identifier)
-     * @param maxItemsPerFeed Maximum number of items per feed
+     * @param maxItemsPerFeed Maximum number of items per feed (unless the feed config sets its own)
      * @return Merged list of news items
      */
     public List<News> fetchNewsFromMultipleRss(List<RssFeedConfig> feedConfigs, int maxItemsPerFeed) {
-        List<News> allNews = new ArrayList<>();
+        return fetchAll(feedConfigs, maxItemsPerFeed, false).getItems();
+    }
+
+    /**
+     * Poll multiple RSS feeds conditionally: feeds unchanged since the last poll contribute no items
+     * The new state of changed feeds is returned, not saved: pass the batch to
+     * {@link #commitFeedState(FeedFetchResult)} for each feed whose items have been stored
+     *
+     * @param feedConfigs List of RSS feed configurations
+     * @param maxItemsPerFeed Maximum number of items per feed (unless the feed config sets its own)
+     * @return Per-feed results and the merged items
+     */
+    public FeedBatch pollFeeds(List<RssFeedConfig> feedConfigs, int maxItemsPerFeed) {
+        return fetchAll(feedConfigs, maxItemsPerFeed, true);
+    }
+
+    private FeedBatch fetchAll(List<RssFeedConfig> feedConfigs, int maxItemsPerFeed, boolean conditional) {
+        if (!parallelFetch || feedConfigs.size() <= 1) {
+            return fetchSequentially(feedConfigs, maxItemsPerFeed, conditional);
+        }
+        return fetchConcurrently(feedConfigs, maxItemsPerFeed, conditional);
+    }
+
+    /**
+     * Fetch feeds one after another (legacy mode, crawler.rss.parallel=false)
+     */
+    private FeedBatch fetchSequentially(List<RssFeedConfig> feedConfigs, int maxItemsPerFeed, boolean conditional) {
+        List<FeedFetchResult> results = new ArrayList<>();
         
         for (RssFeedConfig config : feedConfigs) {
-            try {
-                List<News> news = fetchNewsFromRss(config.getUrl(), config.getSource(), maxItemsPerFeed);
-                allNews.addAll(news);
-            } catch (Exception e) {
-                log.error("Failed to fetch news from RSS feed: {} - {}", config.getUrl(), e.getMessage());
-            }
+            results.add(fetchFeed(config, maxItemsPerFeed, TIMEOUT, conditional));
         }
         
-        return allNews;
+        return new FeedBatch(results);
+    }
+
+    /**
+     * Fetch all feeds at once on the bounded fetch executor.
+     * Each feed has its own deadline, and results are merged in completion order.
+     * Feeds still running when the overall crawl budget is spent are cancelled,
+     * so the total wall time is roughly that of the slowest feed, not the sum of all feeds.
+     */
+    private FeedBatch fetchConcurrently(List<RssFeedConfig> feedConfigs, int maxItemsPerFeed, boolean conditional) {
+        long start = System.currentTimeMillis();
+        long budgetDeadline = start + crawlBudgetMs;
+
+        CompletionService<FeedFetchResult> completionService = new ExecutorCompletionService<>(fetchExecutor);
+        Map<Future<FeedFetchResult>, RssFeedConfig> pending = new HashMap<>();
+        for (RssFeedConfig config : feedConfigs) {
+            Future<FeedFetchResult> future = completionService.submit(() ->
+                    fetchFeed(config, maxItemsPerFeed, feedTimeoutMs, conditional));
+            pending.put(future, config);
+        }
+
+        List<FeedFetchResult> results = new ArrayList<>();
+        try {
+            while (!pending.isEmpty()) {
+                long remaining = budgetDeadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                Future<FeedFetchResult> done = completionService.poll(remaining, TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    break;
+                }
+                RssFeedConfig config = pending.remove(done);
+                try {
+                    FeedFetchResult result = done.get();
+                    results.add(result);
+                    log.debug("Merged {} items from RSS feed {} after {} ms",
+                            result.getItems().size(), config.getUrl(), System.currentTimeMillis() - start);
+                } catch (ExecutionException e) {
+                    log.error("Failed to fetch news from RSS feed: {} - {}", config.getUrl(), e.getCause().getMessage());
+                    results.add(new FeedFetchResult(FeedFetchStatus.FAILED, new ArrayList<>()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for RSS feeds, returning {} feeds fetched so far", results.size());
+        }
+
+        if (!pending.isEmpty()) {
+            log.warn("RSS crawl budget of {} ms exhausted, cancelling {} unfinished feeds: {}", crawlBudgetMs, pending.size(),
+                    pending.values().stream().map(RssFeedConfig::getUrl).toList());
+            pending.keySet().forEach(future -> future.cancel(true));
+            pending.values().forEach(config -> results.add(new FeedFetchResult(FeedFetchStatus.FAILED, new ArrayList<>())));
+        }
+
+        FeedBatch batch = new FeedBatch(results);
+        log.info("Fetched {} news items from {} RSS feeds concurrently in {} ms",
+                batch.getItems().size(), feedConfigs.size(), System.currentTimeMillis() - start);
+        return batch;
+    }
+
+    /**
+     * Outcome of a single feed fetch
+     */
+    public enum FeedFetchStatus {
+        FETCHED,       // Feed downloaded and parsed
+        NOT_MODIFIED,  // Server answered 304 Not Modified
+        UNCHANGED,     // Body identical to the last poll, parse skipped
+        FAILED         // Network or parse error
+    }
+
+    /**
+     * Result of a single feed fetch
+     */
+    public static class FeedFetchResult {
+        private final FeedFetchStatus status;
+        private final List<News> items;
+        private final RssFeedState pendingState;
+        private final Long sourceId;
+
+        public FeedFetchResult(FeedFetchStatus status, List<News> items) {
+            this(status, items, null);
+        }
+
+        public FeedFetchResult(FeedFetchStatus status, List<News> items, RssFeedState pendingState) {
+            this(status, items, pendingState, null);
+        }
+
+        public FeedFetchResult(FeedFetchStatus status, List<News> items, RssFeedState pendingState, Long sourceId) {
+            this.status = status;
+            this.items = items;
+            this.pendingState = pendingState;
+            this.sourceId = sourceId;
+        }
+
+        public FeedFetchStatus getStatus() {
+            return status;
+        }
+
+        public List<News> getItems() {
+            return items;
+        }
+
+        /**
+         * New state of a changed feed, not yet saved (null unless polled conditionally)
+         */
+        public RssFeedState getPendingState() {
+            return pendingState;
+        }
+
+        /**
+         * NewsSource id of the feed, null for ad-hoc feeds and for feeds that timed out
+         */
+        public Long getSourceId() {
+            return sourceId;
+        }
+
+        /**
+         * Whether the feed is working: it delivered items or is known to be unchanged
+         */
+        public boolean isUsable() {
+            return status == FeedFetchStatus.NOT_MODIFIED
+                    || status == FeedFetchStatus.UNCHANGED
+                    || (status == FeedFetchStatus.FETCHED && !items.isEmpty());
+        }
+    }
+
+    /**
+     * Results of a batch of feed fetches
+     */
+    public static class FeedBatch {
+        private final List<FeedFetchResult> results;
+
+        public FeedBatch(List<FeedFetchResult> results) {
+            this.results = results;
+        }
+
+        public List<FeedFetchResult> getResults() {
+            return results;
+        }
+
+        /**
+         * Items of all feeds, merged
+         */
+        public List<News> getItems() {
+            List<News> items = new ArrayList<>();
+            results.forEach(result -> items.addAll(result.getItems()));
+            return items;
+        }
+
+        /**
+         * Number of feeds that ended with the given status
+         */
+        public long count(FeedFetchStatus status) {
+            return results.stream().filter(result -> result.getStatus() == status).count();
+        }
     }
 
     /**
@@ -176,12 +533,32 @@ public class RssFeedService {
     public static class RssFeedConfig {
         private String url;
         private String source;
+        private Integer maxItems;
+        private Long sourceId;
 
         public RssFeedConfig(String url, String source) {
             this.url = url;
             this.source = source;
         }
 
+        public RssFeedConfig(String url, String source, Integer maxItems) {
+            this.url = url;
+            this.source = source;
+            this.maxItems = maxItems;
+        }
+
+        public RssFeedConfig(String url, String source, Integer maxItems, Long sourceId) {
+            this(url, source, maxItems);
+            this.sourceId = sourceId;
+        }
+
+        /**
+         * Per-feed item limit, falling back to the batch default
+         */
+        public int maxItemsOr(int defaultMaxItems) {
+            return maxItems != null ? maxItems : defaultMaxItems;
+        }
+
         public String getUrl() {
             return url;
         }
@@ -189,6 +566,13 @@ public class RssFeedService {
         public String getSource() {
             return source;
         }
+
+        /**
+         * Registered NewsSource id, null for ad-hoc feeds
+         */
+        public Long getSourceId() {
+            return sourceId;
+        }
     }
 }
 
@@ -0,0 +1,83 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.model.ScriptProfile;
+import com.globalbuddy.repository.CommunityPostRepository;
+import com.globalbuddy.repository.NewsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Script Profile Backfill Service
+ * New and updated posts/news get their ScriptProfile from the entity callbacks; this job
+ * computes it once for rows written before the profile existed. Runs in the background
+ * after startup, reading only id/title/body and writing with UPDATE statements.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScriptProfileBackfillService {
+
+    private final CommunityPostRepository postRepository;
+    private final NewsRepository newsRepository;
+
+    @Value("${script-profile.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${script-profile.backfill.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "script-profile-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Fill the profile of all posts and news that don't have one yet
+     */
+    public void backfill() {
+        long start = System.currentTimeMillis();
+        try {
+            int posts = backfill(postRepository::findWithoutScriptProfile,
+                    (id, profile) -> postRepository.updateScriptProfile((String) id, profile));
+            int news = backfill(newsRepository::findWithoutScriptProfile,
+                    (id, profile) -> newsRepository.updateScriptProfile((Long) id, profile));
+            if (posts > 0 || news > 0) {
+                log.info("Backfilled script profile for {} posts and {} news items in {} ms",
+                        posts, news, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.error("Script profile backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int backfill(Function<PageRequest, List<Object[]>> findBatch, ToIntBiFunction<Object, ScriptProfile> update) {
+        int size = Math.max(1, batchSize);
+        int updated = 0;
+        while (true) {
+            // Updated rows drop out of the query, so always read the first page
+            List<Object[]> batch = findBatch.apply(PageRequest.of(0, size));
+            int updatedInBatch = 0;
+            for (Object[] row : batch) {
+                updatedInBatch += update.applyAsInt(row[0], ScriptProfile.of((String) row[1], (String) row[2]));
+            }
+            updated += updatedInBatch;
+            if (batch.size() < size || updatedInBatch == 0) {
+                return updated;
+            }
+        }
+    }
+}
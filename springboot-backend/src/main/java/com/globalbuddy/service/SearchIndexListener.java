@@ -0,0 +1,87 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.model.Community;
+import com.globalbuddy.model.CommunityPost;
+import com.globalbuddy.model.News;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps SearchIndexService (and, for posts, the EmbeddingService
+ * vector index) in step with post/community/news writes
+ * The JPA callbacks fire at flush time, before the transaction commits, so the index update is
+ * deferred to afterCommit (or applied at once when no transaction is active); rolled-back
+ * writes never reach the indexes
+ * The services are looked up lazily because Hibernate creates listeners while the
+ * EntityManagerFactory (which their repositories depend on) is still starting
+ */
+@Slf4j
+@Component
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndexService> searchIndexService;
+    private final ObjectProvider<EmbeddingService> embeddingService;
+
+    public SearchIndexListener(ObjectProvider<SearchIndexService> searchIndexService,
+                               ObjectProvider<EmbeddingService> embeddingService) {
+        this.searchIndexService = searchIndexService;
+        this.embeddingService = embeddingService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        afterCommit(() -> {
+            if (entity instanceof CommunityPost post) {
+                searchIndexService.ifAvailable(index -> index.indexPost(post));
+                embeddingService.ifAvailable(embeddings -> embeddings.onPostSaved(post));
+            } else if (entity instanceof Community community) {
+                searchIndexService.ifAvailable(index -> index.indexCommunity(community));
+            } else if (entity instanceof News news) {
+                searchIndexService.ifAvailable(index -> index.indexNews(news));
+            }
+        });
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        afterCommit(() -> {
+            if (entity instanceof CommunityPost post) {
+                searchIndexService.ifAvailable(index -> index.removePost(post.getId()));
+                embeddingService.ifAvailable(embeddings -> embeddings.onPostRemoved(post.getId()));
+            } else if (entity instanceof Community community) {
+                searchIndexService.ifAvailable(index -> index.removeCommunity(community.getId()));
+            } else if (entity instanceof News news) {
+                searchIndexService.ifAvailable(index -> index.removeNews(news.getId()));
+            }
+        });
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runSafely(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runSafely(update);
+            }
+        });
+    }
+
+    private void runSafely(Runnable update) {
+        try {
+            update.run();
+        } catch (Exception e) {
+            // 索引失败不影响写库，下次重启时会全量重建
+            log.warn("Failed to update search index: {}", e.getMessage());
+        }
+    }
+}
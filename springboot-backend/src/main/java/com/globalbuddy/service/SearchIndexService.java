@@ -0,0 +1,309 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.model.Community;
+import com.globalbuddy.model.CommunityPost;
+import com.globalbuddy.model.News;
+import com.globalbuddy.repository.CommunityPostRepository;
+import com.globalbuddy.repository.CommunityRepository;
+import com.globalbuddy.repository.NewsRepository;
+import com.globalbuddy.util.InvertedIndex;
+import com.globalbuddy.util.PassageSplitter;
+import com.globalbuddy.util.TermDictionary;
+import com.globalbuddy.util.TermVector;
+import com.globalbuddy.util.TextAnalyzer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Search Index Service
+ * Keeps in-memory inverted indexes of posts (title/body/tags in the original, Chinese and
+ * English versions) and communities, so searches don't load and score every row. Text is
+ * tokenized by the shared TextAnalyzer.
+ * A third index holds passages of approved posts and of news (each body/summary/article in
+ * every stored language, split by PassageSplitter) for question answering; a passage is
+ * keyed by its document and position, e.g. {@code post:<id>#2} or {@code news:<id>#0}.
+ * Built once at startup and updated incrementally by SearchIndexListener once writes are
+ * committed; changes that arrive while a rebuild runs are replayed onto the new indexes.
+ * A rebuild also starts a fresh term dictionary, so terms of deleted or edited documents
+ * no longer count towards its capacity.
+ * Hits are only keys: callers load the entities by id.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexService {
+
+    private static final int PAGE_SIZE = 500;
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float TAG_WEIGHT = 2.0f;
+    private static final float BODY_WEIGHT = 1.0f;
+    private static final float SYNONYM_WEIGHT = 0.5f;
+    private static final int PASSAGE_CHARS = 400;
+
+    private final CommunityPostRepository postRepository;
+    private final CommunityRepository communityRepository;
+    private final NewsRepository newsRepository;
+    private final SynonymService synonymService;
+    private final TextAnalyzer textAnalyzer;
+
+    private volatile InvertedIndex postIndex = new InvertedIndex();
+    private volatile InvertedIndex communityIndex = new InvertedIndex();
+    private volatile InvertedIndex passageIndex = new InvertedIndex();
+    /** Document key -> number of passages indexed for it */
+    private volatile Map<String, Integer> passageCounts = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    /** Serializes rebuilds (startup and the admin endpoint) */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    /** Incremental changes applied while a rebuild runs, guarded by this */
+    private List<Runnable> changesDuringRebuild;
+
+    /**
+     * Passage of a post or news item: the title in the same language as the text
+     */
+    public record Passage(String title, String text) {
+    }
+
+    /**
+     * Build all indexes from the database
+     * Fresh indexes and a fresh term dictionary are filled and then swapped in, so searches keep
+     * working during a rebuild; writes committed meanwhile are recorded and replayed onto the
+     * fresh indexes when they are swapped in. A search running at the very moment of the swap
+     * may match its query against the other dictionary's ids once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuildLock.lock();
+        synchronized (this) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            TermDictionary dictionary = textAnalyzer.newDictionary();
+            InvertedIndex posts = new InvertedIndex();
+            InvertedIndex passages = new InvertedIndex();
+            Map<String, Integer> counts = new ConcurrentHashMap<>();
+            int page = 0;
+            Page<CommunityPost> batch;
+            do {
+                batch = postRepository.findAll(PageRequest.of(page++, PAGE_SIZE));
+                for (CommunityPost post : batch) {
+                    posts.put(post.getId(), postTerms(post, dictionary));
+                    if (post.getStatus() == CommunityPost.Status.APPROVED) {
+                        putPassages(passages, counts, postKey(post.getId()), postPassages(post), dictionary);
+                    }
+                }
+            } while (batch.hasNext());
+
+            page = 0;
+            Page<News> newsBatch;
+            do {
+                newsBatch = newsRepository.findAll(PageRequest.of(page++, PAGE_SIZE));
+                newsBatch.forEach(news -> putPassages(passages, counts, newsKey(news.getId()), newsPassages(news), dictionary));
+            } while (newsBatch.hasNext());
+
+            InvertedIndex communities = new InvertedIndex();
+            communityRepository.findAll().forEach(community -> communities.put(community.getId(), communityTerms(community, dictionary)));
+
+            int replayed;
+            synchronized (this) {
+                postIndex = posts;
+                communityIndex = communities;
+                passageIndex = passages;
+                passageCounts = counts;
+                textAnalyzer.useDictionary(dictionary);
+                synonymService.recompile();
+                replayed = changesDuringRebuild.size();
+                changesDuringRebuild.forEach(Runnable::run);
+            }
+            ready = true;
+            if (replayed > 0) {
+                log.debug("Replayed {} index changes made during the rebuild", replayed);
+            }
+            log.info("Search index built: {} posts, {} communities, {} passages, {} terms ({} in the dictionary) in {} ms",
+                    posts.size(), communities.size(), passages.size(), posts.termCount(), dictionary.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build search index: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                changesDuringRebuild = null;
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    public void indexPost(CommunityPost post) {
+        List<Passage> passages = post.getStatus() == CommunityPost.Status.APPROVED ? postPassages(post) : List.of();
+        // Analyzed inside the change, so a replay after a rebuild interns into the new dictionary
+        apply(() -> {
+            postIndex.put(post.getId(), postTerms(post, textAnalyzer.dictionary()));
+            putPassages(passageIndex, passageCounts, postKey(post.getId()), passages, textAnalyzer.dictionary());
+        });
+    }
+
+    public void removePost(String postId) {
+        apply(() -> {
+            postIndex.remove(postId);
+            putPassages(passageIndex, passageCounts, postKey(postId), List.of(), textAnalyzer.dictionary());
+        });
+    }
+
+    public void indexNews(News news) {
+        List<Passage> passages = newsPassages(news);
+        apply(() -> putPassages(passageIndex, passageCounts, newsKey(news.getId()), passages, textAnalyzer.dictionary()));
+    }
+
+    public void removeNews(Long newsId) {
+        apply(() -> putPassages(passageIndex, passageCounts, newsKey(newsId), List.of(), textAnalyzer.dictionary()));
+    }
+
+    public void indexCommunity(Community community) {
+        apply(() -> communityIndex.put(community.getId(), communityTerms(community, textAnalyzer.dictionary())));
+    }
+
+    public void removeCommunity(String communityId) {
+        apply(() -> communityIndex.remove(communityId));
+    }
+
+    private TermVector postTerms(CommunityPost post, TermDictionary dictionary) {
+        TermVector terms = new TermVector();
+        textAnalyzer.addTo(dictionary, terms, post.getTitle(), TITLE_WEIGHT);
+        textAnalyzer.addTo(dictionary, terms, post.getTitleZh(), TITLE_WEIGHT);
+        textAnalyzer.addTo(dictionary, terms, post.getTitleEn(), TITLE_WEIGHT);
+        textAnalyzer.addTo(dictionary, terms, post.getBody(), BODY_WEIGHT);
+        textAnalyzer.addTo(dictionary, terms, post.getContentZh(), BODY_WEIGHT);
+        textAnalyzer.addTo(dictionary, terms, post.getContentEn(), BODY_WEIGHT);
+        if (post.getTags() != null) {
+            post.getTags().forEach(tag -> textAnalyzer.addTo(dictionary, terms, tag, TAG_WEIGHT));
+        }
+        return terms;
+    }
+
+    private TermVector communityTerms(Community community, TermDictionary dictionary) {
+        TermVector terms = new TermVector();
+        textAnalyzer.addTo(dictionary, terms, community.getTitle(), TITLE_WEIGHT);
+        textAnalyzer.addTo(dictionary, terms, community.getDescription(), BODY_WEIGHT);
+        if (community.getTags() != null) {
+            community.getTags().forEach(tag -> textAnalyzer.addTo(dictionary, terms, tag, TAG_WEIGHT));
+        }
+        return terms;
+    }
+
+    /**
+     * Passages of a post in index order: body, Chinese and English translations
+     */
+    public static List<Passage> postPassages(CommunityPost post) {
+        List<Passage> passages = new ArrayList<>();
+        addPassages(passages, post.getTitle(), post.getBody());
+        addPassages(passages, post.getTitleZh(), post.getContentZh());
+        addPassages(passages, post.getTitleEn(), post.getContentEn());
+        return passages;
+    }
+
+    /**
+     * Passages of a news item in index order: summaries in each language, then the article
+     */
+    public static List<Passage> newsPassages(News news) {
+        List<Passage> passages = new ArrayList<>();
+        addPassages(passages, news.getTitle(), news.getSummary());
+        addPassages(passages, news.getTitleZh(), news.getSummaryZh());
+        addPassages(passages, news.getTitleEn(), news.getSummaryEn());
+        addPassages(passages, news.getTitle(), news.getOriginalContent());
+        return passages;
+    }
+
+    public static String postKey(String postId) {
+        return "post:" + postId;
+    }
+
+    public static String newsKey(Long newsId) {
+        return "news:" + newsId;
+    }
+
+    /**
+     * Best matching passage keys ({@code <document key>#<position>}) with their BM25 scores
+     */
+    public List<InvertedIndex.Hit> searchPassages(String query, int limit) {
+        return passageIndex.search(queryTerms(query), limit);
+    }
+
+    /**
+     * Best matching post ids with their BM25 scores
+     */
+    public List<InvertedIndex.Hit> searchPosts(String query, int limit) {
+        return postIndex.search(queryTerms(query), limit);
+    }
+
+    /**
+     * Best matching community ids with their BM25 scores
+     */
+    public List<InvertedIndex.Hit> searchCommunities(String query, int limit) {
+        return communityIndex.search(queryTerms(query), limit);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("posts", postIndex.size());
+        stats.put("postTerms", postIndex.termCount());
+        stats.put("communities", communityIndex.size());
+        stats.put("communityTerms", communityIndex.termCount());
+        stats.put("passages", passageIndex.size());
+        stats.put("dictionaryTerms", textAnalyzer.dictionary().size());
+        stats.put("dictionaryFull", textAnalyzer.dictionary().isFull());
+        return stats;
+    }
+
+    private static void addPassages(List<Passage> passages, String title, String text) {
+        String passageTitle = title != null ? title : "";
+        PassageSplitter.split(text, PASSAGE_CHARS).forEach(chunk -> passages.add(new Passage(passageTitle, chunk)));
+    }
+
+    /**
+     * Apply a change to the live indexes, and remember it if a rebuild is running so the
+     * rebuilt indexes get it too (the change reads the index fields, so a replay targets the new ones)
+     * Synchronized so concurrent writes of one document agree on how many stale passages to drop
+     */
+    private synchronized void apply(Runnable change) {
+        change.run();
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private void putPassages(InvertedIndex index, Map<String, Integer> counts, String documentKey, List<Passage> passages,
+                             TermDictionary dictionary) {
+        for (int i = 0; i < passages.size(); i++) {
+            TermVector terms = new TermVector();
+            textAnalyzer.addTo(dictionary, terms, passages.get(i).title(), TITLE_WEIGHT);
+            textAnalyzer.addTo(dictionary, terms, passages.get(i).text(), BODY_WEIGHT);
+            index.put(documentKey + "#" + i, terms);
+        }
+        Integer previous = passages.isEmpty() ? counts.remove(documentKey) : counts.put(documentKey, passages.size());
+        for (int i = passages.size(); previous != null && i < previous; i++) {
+            index.remove(documentKey + "#" + i);
+        }
+    }
+
+    /**
+     * Query terms plus synonym expansions at a lower weight
+     */
+    private TermVector queryTerms(String query) {
+        TermVector terms = textAnalyzer.queryVector(query);
+        synonymService.expand(terms, SYNONYM_WEIGHT);
+        return terms;
+    }
+}
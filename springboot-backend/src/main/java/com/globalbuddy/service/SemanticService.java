@@ -1,74 +1,97 @@
 package com.globalbuddy.service;
 
+import com.globalbuddy.util.SynonymDictionary;
+import com.globalbuddy.util.TermDictionary;
+import com.globalbuddy.util.TermVector;
+import com.globalbuddy.util.TextAnalyzer;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 @Service
+@RequiredArgsConstructor
 public class SemanticService {
 
-    private static final Map<String, List<String>> SYNONYM_MAP;
+    private final TextAnalyzer textAnalyzer;
+    private final SynonymService synonymService;
 
-    static {
-        Map<String, List<String>> map = new HashMap<>();
-        map.put("吃饭", Arrays.asList("吃饭", "用餐", "就餐", "餐馆", "餐饮", "烹饪", "饭堂"));
-        map.put("租房", Arrays.asList("租房", "住宿", "公寓", "房源", "宿舍"));
-        map.put("课程", Arrays.asList("课程", "课表", "课堂", "教学", "选课"));
-        map.put("签证", Arrays.asList("签证", "移民", "入境", "海关", "居留证"));
-        map.put("二手", Arrays.asList("二手", "闲置", "转卖", "交易"));
-        SYNONYM_MAP = Collections.unmodifiableMap(map);
+    public double calculateScore(String query, String target) {
+        return scorer(query).score(target);
     }
 
-    public double calculateScore(String query, String target) {
-        if (!StringUtils.hasText(query) || !StringUtils.hasText(target)) {
-            return 0.0;
+    /**
+     * Scorer for one query, so the query is analyzed and expanded once when scoring many texts
+     */
+    public Scorer scorer(String query) {
+        if (!StringUtils.hasText(query)) {
+            return new Scorer(new int[0][][]);
         }
-        List<String> queryTerms = expandTerms(tokenize(query));
-        List<String> targetTerms = expandTerms(tokenize(target));
-        if (queryTerms.isEmpty() || targetTerms.isEmpty()) {
-            return 0.0;
+        // Looked up, not interned: query text must not grow the term dictionary
+        TermVector terms = new TermVector();
+        Set<String> unknownTerms = new HashSet<>();
+        textAnalyzer.analyze(query, term -> {
+            int termId = textAnalyzer.dictionary().lookup(term);
+            if (termId == TermDictionary.UNKNOWN) {
+                unknownTerms.add(term);
+            } else {
+                terms.add(termId, 1.0f);
+            }
+        });
+        SynonymDictionary synonyms = synonymService.current();
+
+        // A synonym group found in the query is one unit that any of its phrases satisfies;
+        // every other query term is a unit of its own
+        List<int[][]> units = new ArrayList<>();
+        TermVector covered = new TermVector();
+        for (SynonymDictionary.Match match : synonyms.find(terms)) {
+            units.add(synonyms.phrases(match.group()));
+            for (int termId : synonyms.phraseTerms(match.phrase())) {
+                covered.add(termId, 1.0f);
+            }
         }
-        Set<String> targetSet = new HashSet<>(targetTerms);
-        int matches = 0;
-        for (String term : queryTerms) {
-            if (targetSet.contains(term)) {
-                matches++;
+        for (int i = 0; i < terms.size(); i++) {
+            if (!covered.contains(terms.termId(i))) {
+                units.add(new int[][]{{terms.termId(i)}});
             }
         }
-        return queryTerms.isEmpty() ? 0.0 : (double) matches / queryTerms.size();
+        // A term no indexed text contains still counts, as a unit that nothing satisfies
+        for (int i = 0; i < unknownTerms.size(); i++) {
+            units.add(new int[0][]);
+        }
+        return new Scorer(units.toArray(new int[0][][]));
     }
 
-    private List<String> tokenize(String text) {
-        String normalized = text == null ? "" : text.toLowerCase();
-        String[] parts = normalized.split("\\s+");
-        List<String> tokens = new ArrayList<>();
-        for (String part : parts) {
-            String trimmed = part.trim();
-            if (StringUtils.hasText(trimmed)) {
-                tokens.add(trimmed);
-            }
+    /**
+     * Share of the query units that occur in a text
+     */
+    public final class Scorer {
+
+        private final int[][][] units;
+
+        private Scorer(int[][][] units) {
+            this.units = units;
         }
-        return tokens;
-    }
 
-    private List<String> expandTerms(List<String> terms) {
-        Set<String> expanded = new HashSet<>(terms);
-        for (String term : terms) {
-            for (Map.Entry<String, List<String>> entry : SYNONYM_MAP.entrySet()) {
-                if (entry.getValue().contains(term)) {
-                    expanded.addAll(entry.getValue());
+        public double score(String target) {
+            if (units.length == 0 || !StringUtils.hasText(target)) {
+                return 0.0;
+            }
+            TermVector targetTerms = textAnalyzer.queryVector(target);
+            int matches = 0;
+            for (int[][] alternatives : units) {
+                for (int[] phrase : alternatives) {
+                    if (SynonymDictionary.containsAll(targetTerms, phrase)) {
+                        matches++;
+                        break;
+                    }
                 }
             }
+            return (double) matches / units.length;
         }
-        return new ArrayList<>(expanded);
     }
 }
-
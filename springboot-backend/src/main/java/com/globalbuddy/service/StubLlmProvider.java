@@ -0,0 +1,161 @@
+package com.globalbuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.globalbuddy.util.HashUtils;
+import com.globalbuddy.util.TextAnalyzer;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline LLM stand-in
+ * Answers deterministically from a hash of the request, so the whole AI layer (translation,
+ * summaries, moderation, Q&A, embeddings) can run without network access or API key. Latency and a
+ * failure rate can be configured to exercise the gateway's queueing, retries and circuit breaker.
+ */
+public class StubLlmProvider implements LlmProvider {
+
+    private static final int STREAM_CHUNK_CHARS = 8;
+
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double errorRate;
+    private final int responseChars;
+    private final long seed;
+    private final int embeddingDimensions;
+    private final TextAnalyzer textAnalyzer;
+    private final AtomicLong calls = new AtomicLong();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public StubLlmProvider(long latencyMs, long latencyJitterMs, double errorRate, int responseChars, long seed,
+                           int embeddingDimensions, TextAnalyzer textAnalyzer) {
+        this.latencyMs = Math.max(0, latencyMs);
+        this.latencyJitterMs = Math.max(0, latencyJitterMs);
+        this.errorRate = Math.max(0, Math.min(1, errorRate));
+        this.responseChars = Math.max(16, responseChars);
+        this.seed = seed;
+        this.embeddingDimensions = Math.max(8, embeddingDimensions);
+        this.textAnalyzer = textAnalyzer;
+    }
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+
+    @Override
+    public LlmResponse complete(LlmRequest request) throws Exception {
+        Random random = nextRandom();
+        Thread.sleep(latency(random));
+        failIfInjected(random);
+        String content = answer(request);
+        return new LlmResponse(content, estimateTokens(request.getSystemPrompt()) + estimateTokens(request.getUserPrompt()),
+                estimateTokens(content));
+    }
+
+    @Override
+    public Flux<String> stream(LlmRequest request) {
+        return Flux.defer(() -> {
+            Random random = nextRandom();
+            long delay = latency(random);
+            List<String> chunks;
+            try {
+                failIfInjected(random);
+                chunks = chunk(answer(request));
+            } catch (Exception e) {
+                return Flux.<String>error(e).delaySubscription(Duration.ofMillis(delay));
+            }
+            // First chunk after the full latency, the rest spread over a fraction of it
+            long perChunk = Math.max(1, delay / 10);
+            return Flux.fromIterable(chunks)
+                    .delayElements(Duration.ofMillis(perChunk))
+                    .delaySubscription(Duration.ofMillis(delay));
+        });
+    }
+
+    @Override
+    public EmbeddingResponse embed(String model, List<String> texts) throws Exception {
+        Random random = nextRandom();
+        Thread.sleep(latency(random));
+        failIfInjected(random);
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        int tokens = 0;
+        for (String text : texts) {
+            vectors.add(hashedEmbedding(text));
+            tokens += estimateTokens(text);
+        }
+        return new EmbeddingResponse(vectors, tokens);
+    }
+
+    /**
+     * Feature-hashed bag of words/bigrams: texts sharing terms get similar vectors, which is
+     * enough for related-post lookups to behave sensibly offline (no cross-language matching)
+     */
+    private float[] hashedEmbedding(String text) {
+        float[] vector = new float[embeddingDimensions];
+        textAnalyzer.analyze(text, token -> {
+            int hash = token.hashCode() * 0x9E3779B1;
+            vector[Math.floorMod(hash, embeddingDimensions)] += (hash & 0x10000) == 0 ? 1f : -1f;
+        });
+        return vector;
+    }
+
+    /**
+     * Answer text for a request, a pure function of its content
+     */
+    String answer(LlmRequest request) throws Exception {
+        String hash = HashUtils.sha256Hex(request.getPurpose() + "\0" + request.getSystemPrompt() + "\0" + request.getUserPrompt())
+                .substring(0, 8);
+
+        if ("moderation".equals(request.getPurpose())) {
+            ObjectNode verdict = objectMapper.createObjectNode();
+            verdict.put("is_safe", true);
+            verdict.put("reason", "stub verdict " + hash);
+            verdict.put("confidence_score", 90);
+            return objectMapper.writeValueAsString(verdict);
+        }
+        if (!request.getJsonFields().isEmpty()) {
+            ObjectNode reply = objectMapper.createObjectNode();
+            for (String field : request.getJsonFields()) {
+                reply.put(field, "[stub " + field + " " + hash + "]");
+            }
+            return objectMapper.writeValueAsString(reply);
+        }
+
+        String prompt = request.getUserPrompt() != null ? request.getUserPrompt().replaceAll("\\s+", " ").trim() : "";
+        String text = "[stub " + request.getPurpose() + " " + hash + "] " + prompt;
+        return text.length() > responseChars ? text.substring(0, responseChars) : text;
+    }
+
+    private Random nextRandom() {
+        // One independent but reproducible sequence per call
+        return new Random(seed * 31 + calls.getAndIncrement());
+    }
+
+    private long latency(Random random) {
+        return latencyMs + (latencyJitterMs > 0 ? (long) (random.nextDouble() * latencyJitterMs) : 0);
+    }
+
+    private void failIfInjected(Random random) {
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            throw new RuntimeException("Injected stub LLM failure");
+        }
+    }
+
+    private static List<String> chunk(String text) {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += STREAM_CHUNK_CHARS) {
+            chunks.add(text.substring(i, Math.min(text.length(), i + STREAM_CHUNK_CHARS)));
+        }
+        return chunks;
+    }
+
+    private static int estimateTokens(String text) {
+        return text == null ? 0 : text.length() / 2;
+    }
+}
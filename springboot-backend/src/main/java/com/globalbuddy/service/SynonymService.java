@@ -0,0 +1,147 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.util.SynonymDictionary;
+import com.globalbuddy.util.TermVector;
+import com.globalbuddy.util.TextAnalyzer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synonym Service
+ * Loads synonym groups from analysis.synonyms.location (one group per line, entries separated
+ * by commas, # for comments; classpath: or file: locations) and compiles them into a
+ * SynonymDictionary. The file is checked for changes periodically and can be reloaded by
+ * hand; a file that fails to load keeps the previous dictionary in place.
+ * Expansion is applied to queries only, so scoring a document costs the same whatever the
+ * size of the dictionary.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SynonymService {
+
+    private final TextAnalyzer textAnalyzer;
+    private final ResourceLoader resourceLoader;
+
+    @Value("${analysis.synonyms.location:classpath:analysis/synonyms.txt}")
+    private String location;
+
+    private volatile SynonymDictionary dictionary = SynonymDictionary.EMPTY;
+    /** Groups of the last successful load, guarded by this */
+    private List<List<String>> groups = List.of();
+    private volatile long loadedModified = -1;
+    private volatile long loadedAt;
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    public SynonymDictionary current() {
+        return dictionary;
+    }
+
+    /**
+     * Add the terms of every synonym group found in the query, at the given weight
+     * (terms already in the query keep their own weight)
+     */
+    public void expand(TermVector query, float weight) {
+        SynonymDictionary current = dictionary;
+        for (SynonymDictionary.Match match : current.find(query)) {
+            for (int[] phrase : current.phrases(match.group())) {
+                for (int termId : phrase) {
+                    query.addIfAbsent(termId, weight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Load and compile the synonym file
+     *
+     * @return Number of groups loaded
+     * @throws IllegalStateException When the file cannot be read (the previous dictionary stays active)
+     */
+    public synchronized int reload() {
+        Resource resource = resourceLoader.getResource(location);
+        long modified = lastModified(resource);
+        List<List<String>> groups = new ArrayList<>();
+        try (InputStream in = resource.getInputStream()) {
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                List<String> group = new ArrayList<>();
+                for (String entry : trimmed.split("[,，]")) {
+                    if (!entry.isBlank()) {
+                        group.add(entry.trim());
+                    }
+                }
+                groups.add(group);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to load synonyms from {}: {}", location, e.getMessage());
+            throw new IllegalStateException("Failed to load synonyms from " + location + ": " + e.getMessage(), e);
+        }
+        this.groups = groups;
+        dictionary = SynonymDictionary.compile(groups, textAnalyzer);
+        loadedModified = modified;
+        loadedAt = System.currentTimeMillis();
+        log.info("Loaded {} synonym groups from {}", dictionary.groupCount(), location);
+        return dictionary.groupCount();
+    }
+
+    /**
+     * Compile the loaded groups again, after the analyzer's term dictionary has been replaced
+     */
+    public synchronized void recompile() {
+        dictionary = SynonymDictionary.compile(groups, textAnalyzer);
+    }
+
+    /**
+     * Reload when the file has changed since it was last loaded
+     */
+    @Scheduled(fixedDelayString = "${analysis.synonyms.refresh-ms:60000}",
+            initialDelayString = "${analysis.synonyms.refresh-ms:60000}")
+    public void reloadIfChanged() {
+        long modified = lastModified(resourceLoader.getResource(location));
+        if (modified > 0 && modified != loadedModified) {
+            try {
+                reload();
+            } catch (IllegalStateException e) {
+                // Already logged; try again on the next check
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("location", location);
+        stats.put("groups", dictionary.groupCount());
+        stats.put("loadedAt", loadedAt);
+        return stats;
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
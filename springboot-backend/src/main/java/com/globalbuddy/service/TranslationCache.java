@@ -0,0 +1,165 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.model.TranslationCacheEntry;
+import com.globalbuddy.repository.TranslationCacheRepository;
+import com.globalbuddy.util.HashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Translation Cache
+ * Two tiers: an in-process LRU in front of the translation_cache table.
+ * Entries are keyed by hash(prompt version, source language, target language, normalized text),
+ * so the same text (e.g. a headline syndicated by several sites, or a forced re-translation)
+ * is only sent to the LLM once, and bumping the prompt version invalidates old results.
+ * Database errors never fail a translation; they only turn into cache misses.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TranslationCache {
+
+    private static final Pattern LINE_BREAK = Pattern.compile("\\r\\n?");
+    private static final Pattern HORIZONTAL_SPACE = Pattern.compile("[ \\t\\u00A0]+");
+
+    private final TranslationCacheRepository translationCacheRepository;
+
+    @Value("${translation.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${translation.cache.max-entries:5000}")
+    private int maxEntries;
+
+    private final Map<String, String> memory = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Metrics
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong databaseHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong databaseErrors = new AtomicLong();
+
+    /**
+     * Look up a cached translation
+     *
+     * @param text          Source text
+     * @param sourceLang    Source language
+     * @param targetLang    Target language
+     * @param promptVersion Version of the prompt that produced the translation
+     * @return Cached translation, empty on miss
+     */
+    public Optional<String> get(String text, String sourceLang, String targetLang, int promptVersion) {
+        if (!enabled || text == null) {
+            return Optional.empty();
+        }
+        String key = key(text, sourceLang, targetLang, promptVersion);
+
+        String cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(cached);
+        }
+
+        try {
+            Optional<TranslationCacheEntry> entry = translationCacheRepository.findById(key);
+            if (entry.isPresent()) {
+                databaseHits.incrementAndGet();
+                String translated = entry.get().getTranslatedText();
+                remember(key, translated);
+                return Optional.of(translated);
+            }
+        } catch (Exception e) {
+            databaseErrors.incrementAndGet();
+            log.warn("Translation cache lookup failed: {}", e.getMessage());
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a successful translation in both tiers
+     */
+    public void put(String text, String sourceLang, String targetLang, int promptVersion, String translated) {
+        if (!enabled || text == null || translated == null || translated.trim().isEmpty()) {
+            return;
+        }
+        String key = key(text, sourceLang, targetLang, promptVersion);
+        remember(key, translated);
+        stores.incrementAndGet();
+        try {
+            translationCacheRepository.save(TranslationCacheEntry.builder()
+                    .id(key)
+                    .sourceLang(sourceLang)
+                    .targetLang(targetLang)
+                    .promptVersion(promptVersion)
+                    .sourceLength(normalize(text).length())
+                    .translatedText(translated)
+                    .build());
+        } catch (Exception e) {
+            // Concurrent store of the same key, or database unavailable: the memory tier still has it
+            databaseErrors.incrementAndGet();
+            log.warn("Failed to persist translation cache entry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Hit/miss counters since startup
+     */
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.get() + databaseHits.get();
+        long lookups = hits + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("databaseHits", databaseHits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        stats.put("stores", stores.get());
+        stats.put("databaseErrors", databaseErrors.get());
+        return stats;
+    }
+
+    private void remember(String key, String translated) {
+        synchronized (memory) {
+            memory.put(key, translated);
+        }
+    }
+
+    /**
+     * Cache key; fields are separated by NUL so they cannot run into each other
+     */
+    static String key(String text, String sourceLang, String targetLang, int promptVersion) {
+        return HashUtils.sha256Hex(promptVersion + "\u0000" + sourceLang + "\u0000" + targetLang + "\u0000" + normalize(text));
+    }
+
+    /**
+     * Unicode NFC, unified line breaks, runs of spaces/tabs collapsed, trimmed.
+     * Line breaks are kept because the translation preserves the markdown layout.
+     */
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC);
+        normalized = LINE_BREAK.matcher(normalized).replaceAll("\n");
+        return HORIZONTAL_SPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
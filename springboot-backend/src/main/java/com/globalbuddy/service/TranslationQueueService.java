@@ -0,0 +1,341 @@
+package com.globalbuddy.service;
+
+import com.globalbuddy.model.Comment;
+import com.globalbuddy.model.CommunityPost;
+import com.globalbuddy.model.TranslationStatus;
+import com.globalbuddy.model.TranslationTask;
+import com.globalbuddy.repository.CommentRepository;
+import com.globalbuddy.repository.CommunityPostRepository;
+import com.globalbuddy.repository.TranslationTaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Translation Queue Service
+ * Translates posts and comments in the background so the write path does not wait for the LLM.
+ * The write path saves the content with translationStatus PENDING and enqueues a durable task
+ * (translation_tasks table); workers fill the Chinese/English fields later and set the status
+ * to COMPLETED, or to FAILED after max-attempts tries with exponential backoff.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TranslationQueueService {
+
+    private final TranslationTaskRepository translationTaskRepository;
+    private final CommunityPostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final TranslationService translationService;
+    private final LanguageDetectionService languageDetectionService;
+    private final SearchIndexService searchIndexService;
+
+    @Value("${translation.queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${translation.queue.concurrency:4}")
+    private int concurrency;
+
+    @Value("${translation.queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${translation.queue.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${translation.queue.done-retention-hours:24}")
+    private long doneRetentionHours;
+
+    private ExecutorService workers;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Metrics
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "translation-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Tasks that were running when the application stopped are retried
+        int requeued = translationTaskRepository.requeueRunning();
+        if (requeued > 0) {
+            log.info("Requeued {} interrupted translation tasks", requeued);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Prepare a new post for background translation: fields already in the source
+     * language are filled right away, the status is set to PENDING
+     * Call before {@link #savePost(CommunityPost)}.
+     */
+    public void markPending(CommunityPost post) {
+        applyPostTranslation(post, new TranslationService.TranslationResult());
+        post.setTranslationStatus(TranslationStatus.PENDING);
+    }
+
+    /**
+     * Comment counterpart of {@link #markPending(CommunityPost)}
+     */
+    public void markPending(Comment comment) {
+        applyCommentTranslation(comment, new TranslationService.TranslationResult());
+        comment.setTranslationStatus(TranslationStatus.PENDING);
+    }
+
+    /**
+     * Save a post marked PENDING together with its translation task, so that a failure
+     * in between cannot leave a PENDING post that nothing will ever translate
+     */
+    @Transactional
+    public CommunityPost savePost(CommunityPost post) {
+        CommunityPost saved = postRepository.save(post);
+        enqueue(TranslationTask.TargetType.POST, saved.getId());
+        return saved;
+    }
+
+    /**
+     * Comment counterpart of {@link #savePost(CommunityPost)}
+     */
+    @Transactional
+    public Comment saveComment(Comment comment) {
+        Comment saved = commentRepository.save(comment);
+        enqueue(TranslationTask.TargetType.COMMENT, saved.getId());
+        return saved;
+    }
+
+    /**
+     * Hand due tasks to idle workers
+     */
+    @Scheduled(fixedDelayString = "${translation.queue.poll-ms:2000}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        int idle = concurrency - inFlight.get();
+        if (idle <= 0) {
+            return;
+        }
+        List<TranslationTask> due = translationTaskRepository.findByStatusAndNextAttemptAtBeforeOrderByIdAsc(
+                TranslationTask.Status.PENDING, new Date(), PageRequest.of(0, idle));
+        for (TranslationTask task : due) {
+            if (translationTaskRepository.claim(task.getId(), new Date()) == 0) {
+                continue;
+            }
+            inFlight.incrementAndGet();
+            workers.submit(() -> {
+                try {
+                    process(task.getId());
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Delete finished tasks once they are older than the retention period; only pending,
+     * running and failed tasks are needed to run and inspect the queue
+     */
+    @Scheduled(fixedDelayString = "${translation.queue.purge-ms:3600000}")
+    public void purgeDone() {
+        Date before = new Date(System.currentTimeMillis() - doneRetentionHours * 3600_000L);
+        int purged = translationTaskRepository.deleteDoneBefore(before);
+        if (purged > 0) {
+            log.info("Purged {} finished translation tasks", purged);
+        }
+    }
+
+    /**
+     * Queue counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", translationTaskRepository.countByStatus(TranslationTask.Status.PENDING));
+        stats.put("running", translationTaskRepository.countByStatus(TranslationTask.Status.RUNNING));
+        stats.put("failedTotal", translationTaskRepository.countByStatus(TranslationTask.Status.FAILED));
+        stats.put("inFlight", inFlight.get());
+        stats.put("completed", completed.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    /**
+     * Fill the translated fields of a post, falling back to the original text
+     * for the fields that are already in the source language
+     */
+    public void applyPostTranslation(CommunityPost post, TranslationService.TranslationResult result) {
+        String title = post.getTitle();
+        String body = post.getBody();
+        String lang = post.getOriginalLanguage();
+
+        if (hasText(result.getTitleZh())) {
+            post.setTitleZh(result.getTitleZh());
+        } else if (!hasText(post.getTitleZh()) && ("zh".equals(lang) || languageDetectionService.containsChinese(title))) {
+            post.setTitleZh(title);
+        }
+        if (hasText(result.getBodyZh())) {
+            post.setContentZh(result.getBodyZh());
+        } else if (!hasText(post.getContentZh()) && ("zh".equals(lang) || languageDetectionService.containsChinese(body))) {
+            post.setContentZh(body);
+        }
+        if (hasText(result.getTitleEn())) {
+            post.setTitleEn(result.getTitleEn());
+        } else if (!hasText(post.getTitleEn()) && "en".equals(lang)) {
+            post.setTitleEn(title);
+        }
+        if (hasText(result.getBodyEn())) {
+            post.setContentEn(result.getBodyEn());
+        } else if (!hasText(post.getContentEn()) && "en".equals(lang)) {
+            post.setContentEn(body);
+        }
+    }
+
+    private void applyCommentTranslation(Comment comment, TranslationService.TranslationResult result) {
+        String lang = comment.getOriginalLanguage();
+        if (hasText(result.getBodyZh())) {
+            comment.setContentZh(result.getBodyZh());
+        } else if (!hasText(comment.getContentZh()) && "zh".equals(lang)) {
+            comment.setContentZh(comment.getContent());
+        }
+        if (hasText(result.getBodyEn())) {
+            comment.setContentEn(result.getBodyEn());
+        } else if (!hasText(comment.getContentEn()) && "en".equals(lang)) {
+            comment.setContentEn(comment.getContent());
+        }
+    }
+
+    private void enqueue(TranslationTask.TargetType targetType, String targetId) {
+        translationTaskRepository.save(TranslationTask.builder()
+                .targetType(targetType)
+                .targetId(targetId)
+                .status(TranslationTask.Status.PENDING)
+                .build());
+        log.debug("Queued translation of {} {}", targetType, targetId);
+    }
+
+    /**
+     * Run one claimed task and record the outcome
+     */
+    private void process(Long taskId) {
+        Optional<TranslationTask> taskOpt = translationTaskRepository.findById(taskId);
+        if (taskOpt.isEmpty()) {
+            return;
+        }
+        TranslationTask task = taskOpt.get();
+        try {
+            boolean done = task.getTargetType() == TranslationTask.TargetType.POST
+                    ? translatePost(task.getTargetId())
+                    : translateComment(task.getTargetId());
+            if (!done) {
+                throw new IllegalStateException("Translation incomplete");
+            }
+            task.setStatus(TranslationTask.Status.DONE);
+            task.setLastError(null);
+            completed.incrementAndGet();
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            task.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (task.getAttempts() >= maxAttempts) {
+                task.setStatus(TranslationTask.Status.FAILED);
+                markFailed(task);
+                failed.incrementAndGet();
+                log.error("❌ Translation of {} {} failed after {} attempts: {}",
+                        task.getTargetType(), task.getTargetId(), task.getAttempts(), error);
+            } else {
+                long delaySeconds = retryBaseSeconds << Math.min(10, task.getAttempts() - 1);
+                task.setStatus(TranslationTask.Status.PENDING);
+                task.setNextAttemptAt(new Date(System.currentTimeMillis() + delaySeconds * 1000));
+                retried.incrementAndGet();
+                log.warn("⚠️ Translation of {} {} failed (attempt {}), retrying in {} s: {}",
+                        task.getTargetType(), task.getTargetId(), task.getAttempts(), delaySeconds, error);
+            }
+        }
+        translationTaskRepository.save(task);
+    }
+
+    /**
+     * @return true when both language versions are available (or the post no longer exists)
+     */
+    private boolean translatePost(String postId) {
+        Optional<CommunityPost> postOpt = postRepository.findById(postId);
+        if (postOpt.isEmpty()) {
+            return true;
+        }
+        CommunityPost post = postOpt.get();
+        TranslationService.TranslationResult result =
+                translationService.translateContent(post.getTitle(), post.getBody(), post.getOriginalLanguage());
+        applyPostTranslation(post, result);
+        if (!hasText(post.getContentZh()) || !hasText(post.getContentEn())) {
+            return false;
+        }
+        // The LLM call can take minutes; write only the translation columns so that review
+        // decisions made meanwhile are not overwritten with the stale entity
+        postRepository.updateTranslation(postId, post.getTitleZh(), post.getContentZh(),
+                post.getTitleEn(), post.getContentEn(), TranslationStatus.COMPLETED);
+        // A bulk UPDATE bypasses the entity listener: index the translated text explicitly
+        postRepository.findById(postId).ifPresent(searchIndexService::indexPost);
+        log.info("✅ Background translation completed for post {}", postId);
+        return true;
+    }
+
+    private boolean translateComment(String commentId) {
+        Optional<Comment> commentOpt = commentRepository.findById(commentId);
+        if (commentOpt.isEmpty()) {
+            return true;
+        }
+        Comment comment = commentOpt.get();
+        TranslationService.TranslationResult result =
+                translationService.translateContent("", comment.getContent(), comment.getOriginalLanguage());
+        applyCommentTranslation(comment, result);
+        if (!hasText(comment.getContentZh()) || !hasText(comment.getContentEn())) {
+            return false;
+        }
+        commentRepository.updateTranslation(commentId, comment.getContentZh(), comment.getContentEn(),
+                TranslationStatus.COMPLETED);
+        log.info("✅ Background translation completed for comment {}", commentId);
+        return true;
+    }
+
+    private void markFailed(TranslationTask task) {
+        try {
+            if (task.getTargetType() == TranslationTask.TargetType.POST) {
+                postRepository.updateTranslationStatus(task.getTargetId(), TranslationStatus.FAILED);
+            } else {
+                commentRepository.updateTranslationStatus(task.getTargetId(), TranslationStatus.FAILED);
+            }
+        } catch (Exception e) {
+            log.error("Failed to mark translation of {} {} as failed: {}", task.getTargetType(), task.getTargetId(), e.getMessage());
+        }
+    }
+
+    private static boolean hasText(String text) {
+        return text != null && !text.trim().isEmpty();
+    }
+}
@@ -1,31 +1,61 @@
 package com.globalbuddy.service;
 
-import com.alibaba.dashscope.aigc.generation.Generation;
-import com.alibaba.dashscope.aigc.generation.models.QwenParam;
-import com.alibaba.dashscope.common.Message;
-import com.alibaba.dashscope.common.Role;
-import com.alibaba.dashscope.exception.ApiException;
 import com.alibaba.dashscope.exception.InputRequiredException;
 import com.alibaba.dashscope.exception.NoApiKeyException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalbuddy.util.LanguageGuess;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Translation Service
  * Uses Qwen-Max model to translate content between Chinese, English, and Thai
+ * Results are cached by content hash and language pair (see TranslationCache)
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class TranslationService {
 
-    @Value("${dashscope.api.key:}")
-    private String apiKey;
+    /**
+     * Version of the translation prompts, part of the cache key.
+     * Bump it whenever buildTranslationPrompt, buildBatchTranslationPrompt or FORMATTING_RULES
+     * change so stale translations are not reused.
+     */
+    public static final int PROMPT_VERSION = 1;
+
+    /**
+     * Rules 1-5 shared by the single-text and the batch prompt
+     */
+    private static final String FORMATTING_RULES =
+            "1. Translate ONLY the actual text content. Do NOT translate markdown formatting markers like **, emojis (📝, 📄, 🔗), or section headers like 'AI Summary', 'Detailed Content', 'Read Original', 'Source'.\n" +
+            "2. Keep ALL markdown formatting exactly as it is (**, ---, line breaks, etc.).\n" +
+            "3. Keep ALL emojis exactly as they are.\n" +
+            "4. Keep section headers like '**AI Summary**', '**News Summary**', '**Detailed Content**', '**Read Original**:', '**Source**:' exactly as they are.\n" +
+            "5. Only translate the actual content text between the formatting markers.\n";
 
-    private final Generation gen = new Generation();
+    private final TranslationCache translationCache;
+    private final LlmGateway llmGateway;
+    private final LanguageDetectionService languageDetectionService;
+
+    /**
+     * Text the language-ID model places in the target language with at least this
+     * confidence is not sent for translation (covers misdetected source languages)
+     */
+    @Value("${langid.skip-translation-confidence:0.95}")
+    private double skipTranslationConfidence;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * Translate text to Chinese
@@ -40,13 +70,20 @@ public class TranslationService {
         }
 
         // If already Chinese, return as is
-        if ("zh".equals(sourceLang)) {
+        if ("zh".equals(sourceLang) || isAlreadyIn(text, "zh")) {
             return text;
         }
 
+        Optional<String> cached = translationCache.get(text, sourceLang, "zh", PROMPT_VERSION);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
         try {
             String prompt = buildTranslationPrompt(text, sourceLang, "zh");
-            return callTranslationAPI(prompt);
+            String translated = callTranslationAPI(prompt);
+            translationCache.put(text, sourceLang, "zh", PROMPT_VERSION, translated);
+            return translated;
         } catch (Exception e) {
             log.error("Failed to translate to Chinese: {} - {}", text.substring(0, Math.min(50, text.length())), e.getMessage(), e);
             return null; // Return null on failure, will use fallback
@@ -66,13 +103,20 @@ public class TranslationService {
         }
 
         // If already English, return as is
-        if ("en".equals(sourceLang)) {
+        if ("en".equals(sourceLang) || isAlreadyIn(text, "en")) {
             return text;
         }
 
+        Optional<String> cached = translationCache.get(text, sourceLang, "en", PROMPT_VERSION);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
         try {
             String prompt = buildTranslationPrompt(text, sourceLang, "en");
-            return callTranslationAPI(prompt);
+            String translated = callTranslationAPI(prompt);
+            translationCache.put(text, sourceLang, "en", PROMPT_VERSION, translated);
+            return translated;
         } catch (Exception e) {
             log.error("Failed to translate to English: {} - {}", text.substring(0, Math.min(50, text.length())), e.getMessage(), e);
             return null; // Return null on failure, will use fallback
@@ -89,11 +133,7 @@ public class TranslationService {
         return String.format(
             "You are a professional translator. Translate the following text from %s to %s.\n\n" +
             "IMPORTANT RULES:\n" +
-            "1. Translate ONLY the actual text content. Do NOT translate markdown formatting markers like **, emojis (📝, 📄, 🔗), or section headers like 'AI Summary', 'Detailed Content', 'Read Original', 'Source'.\n" +
-            "2. Keep ALL markdown formatting exactly as it is (**, ---, line breaks, etc.).\n" +
-            "3. Keep ALL emojis exactly as they are.\n" +
-            "4. Keep section headers like '**AI Summary**', '**News Summary**', '**Detailed Content**', '**Read Original**:', '**Source**:' exactly as they are.\n" +
-            "5. Only translate the actual content text between the formatting markers.\n" +
+            FORMATTING_RULES +
             "6. Return ONLY the translated text with original formatting preserved. Do not add explanations or notes.\n\n" +
             "Text to translate:\n%s",
             sourceLangName, targetLangName, text
@@ -104,6 +144,9 @@ public class TranslationService {
      * Get language name in English
      */
     private String getLanguageName(String langCode) {
+        if (langCode == null) {
+            return "the original language";
+        }
         switch (langCode) {
             case "zh": return "Chinese";
             case "en": return "English";
@@ -113,30 +156,22 @@ public class TranslationService {
     }
 
     /**
-     * Call DashScope API for translation
+     * Call DashScope API for translation (background lane of the LLM gateway)
      */
-    private String callTranslationAPI(String prompt) throws NoApiKeyException, ApiException, InputRequiredException {
-        if (apiKey == null || apiKey.isEmpty()) {
-            log.error("DashScope API Key not configured");
-            throw new IllegalStateException("Please configure dashscope.api.key");
-        }
-
-        List<Message> messages = new ArrayList<>();
-        messages.add(Message.builder()
-                .role(Role.USER.getValue())
-                .content(prompt)
-                .build());
-
-        QwenParam param = QwenParam.builder()
-                .apiKey(apiKey)
-                .model("qwen-max-2025-01-25") // Updated model version
-                .messages(messages)
-                .resultFormat(QwenParam.ResultFormat.MESSAGE)
-                .temperature(0.3f) // Lower temperature for more accurate translation
-                .build();
+    private String callTranslationAPI(String prompt) throws NoApiKeyException, InputRequiredException {
+        return callTranslationAPI(prompt, "translation", List.of());
+    }
 
+    private String callTranslationAPI(String prompt, String purpose, List<String> jsonFields)
+            throws NoApiKeyException, InputRequiredException {
         log.info("Calling DashScope API for translation...");
-        String result = gen.call(param).getOutput().getChoices().get(0).getMessage().getContent();
+        String result = llmGateway.complete(LlmRequest.builder()
+                .lane(LlmRequest.Lane.BATCH)
+                .purpose(purpose)
+                .userPrompt(prompt)
+                .temperature(0.3f) // Lower temperature for more accurate translation
+                .jsonFields(jsonFields)
+                .build());
         log.info("Translation completed successfully");
         
         return result != null ? result.trim() : null;
@@ -144,6 +179,8 @@ public class TranslationService {
 
     /**
      * Translate both title and body to Chinese and English
+     * All missing fields are requested in one structured-JSON call; fields that are
+     * missing or empty in a malformed reply are translated one by one as a fallback.
      * 
      * @param title Original title
      * @param body Original body
@@ -153,7 +190,6 @@ public class TranslationService {
     public TranslationResult translateContent(String title, String body, String sourceLang) {
         TranslationResult result = new TranslationResult();
         
-        // Translate title and body separately for better accuracy
         String titleToTranslate = title != null ? title : "";
         String bodyToTranslate = body != null ? body : "";
         
@@ -161,93 +197,215 @@ public class TranslationService {
             return result;
         }
 
-        // Translate to Chinese
-        try {
-            if (!titleToTranslate.trim().isEmpty() && !"zh".equals(sourceLang)) {
-                String titleZh = translateToChinese(titleToTranslate, sourceLang);
-                if (titleZh != null && !titleZh.trim().isEmpty() && !titleZh.equals(titleToTranslate)) {
-                    result.setTitleZh(titleZh);
-                    log.debug("✅ Title translated to Chinese: {} -> {}", titleToTranslate.substring(0, Math.min(30, titleToTranslate.length())), titleZh.substring(0, Math.min(30, titleZh.length())));
-                } else {
-                    log.warn("⚠️ Title Chinese translation failed or same as original: {}", titleToTranslate.substring(0, Math.min(50, titleToTranslate.length())));
-                    result.setTitleZh(null); // Don't set if translation failed
-                }
-            } else if ("zh".equals(sourceLang)) {
-                result.setTitleZh(titleToTranslate); // Already Chinese
-            } else {
-                result.setTitleZh(null);
+        // Fields already in the source language are kept as they are
+        if ("zh".equals(sourceLang)) {
+            result.setTitleZh(titleToTranslate);
+            result.setBodyZh(bodyToTranslate);
+        }
+        if ("en".equals(sourceLang)) {
+            result.setTitleEn(titleToTranslate);
+            result.setBodyEn(bodyToTranslate);
+        }
+
+        // Remaining fields: served from the cache where possible, the rest go into one batched request
+        List<ContentField> pending = new ArrayList<>();
+        for (ContentField field : ContentField.values()) {
+            String text = field.isTitle() ? titleToTranslate : bodyToTranslate;
+            if (text.trim().isEmpty() || field.targetLang().equals(sourceLang)) {
+                continue;
             }
-            
-            if (!bodyToTranslate.trim().isEmpty() && !"zh".equals(sourceLang)) {
-                String bodyZh = translateToChinese(bodyToTranslate, sourceLang);
-                if (bodyZh != null && !bodyZh.trim().isEmpty() && !bodyZh.equals(bodyToTranslate)) {
-                    result.setBodyZh(bodyZh);
-                    log.debug("✅ Body translated to Chinese (length: {} -> {})", bodyToTranslate.length(), bodyZh.length());
-                } else {
-                    log.warn("⚠️ Body Chinese translation failed or same as original (length: {})", bodyToTranslate.length());
-                    result.setBodyZh(null); // Don't set if translation failed
-                }
-            } else if ("zh".equals(sourceLang)) {
-                result.setBodyZh(bodyToTranslate); // Already Chinese
-            } else {
-                result.setBodyZh(null);
+            if (isAlreadyIn(text, field.targetLang())) {
+                setField(result, field, text);
+                continue;
             }
-            
-            if (result.getBodyZh() != null) {
-                log.info("✅ Chinese translation completed successfully");
+            Optional<String> cached = translationCache.get(text, sourceLang, field.targetLang(), PROMPT_VERSION);
+            if (cached.isPresent()) {
+                applyTranslation(result, field, text, cached.get());
             } else {
-                log.warn("⚠️ Chinese translation not available");
+                pending.add(field);
             }
-        } catch (Exception e) {
-            log.error("❌ Exception during Chinese translation: {}", e.getMessage(), e);
-            result.setTitleZh(null);
-            result.setBodyZh(null);
         }
 
-        // Translate to English
-        try {
-            if (!titleToTranslate.trim().isEmpty() && !"en".equals(sourceLang)) {
-                String titleEn = translateToEnglish(titleToTranslate, sourceLang);
-                if (titleEn != null && !titleEn.trim().isEmpty() && !titleEn.equals(titleToTranslate)) {
-                    result.setTitleEn(titleEn);
-                    log.debug("✅ Title translated to English: {} -> {}", titleToTranslate.substring(0, Math.min(30, titleToTranslate.length())), titleEn.substring(0, Math.min(30, titleEn.length())));
-                } else {
-                    log.warn("⚠️ Title English translation failed or same as original: {}", titleToTranslate.substring(0, Math.min(50, titleToTranslate.length())));
-                    result.setTitleEn(null); // Don't set if translation failed
-                }
-            } else if ("en".equals(sourceLang)) {
-                result.setTitleEn(titleToTranslate); // Already English
-            } else {
-                result.setTitleEn(null);
+        if (!pending.isEmpty()) {
+            Map<ContentField, String> batch;
+            try {
+                batch = callBatchTranslation(titleToTranslate, bodyToTranslate, sourceLang, pending);
+            } catch (Exception e) {
+                // API unavailable: per-field calls would fail the same way
+                log.error("❌ Batched translation failed: {}", e.getMessage(), e);
+                return result;
             }
-            
-            if (!bodyToTranslate.trim().isEmpty() && !"en".equals(sourceLang)) {
-                String bodyEn = translateToEnglish(bodyToTranslate, sourceLang);
-                if (bodyEn != null && !bodyEn.trim().isEmpty() && !bodyEn.equals(bodyToTranslate)) {
-                    result.setBodyEn(bodyEn);
-                    log.debug("✅ Body translated to English (length: {} -> {})", bodyToTranslate.length(), bodyEn.length());
+
+            for (ContentField field : pending) {
+                String text = field.isTitle() ? titleToTranslate : bodyToTranslate;
+                String translated = batch.get(field);
+                if (translated != null) {
+                    translationCache.put(text, sourceLang, field.targetLang(), PROMPT_VERSION, translated);
                 } else {
-                    log.warn("⚠️ Body English translation failed or same as original (length: {})", bodyToTranslate.length());
-                    result.setBodyEn(null); // Don't set if translation failed
+                    log.warn("⚠️ {} missing from batched translation reply, translating it separately", field.jsonKey());
+                    translated = "zh".equals(field.targetLang())
+                            ? translateToChinese(text, sourceLang)
+                            : translateToEnglish(text, sourceLang);
                 }
-            } else if ("en".equals(sourceLang)) {
-                result.setBodyEn(bodyToTranslate); // Already English
-            } else {
-                result.setBodyEn(null);
+                applyTranslation(result, field, text, translated);
+            }
+        }
+
+        if (result.getBodyZh() == null) {
+            log.warn("⚠️ Chinese translation not available");
+        }
+        if (result.getBodyEn() == null) {
+            log.warn("⚠️ English translation not available");
+        }
+        return result;
+    }
+
+    /**
+     * Fields produced by translateContent
+     */
+    private enum ContentField {
+        TITLE_ZH("title_zh", true, "zh"),
+        BODY_ZH("body_zh", false, "zh"),
+        TITLE_EN("title_en", true, "en"),
+        BODY_EN("body_en", false, "en");
+
+        private final String jsonKey;
+        private final boolean title;
+        private final String targetLang;
+
+        ContentField(String jsonKey, boolean title, String targetLang) {
+            this.jsonKey = jsonKey;
+            this.title = title;
+            this.targetLang = targetLang;
+        }
+
+        String jsonKey() {
+            return jsonKey;
+        }
+
+        boolean isTitle() {
+            return title;
+        }
+
+        String targetLang() {
+            return targetLang;
+        }
+    }
+
+    /**
+     * Set a translated field, unless the translation failed or equals the original
+     */
+    private void applyTranslation(TranslationResult result, ContentField field, String original, String translated) {
+        if (translated == null || translated.trim().isEmpty() || translated.equals(original)) {
+            log.warn("⚠️ {} translation failed or same as original (length: {})", field.jsonKey(), original.length());
+            return;
+        }
+        setField(result, field, translated);
+        log.debug("✅ {} translated (length: {} -> {})", field.jsonKey(), original.length(), translated.length());
+    }
+
+    private static void setField(TranslationResult result, ContentField field, String value) {
+        switch (field) {
+            case TITLE_ZH -> result.setTitleZh(value);
+            case BODY_ZH -> result.setBodyZh(value);
+            case TITLE_EN -> result.setTitleEn(value);
+            case BODY_EN -> result.setBodyEn(value);
+        }
+    }
+
+    /**
+     * Whether the text is confidently already in the target language, whatever the caller
+     * passed as source language
+     */
+    private boolean isAlreadyIn(String text, String targetLang) {
+        LanguageGuess guess = languageDetectionService.identify(text);
+        if (!targetLang.equals(guess.language()) || guess.confidence() < skipTranslationConfidence) {
+            return false;
+        }
+        // Must agree with detectLanguage, which treats mixed text with Chinese characters as Chinese
+        if (!targetLang.equals(languageDetectionService.detectLanguage(text))) {
+            return false;
+        }
+        log.debug("Text already in {} (confidence {}), skipping translation", targetLang, guess.confidence());
+        return true;
+    }
+
+    /**
+     * Translate title and body into all requested fields with a single API call
+     *
+     * @return Translations by field; fields missing or empty in the reply are absent
+     */
+    private Map<ContentField, String> callBatchTranslation(String title, String body, String sourceLang,
+                                                           List<ContentField> fields) throws Exception {
+        List<String> keys = fields.stream().map(ContentField::jsonKey).toList();
+        String reply = callTranslationAPI(buildBatchTranslationPrompt(title, body, sourceLang, fields), "translation-batch", keys);
+
+        Map<ContentField, String> translations = new EnumMap<>(ContentField.class);
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(extractJsonObject(reply));
+        } catch (Exception e) {
+            log.warn("⚠️ Batched translation reply is not valid JSON: {}", e.getMessage());
+            return translations;
+        }
+        for (ContentField field : fields) {
+            JsonNode value = node.path(field.jsonKey());
+            if (value.isTextual() && !value.asText().trim().isEmpty()) {
+                translations.put(field, value.asText().trim());
             }
-            
-            if (result.getBodyEn() != null) {
-                log.info("✅ English translation completed successfully");
+        }
+        return translations;
+    }
+
+    /**
+     * Build the batched prompt: the translation rules once, the source fields as JSON,
+     * and the exact output keys to return
+     */
+    private String buildBatchTranslationPrompt(String title, String body, String sourceLang,
+                                               List<ContentField> fields) throws Exception {
+        Map<String, String> input = new LinkedHashMap<>();
+        Map<String, String> outputKeys = new LinkedHashMap<>();
+        for (ContentField field : fields) {
+            if (field.isTitle()) {
+                input.put("title", title);
             } else {
-                log.warn("⚠️ English translation not available");
+                input.put("body", body);
             }
-        } catch (Exception e) {
-            log.error("❌ Exception during English translation: {}", e.getMessage(), e);
-            result.setTitleEn(null);
-            result.setBodyEn(null);
+            outputKeys.put(field.jsonKey(), (field.isTitle() ? "title" : "body") + " translated to " + getLanguageName(field.targetLang()));
         }
 
-        return result;
+        return String.format(
+            "You are a professional translator. Translate the fields of the input JSON from %s.\n\n" +
+            "IMPORTANT RULES:\n" +
+            FORMATTING_RULES +
+            "6. Respond ONLY with a JSON object with exactly these string fields: %s. Do not add explanations or notes.\n\n" +
+            "Input JSON:\n%s",
+            getLanguageName(sourceLang),
+            objectMapper.writeValueAsString(outputKeys),
+            objectMapper.writeValueAsString(input)
+        );
+    }
+
+    /**
+     * Strip markdown code fences and anything around the outermost JSON object
+     */
+    static String extractJsonObject(String reply) {
+        if (reply == null) {
+            return "";
+        }
+        String cleaned = reply.trim();
+        if (cleaned.startsWith("```")) {
+            cleaned = cleaned.replaceFirst("^```[a-zA-Z0-9]*", "");
+        }
+        if (cleaned.endsWith("```")) {
+            cleaned = cleaned.substring(0, cleaned.lastIndexOf("```"));
+        }
+        int firstBrace = cleaned.indexOf('{');
+        int lastBrace = cleaned.lastIndexOf('}');
+        if (firstBrace >= 0 && lastBrace > firstBrace) {
+            cleaned = cleaned.substring(firstBrace, lastBrace + 1);
+        }
+        return cleaned.trim();
     }
 
     /**
@@ -0,0 +1,346 @@
+package com.globalbuddy.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate nearest-neighbour index over QuantizedVectors (HNSW graph, cosine similarity)
+ * Each node is linked to its closest neighbours on layer 0 and, with exponentially
+ * decreasing probability, on higher layers; a search descends greedily from the top layer
+ * and then explores layer 0 with a candidate list of size ef. Replaced or removed keys are
+ * tombstoned: they stay in the graph for navigation but are never returned, and
+ * {@link #tombstones()} tells the owner when a rebuild is worthwhile.
+ * Thread-safe: searches share a read lock, inserts take the write lock.
+ */
+public class HnswIndex {
+
+    private final int m;
+    private final int maxLayer0;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Integer> nodeByKey = new HashMap<>();
+    private int entryPoint = -1;
+    private int topLevel = -1;
+    private int tombstones;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param m              Links per node on the upper layers (twice as many on layer 0)
+     * @param efConstruction Candidate list size while inserting
+     */
+    public HnswIndex(int m, int efConstruction) {
+        this.m = Math.max(2, m);
+        this.maxLayer0 = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.levelFactor = 1.0 / Math.log(this.m);
+    }
+
+    /**
+     * Insert or replace the vector of a key
+     */
+    public void put(String key, QuantizedVector vector) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodeByKey.get(key);
+            if (previous != null) {
+                nodes.get(previous).deleted = true;
+                tombstones++;
+            }
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelFactor);
+            Node node = new Node(key, vector, level, m, maxLayer0);
+            int id = nodes.size();
+            nodes.add(node);
+            nodeByKey.put(key, id);
+
+            if (entryPoint < 0) {
+                entryPoint = id;
+                topLevel = level;
+                return;
+            }
+
+            int current = entryPoint;
+            for (int layer = topLevel; layer > level; layer--) {
+                current = greedyClosest(vector, current, layer);
+            }
+            for (int layer = Math.min(level, topLevel); layer >= 0; layer--) {
+                List<Candidate> candidates = searchLayer(vector, current, efConstruction, layer);
+                int maxLinks = layer == 0 ? maxLayer0 : m;
+                for (Candidate neighbour : selectNeighbours(candidates, m)) {
+                    node.link(layer, neighbour.node);
+                    link(neighbour.node, id, layer, maxLinks);
+                }
+                current = candidates.get(0).node;
+            }
+            if (level > topLevel) {
+                topLevel = level;
+                entryPoint = id;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a key; its node stays in the graph as a tombstone
+     */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Integer id = nodeByKey.remove(key);
+            if (id != null) {
+                nodes.get(id).deleted = true;
+                tombstones++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stored vector of a key, or null
+     */
+    public QuantizedVector get(String key) {
+        lock.readLock().lock();
+        try {
+            Integer id = nodeByKey.get(key);
+            return id != null ? nodes.get(id).vector : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate top-k most similar keys, best first
+     *
+     * @param ef Candidate list size; larger is more accurate and slower (at least k is used)
+     */
+    public List<Hit> search(QuantizedVector query, int k, int ef) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return Collections.emptyList();
+            }
+            int current = entryPoint;
+            for (int layer = topLevel; layer > 0; layer--) {
+                current = greedyClosest(query, current, layer);
+            }
+            // Ask for extra candidates so tombstones do not eat into the k results
+            List<Candidate> candidates = searchLayer(query, current, Math.max(ef, k) + Math.min(tombstones, k), 0);
+            List<Hit> hits = new ArrayList<>(k);
+            for (Candidate candidate : candidates) {
+                Node node = nodes.get(candidate.node);
+                if (!node.deleted) {
+                    hits.add(new Hit(node.key, candidate.similarity));
+                    if (hits.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of live keys
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of replaced or removed nodes still in the graph
+     */
+    public int tombstones() {
+        lock.readLock().lock();
+        try {
+            return tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Live keys and vectors, used to rebuild without tombstones
+     */
+    public Map<String, QuantizedVector> entries() {
+        lock.readLock().lock();
+        try {
+            Map<String, QuantizedVector> entries = new HashMap<>(nodeByKey.size() * 2);
+            nodeByKey.forEach((key, id) -> entries.put(key, nodes.get(id).vector));
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int greedyClosest(QuantizedVector query, int start, int layer) {
+        int current = start;
+        float best = query.dot(nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            int[] links = node.links[layer];
+            for (int i = 0; i < node.linkCount[layer]; i++) {
+                float similarity = query.dot(nodes.get(links[i]).vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = links[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer
+     *
+     * @return Up to ef closest nodes, most similar first
+     */
+    private List<Candidate> searchLayer(QuantizedVector query, int start, int ef, int layer) {
+        BitSet visited = new BitSet(nodes.size());
+        visited.set(start);
+        Candidate first = new Candidate(start, query.dot(nodes.get(start).vector));
+        // Frontier: most similar first; results: least similar first, so the worst is evicted
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>((a, b) -> Float.compare(b.similarity, a.similarity));
+        PriorityQueue<Candidate> results = new PriorityQueue<>((a, b) -> Float.compare(a.similarity, b.similarity));
+        frontier.add(first);
+        results.add(first);
+
+        while (!frontier.isEmpty()) {
+            Candidate candidate = frontier.poll();
+            if (results.size() >= ef && candidate.similarity < results.peek().similarity) {
+                break;
+            }
+            Node node = nodes.get(candidate.node);
+            int[] links = node.links[layer];
+            for (int i = 0; i < node.linkCount[layer]; i++) {
+                int neighbour = links[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float similarity = query.dot(nodes.get(neighbour).vector);
+                if (results.size() < ef || similarity > results.peek().similarity) {
+                    Candidate next = new Candidate(neighbour, similarity);
+                    frontier.add(next);
+                    results.add(next);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(results);
+        ordered.sort((a, b) -> Float.compare(b.similarity, a.similarity));
+        return ordered;
+    }
+
+    /**
+     * Neighbour selection heuristic: a candidate is kept only if it is closer to the base node
+     * than to every neighbour kept so far, which spreads links across clusters instead of
+     * spending them all on one; remaining slots are filled with the closest skipped candidates
+     *
+     * @param candidates Candidates sorted by similarity to the base node, most similar first
+     */
+    private List<Candidate> selectNeighbours(List<Candidate> candidates, int limit) {
+        List<Candidate> selected = new ArrayList<>(limit);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            QuantizedVector vector = nodes.get(candidate.node).vector;
+            boolean diverse = true;
+            for (Candidate kept : selected) {
+                if (vector.dot(nodes.get(kept.node).vector) > candidate.similarity) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < limit; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Add a back link; when the list is full, re-select the node's links from the old ones plus the new one
+     */
+    private void link(int from, int to, int layer, int maxLinks) {
+        Node node = nodes.get(from);
+        if (node.linkCount[layer] < maxLinks) {
+            node.link(layer, to);
+            return;
+        }
+        int[] links = node.links[layer];
+        List<Candidate> candidates = new ArrayList<>(maxLinks + 1);
+        for (int i = 0; i < maxLinks; i++) {
+            candidates.add(new Candidate(links[i], node.vector.dot(nodes.get(links[i]).vector)));
+        }
+        candidates.add(new Candidate(to, node.vector.dot(nodes.get(to).vector)));
+        candidates.sort((a, b) -> Float.compare(b.similarity, a.similarity));
+        List<Candidate> selected = selectNeighbours(candidates, maxLinks);
+        node.linkCount[layer] = 0;
+        for (Candidate candidate : selected) {
+            node.link(layer, candidate.node);
+        }
+    }
+
+    private static final class Node {
+        final String key;
+        final QuantizedVector vector;
+        final int[][] links;
+        final int[] linkCount;
+        boolean deleted;
+
+        Node(String key, QuantizedVector vector, int level, int m, int maxLayer0) {
+            this.key = key;
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            this.linkCount = new int[level + 1];
+            for (int layer = 0; layer <= level; layer++) {
+                links[layer] = new int[layer == 0 ? maxLayer0 : m];
+            }
+        }
+
+        void link(int layer, int to) {
+            links[layer][linkCount[layer]++] = to;
+        }
+    }
+
+    private record Candidate(int node, float similarity) {
+    }
+
+    public record Hit(String key, double score) {
+    }
+}
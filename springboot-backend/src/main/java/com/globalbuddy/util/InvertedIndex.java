@@ -0,0 +1,352 @@
+package com.globalbuddy.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with BM25 ranking
+ * Documents are identified by a string key and given as TermVectors of weighted term
+ * frequencies (so fields like the title can count more than the body). Postings are parallel
+ * primitive arrays per term, found by term id (see TermDictionary) with an array lookup.
+ * Updating or removing a document only marks its old slot as deleted; the slots are reclaimed
+ * by compaction once deleted slots outnumber live ones. Thread-safe: searches share a read
+ * lock, updates take the write lock.
+ */
+public final class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_COMPACTION_SLOTS = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Postings[] postings = new Postings[1024];
+    private int termCount;
+    private final Map<String, Integer> slotByKey = new HashMap<>();
+    private String[] keys = new String[64];
+    private float[] lengths = new float[64];
+    private int[][] slotTerms = new int[64][];
+    private final BitSet deleted = new BitSet();
+    private int slots;
+    private int liveDocs;
+    private double totalLength;
+
+    /**
+     * Search hit
+     */
+    public record Hit(String key, double score) {
+    }
+
+    /**
+     * Add or replace a document
+     *
+     * @param key   Document key
+     * @param terms Term id -> weighted frequency
+     */
+    public void put(String key, TermVector terms) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            maybeCompact();
+            if (terms.isEmpty()) {
+                return;
+            }
+            int slot = slots++;
+            ensureCapacity(slots);
+            float length = 0;
+            for (int i = 0; i < terms.size(); i++) {
+                postingsFor(terms.termId(i)).add(slot, terms.weight(i));
+                length += terms.weight(i);
+            }
+            keys[slot] = key;
+            lengths[slot] = length;
+            slotTerms[slot] = terms.termIds();
+            slotByKey.put(key, slot);
+            liveDocs++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all documents
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings = new Postings[1024];
+            termCount = 0;
+            slotByKey.clear();
+            keys = new String[64];
+            lengths = new float[64];
+            slotTerms = new int[64][];
+            deleted.clear();
+            slots = 0;
+            liveDocs = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * BM25 search
+     *
+     * @param queryTerms Term id -> query weight (e.g. lower for synonym expansions)
+     * @param limit      Maximum number of hits
+     * @return Hits with a positive score, best first
+     */
+    public List<Hit> search(TermVector queryTerms, int limit) {
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0 || limit <= 0) {
+                return List.of();
+            }
+            double avgLength = totalLength / liveDocs;
+            float[] scores = new float[slots];
+            BitSet touched = new BitSet(slots);
+
+            for (int q = 0; q < queryTerms.size(); q++) {
+                int termId = queryTerms.termId(q);
+                Postings list = termId < postings.length ? postings[termId] : null;
+                if (list == null || list.liveDf == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (liveDocs - list.liveDf + 0.5) / (list.liveDf + 0.5));
+                double weight = idf * queryTerms.weight(q);
+                for (int i = 0; i < list.size; i++) {
+                    int slot = list.slots[i];
+                    if (deleted.get(slot)) {
+                        continue;
+                    }
+                    float tf = list.weights[i];
+                    double norm = K1 * (1 - B + B * lengths[slot] / avgLength);
+                    scores[slot] += (float) (weight * tf * (K1 + 1) / (tf + norm));
+                    touched.set(slot);
+                }
+            }
+            return topK(scores, touched, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of live documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct terms
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Select the best hits with a bounded min-heap (O(n log k))
+     */
+    private List<Hit> topK(float[] scores, BitSet touched, int limit) {
+        int[] heap = new int[Math.min(limit, touched.cardinality())];
+        int heapSize = 0;
+        for (int slot = touched.nextSetBit(0); slot >= 0; slot = touched.nextSetBit(slot + 1)) {
+            if (scores[slot] <= 0) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++, scores);
+            } else if (heapSize > 0 && scores[slot] > scores[heap[0]]) {
+                heap[0] = slot;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+        Hit[] hits = new Hit[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int slot = heap[0];
+            hits[i] = new Hit(keys[slot], scores[slot]);
+            heap[0] = heap[i];
+            siftDown(heap, i, scores);
+        }
+        return List.of(hits);
+    }
+
+    private static void siftUp(int[] heap, int index, float[] scores) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[heap[parent]] <= scores[slot]) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int slot = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && scores[heap[child + 1]] < scores[heap[child]]) {
+                child++;
+            }
+            if (scores[slot] <= scores[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private void removeLocked(String key) {
+        Integer slot = slotByKey.remove(key);
+        if (slot == null) {
+            return;
+        }
+        deleted.set(slot);
+        for (int termId : slotTerms[slot]) {
+            postings[termId].liveDf--;
+        }
+        slotTerms[slot] = null;
+        keys[slot] = null;
+        liveDocs--;
+        totalLength -= lengths[slot];
+    }
+
+    private void maybeCompact() {
+        int deletedSlots = slots - liveDocs;
+        if (deletedSlots > MIN_COMPACTION_SLOTS && deletedSlots > liveDocs) {
+            compact();
+        }
+    }
+
+    /**
+     * Drop deleted slots from all postings and renumber the live ones
+     */
+    private void compact() {
+        int[] remap = new int[slots];
+        int next = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (deleted.get(slot)) {
+                remap[slot] = -1;
+            } else {
+                remap[slot] = next;
+                keys[next] = keys[slot];
+                lengths[next] = lengths[slot];
+                slotTerms[next] = slotTerms[slot];
+                slotByKey.put(keys[next], next);
+                next++;
+            }
+        }
+        for (int slot = next; slot < slots; slot++) {
+            keys[slot] = null;
+            slotTerms[slot] = null;
+        }
+        for (int termId = 0; termId < postings.length; termId++) {
+            Postings list = postings[termId];
+            if (list == null) {
+                continue;
+            }
+            list.retain(remap);
+            if (list.size == 0) {
+                postings[termId] = null;
+                termCount--;
+            }
+        }
+        slots = next;
+        deleted.clear();
+    }
+
+    private Postings postingsFor(int termId) {
+        if (termId >= postings.length) {
+            postings = Arrays.copyOf(postings, Math.max(termId + 1, postings.length * 2));
+        }
+        Postings list = postings[termId];
+        if (list == null) {
+            list = new Postings();
+            postings[termId] = list;
+            termCount++;
+        }
+        return list;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= keys.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, keys.length * 2);
+        keys = Arrays.copyOf(keys, newCapacity);
+        lengths = Arrays.copyOf(lengths, newCapacity);
+        slotTerms = Arrays.copyOf(slotTerms, newCapacity);
+    }
+
+    /**
+     * Postings of one term: slot numbers in ascending order and their term weights
+     */
+    private static final class Postings {
+        int[] slots = new int[4];
+        float[] weights = new float[4];
+        int size;
+        int liveDf;
+
+        void add(int slot, float weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size] = weight;
+            size++;
+            liveDf++;
+        }
+
+        void retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int slot = remap[slots[i]];
+                if (slot >= 0) {
+                    slots[kept] = slot;
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.globalbuddy.util;
+
+/**
+ * Result of statistical language identification
+ *
+ * @param language   Language code (zh/en/th ...), "unknown" if the text has no letters
+ * @param confidence Probability of the language in [0, 1]
+ */
+public record LanguageGuess(String language, double confidence) {
+
+    public static final LanguageGuess UNKNOWN = new LanguageGuess("unknown", 0);
+
+    public boolean isConfident(double minConfidence) {
+        return !"unknown".equals(language) && confidence >= minConfidence;
+    }
+}
@@ -0,0 +1,184 @@
+package com.globalbuddy.util;
+
+import java.util.Map;
+
+/**
+ * Character n-gram language identifier
+ * Every language is a table of smoothed log-probabilities of hashed character 1- to 3-grams
+ * (plus the Unicode script of each character), held in one float array per language
+ * (2^bucketBits entries). Scoring a text is a single pass over its code points; the
+ * per-language log-likelihoods are turned into probabilities with a temperature-scaled
+ * softmax. The probability is further scaled by how many of the text's features the winning
+ * language has seen at all, so text in a script none of the languages knows (e.g. Korean)
+ * gets a low confidence instead of a random winner.
+ */
+public final class NgramLanguageModel {
+
+    private static final int MAX_ORDER = 3;
+    private static final int BOUNDARY = ' ';
+
+    private final String[] languages;
+    private final int mask;
+    private final float[][] logProbs;
+    private final float[] unseenLogProbs;
+    private final double temperature;
+
+    private NgramLanguageModel(String[] languages, int mask, float[][] logProbs, float[] unseenLogProbs, double temperature) {
+        this.languages = languages;
+        this.mask = mask;
+        this.logProbs = logProbs;
+        this.unseenLogProbs = unseenLogProbs;
+        this.temperature = temperature;
+    }
+
+    /**
+     * Build the model from sample text per language
+     *
+     * @param samples     Language code -> sample text
+     * @param bucketBits  Hash table size as a power of two
+     * @param temperature Softmax temperature (higher = less confident)
+     */
+    public static NgramLanguageModel train(Map<String, String> samples, int bucketBits, double temperature) {
+        int buckets = 1 << bucketBits;
+        String[] languages = samples.keySet().toArray(new String[0]);
+        float[][] logProbs = new float[languages.length][];
+        float[] unseenLogProbs = new float[languages.length];
+        double alpha = 0.5;
+
+        for (int l = 0; l < languages.length; l++) {
+            int[] counts = new int[buckets];
+            long total = forEachNgram(samples.get(languages[l]), buckets - 1, counts, null);
+            double denominator = total + alpha * buckets;
+            float[] table = new float[buckets];
+            for (int b = 0; b < buckets; b++) {
+                table[b] = (float) Math.log((counts[b] + alpha) / denominator);
+            }
+            logProbs[l] = table;
+            unseenLogProbs[l] = (float) Math.log(alpha / denominator);
+        }
+        return new NgramLanguageModel(languages, buckets - 1, logProbs, unseenLogProbs, temperature);
+    }
+
+    public String[] languages() {
+        return languages.clone();
+    }
+
+    /**
+     * Identify the language of a text
+     */
+    public LanguageGuess identify(String text) {
+        double[] scores = new double[languages.length];
+        int[] seen = new int[languages.length];
+        long features = forEachNgram(text, mask, null, (bucket) -> {
+            for (int l = 0; l < languages.length; l++) {
+                float logProb = logProbs[l][bucket];
+                scores[l] += logProb;
+                if (logProb > unseenLogProbs[l]) {
+                    seen[l]++;
+                }
+            }
+        });
+        if (features == 0) {
+            return LanguageGuess.UNKNOWN;
+        }
+
+        int best = 0;
+        for (int l = 1; l < scores.length; l++) {
+            if (scores[l] > scores[best]) {
+                best = l;
+            }
+        }
+        // Softmax relative to the best score (numerically stable)
+        double sum = 0;
+        for (double score : scores) {
+            sum += Math.exp((score - scores[best]) / temperature);
+        }
+        double posterior = 1.0 / sum;
+        double coverage = (double) seen[best] / features;
+        return new LanguageGuess(languages[best], posterior * Math.min(1.0, coverage / 0.5));
+    }
+
+    @FunctionalInterface
+    private interface BucketConsumer {
+        void accept(int bucket);
+    }
+
+    /**
+     * Walk the script features and 1- to 3-grams of the normalized text: letters and combining marks are
+     * lower-cased, everything else becomes a single word boundary
+     *
+     * @return Number of n-grams
+     */
+    private static long forEachNgram(String text, int mask, int[] counts, BucketConsumer consumer) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        long features = 0;
+        int prev2 = BOUNDARY;
+        int prev1 = BOUNDARY;
+        for (int i = 0; i <= text.length(); ) {
+            int cp;
+            if (i < text.length()) {
+                cp = text.codePointAt(i);
+                i += Character.charCount(cp);
+                cp = isWordChar(cp) ? Character.toLowerCase(cp) : BOUNDARY;
+            } else {
+                cp = BOUNDARY; // closing boundary after the last word
+                i++;
+            }
+            if (cp == BOUNDARY && prev1 == BOUNDARY) {
+                continue;
+            }
+            for (int order = 0; order <= MAX_ORDER; order++) {
+                int hash;
+                if (order == 0) {
+                    // Unicode script of the character, so characters missing from the samples still vote for their script
+                    if (cp == BOUNDARY) {
+                        continue;
+                    }
+                    hash = mix(Character.UnicodeScript.of(cp).ordinal(), 0, 0, 0);
+                } else if (order == 1) {
+                    if (cp == BOUNDARY) {
+                        continue;
+                    }
+                    hash = mix(cp, 0, 0, 1);
+                } else if (order == 2) {
+                    hash = mix(prev1, cp, 0, 2);
+                } else {
+                    if (prev1 == BOUNDARY) {
+                        continue; // "x y" style trigrams across a boundary carry no signal
+                    }
+                    hash = mix(prev2, prev1, cp, 3);
+                }
+                int bucket = hash & mask;
+                if (counts != null) {
+                    counts[bucket]++;
+                }
+                if (consumer != null) {
+                    consumer.accept(bucket);
+                }
+                features++;
+            }
+            prev2 = prev1;
+            prev1 = cp;
+        }
+        return features;
+    }
+
+    private static boolean isWordChar(int cp) {
+        if (Character.isLetter(cp)) {
+            return true;
+        }
+        int type = Character.getType(cp);
+        // Thai vowels and tone marks are combining marks
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static int mix(int a, int b, int c, int order) {
+        int h = order * 0x9E3779B9;
+        h = (h ^ a) * 0x85EBCA6B;
+        h = (h ^ b) * 0xC2B2AE35;
+        h = (h ^ c) * 0x27D4EB2F;
+        return h ^ (h >>> 15);
+    }
+}
@@ -0,0 +1,66 @@
+package com.globalbuddy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long text into passages for retrieval
+ * Paragraphs are packed together up to maxChars; a longer paragraph is cut after the last
+ * sentence end (。！？.!? or a line break) that fits, or hard at maxChars when there is none.
+ * The result depends only on the text, so a passage can be found again by its position.
+ */
+public final class PassageSplitter {
+
+    private PassageSplitter() {
+    }
+
+    public static List<String> split(String text, int maxChars) {
+        List<String> passages = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return passages;
+        }
+        StringBuilder current = new StringBuilder();
+        for (String paragraph : text.split("\\n\\s*\\n")) {
+            String trimmed = paragraph.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (current.length() > 0 && current.length() + 1 + trimmed.length() > maxChars) {
+                passages.add(current.toString());
+                current.setLength(0);
+            }
+            while (trimmed.length() > maxChars) {
+                int cut = sentenceEnd(trimmed, maxChars);
+                passages.add(trimmed.substring(0, cut).trim());
+                trimmed = trimmed.substring(cut).trim();
+            }
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (current.length() > 0) {
+                current.append('\n');
+            }
+            current.append(trimmed);
+        }
+        if (current.length() > 0) {
+            passages.add(current.toString());
+        }
+        return passages;
+    }
+
+    /**
+     * End of the last sentence within the first maxChars characters, or maxChars
+     */
+    private static int sentenceEnd(String text, int maxChars) {
+        for (int i = maxChars - 1; i > maxChars / 2; i--) {
+            switch (text.charAt(i)) {
+                case '。', '！', '？', '.', '!', '?', '\n':
+                    return i + 1;
+                default:
+                    break;
+            }
+        }
+        // Do not cut a surrogate pair in half
+        return Character.isHighSurrogate(text.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+    }
+}
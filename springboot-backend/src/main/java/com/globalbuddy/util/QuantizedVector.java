@@ -0,0 +1,111 @@
+package com.globalbuddy.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Unit-length vector stored as int8 with one float scale (value = byte * scale)
+ * A quarter of the size of float32 and accurate enough for cosine ranking of embeddings.
+ * Text form, as kept in the posts.embedding column: "q8:&lt;source hash&gt;:&lt;base64&gt;", where
+ * the source hash identifies the text the vector was computed from and the base64 payload
+ * is the float scale followed by the bytes.
+ */
+public final class QuantizedVector {
+
+    private static final String PREFIX = "q8:";
+
+    private final byte[] values;
+    private final float scale;
+
+    private QuantizedVector(byte[] values, float scale) {
+        this.values = values;
+        this.scale = scale;
+    }
+
+    /**
+     * Normalize to unit length and quantize
+     */
+    public static QuantizedVector of(float[] vector) {
+        double norm = 0;
+        float max = 0;
+        for (float v : vector) {
+            norm += (double) v * v;
+            max = Math.max(max, Math.abs(v));
+        }
+        byte[] values = new byte[vector.length];
+        if (norm == 0) {
+            return new QuantizedVector(values, 0f);
+        }
+        float scaleToUnit = (float) (1.0 / Math.sqrt(norm));
+        float step = max * scaleToUnit / 127f;
+        for (int i = 0; i < vector.length; i++) {
+            values[i] = (byte) Math.round(vector[i] * scaleToUnit / step);
+        }
+        return new QuantizedVector(values, step);
+    }
+
+    public int dimensions() {
+        return values.length;
+    }
+
+    /**
+     * Dot product, i.e. cosine similarity since both vectors are unit length
+     */
+    public float dot(QuantizedVector other) {
+        byte[] a = values;
+        byte[] b = other.values;
+        int n = Math.min(a.length, b.length);
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum * scale * other.scale;
+    }
+
+    /**
+     * Text form for the database
+     *
+     * @param sourceHash Short hash of the embedded text, used to detect stale vectors
+     */
+    public String encode(String sourceHash) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + values.length);
+        buffer.putFloat(scale).put(values);
+        return PREFIX + sourceHash + ":" + Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    /**
+     * Parse the text form
+     *
+     * @return null when the value is empty or not in this format
+     */
+    public static QuantizedVector decode(String encoded) {
+        if (encoded == null || !encoded.startsWith(PREFIX)) {
+            return null;
+        }
+        int separator = encoded.indexOf(':', PREFIX.length());
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded.substring(separator + 1)));
+            float scale = buffer.getFloat();
+            byte[] values = new byte[buffer.remaining()];
+            buffer.get(values);
+            return new QuantizedVector(values, scale);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Source hash of the text form, or null when the value is not in this format
+     */
+    public static String sourceHashOf(String encoded) {
+        if (encoded == null || !encoded.startsWith(PREFIX)) {
+            return null;
+        }
+        int separator = encoded.indexOf(':', PREFIX.length());
+        return separator < 0 ? null : encoded.substring(PREFIX.length(), separator);
+    }
+}
@@ -0,0 +1,103 @@
+package com.globalbuddy.util;
+
+/**
+ * Single-pass script scanner
+ * Counts scripts by Unicode range with primitive counters; no regex and no allocation
+ * besides the returned ScriptStats.
+ */
+public final class ScriptScanner {
+
+    private ScriptScanner() {
+    }
+
+    /**
+     * Collect the script statistics of a text in one pass over its code points
+     */
+    public static ScriptStats scan(String text) {
+        if (text == null || text.isEmpty()) {
+            return ScriptStats.EMPTY;
+        }
+        int letters = 0;
+        int han = 0;
+        int thai = 0;
+        int latin = 0;
+        int words = 0;
+        int chineseCommonMask = 0;
+        boolean inWord = false;
+
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+
+            if (Character.isWhitespace(cp)) {
+                inWord = false;
+                continue;
+            }
+            if (!inWord) {
+                words++;
+                inWord = true;
+            }
+            if (!Character.isLetter(cp) && !Character.isIdeographic(cp)) {
+                continue;
+            }
+            letters++;
+            if (isHan(cp)) {
+                han++;
+                chineseCommonMask |= chineseCommonBit(cp);
+            } else if (isThai(cp)) {
+                thai++;
+            } else if ((cp >= 'a' && cp <= 'z') || (cp >= 'A' && cp <= 'Z')) {
+                latin++;
+            }
+        }
+        return new ScriptStats(letters, han, thai, latin, words, Integer.bitCount(chineseCommonMask));
+    }
+
+    /**
+     * Whether the text has any Thai character, stops at the first one
+     */
+    public static boolean hasThai(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (isThai(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * CJK Unified Ideographs
+     */
+    public static boolean isHan(int cp) {
+        return cp >= 0x4E00 && cp <= 0x9FFF;
+    }
+
+    /**
+     * Thai block
+     */
+    public static boolean isThai(int cp) {
+        return cp >= 0x0E00 && cp <= 0x0E7F;
+    }
+
+    /**
+     * Bit of a common Chinese character (的 是 在 我 有 和 了 不 人 这), 0 for others
+     */
+    private static int chineseCommonBit(int cp) {
+        switch (cp) {
+            case '的': return 1;
+            case '是': return 1 << 1;
+            case '在': return 1 << 2;
+            case '我': return 1 << 3;
+            case '有': return 1 << 4;
+            case '和': return 1 << 5;
+            case '了': return 1 << 6;
+            case '不': return 1 << 7;
+            case '人': return 1 << 8;
+            case '这': return 1 << 9;
+            default: return 0;
+        }
+    }
+}
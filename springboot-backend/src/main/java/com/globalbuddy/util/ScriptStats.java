@@ -0,0 +1,87 @@
+package com.globalbuddy.util;
+
+/**
+ * Script statistics of a text, collected in one pass by {@link ScriptScanner#scan(String)}
+ * Letters are code points that are letters or ideographs; Han, Thai and Latin are counted
+ * by Unicode range.
+ */
+public final class ScriptStats {
+
+    static final ScriptStats EMPTY = new ScriptStats(0, 0, 0, 0, 0, 0);
+
+    private final int letters;
+    private final int han;
+    private final int thai;
+    private final int latin;
+    private final int words;
+    private final int chineseCommonWords;
+
+    ScriptStats(int letters, int han, int thai, int latin, int words, int chineseCommonWords) {
+        this.letters = letters;
+        this.han = han;
+        this.thai = thai;
+        this.latin = latin;
+        this.words = words;
+        this.chineseCommonWords = chineseCommonWords;
+    }
+
+    public int getLetters() {
+        return letters;
+    }
+
+    /**
+     * CJK Unified Ideographs (U+4E00..U+9FFF)
+     */
+    public int getHan() {
+        return han;
+    }
+
+    /**
+     * Thai block (U+0E00..U+0E7F)
+     */
+    public int getThai() {
+        return thai;
+    }
+
+    /**
+     * ASCII letters a-z, A-Z
+     */
+    public int getLatin() {
+        return latin;
+    }
+
+    /**
+     * Whitespace-separated tokens
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Number of distinct common Chinese characters (的, 是, 在 ...) present
+     */
+    public int getChineseCommonWords() {
+        return chineseCommonWords;
+    }
+
+    public double hanRatio() {
+        return letters == 0 ? 0 : (double) han / letters;
+    }
+
+    public double thaiRatio() {
+        return letters == 0 ? 0 : (double) thai / letters;
+    }
+
+    /**
+     * Latin letters per word (the English signal used by detection)
+     */
+    public double latinPerWord() {
+        return words == 0 ? 0 : (double) latin / words;
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptStats{letters=" + letters + ", han=" + han + ", thai=" + thai + ", latin=" + latin
+                + ", words=" + words + ", chineseCommonWords=" + chineseCommonWords + "}";
+    }
+}
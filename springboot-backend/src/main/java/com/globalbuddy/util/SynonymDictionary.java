@@ -0,0 +1,144 @@
+package com.globalbuddy.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled synonym groups
+ * Every phrase of every group is analyzed once into term ids, and an inverted map from term
+ * id to the phrases containing it is built, so finding the groups that occur in a query
+ * costs one lookup per query term instead of a scan over the whole dictionary.
+ * Immutable; a reload compiles a new instance.
+ */
+public final class SynonymDictionary {
+
+    public static final SynonymDictionary EMPTY = new SynonymDictionary(new int[0][], new int[0], new int[0][], Map.of());
+
+    private final int[][] phraseTerms;
+    private final int[] phraseGroup;
+    private final int[][] groupPhrases;
+    private final Map<Integer, int[]> phrasesByTerm;
+
+    private SynonymDictionary(int[][] phraseTerms, int[] phraseGroup, int[][] groupPhrases, Map<Integer, int[]> phrasesByTerm) {
+        this.phraseTerms = phraseTerms;
+        this.phraseGroup = phraseGroup;
+        this.groupPhrases = groupPhrases;
+        this.phrasesByTerm = phrasesByTerm;
+    }
+
+    /**
+     * @param groups   Groups of interchangeable words or phrases
+     * @param analyzer The analyzer used for queries, so phrases become the same term ids
+     */
+    public static SynonymDictionary compile(List<List<String>> groups, TextAnalyzer analyzer) {
+        List<int[]> phrases = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        List<int[]> members = new ArrayList<>();
+        for (List<String> group : groups) {
+            int groupId = members.size();
+            List<Integer> phraseIds = new ArrayList<>();
+            for (String phrase : group) {
+                int[] terms = analyzer.vector(phrase).termIds();
+                if (terms.length > 0) {
+                    phraseIds.add(phrases.size());
+                    phrases.add(terms);
+                    owners.add(groupId);
+                }
+            }
+            if (phraseIds.size() < 2) {
+                // Nothing to expand to; drop the phrases registered for it
+                for (int i = 0; i < phraseIds.size(); i++) {
+                    phrases.remove(phrases.size() - 1);
+                    owners.remove(owners.size() - 1);
+                }
+                continue;
+            }
+            members.add(phraseIds.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        Map<Integer, List<Integer>> byTerm = new HashMap<>();
+        for (int phrase = 0; phrase < phrases.size(); phrase++) {
+            for (int termId : phrases.get(phrase)) {
+                List<Integer> list = byTerm.computeIfAbsent(termId, id -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1).intValue() != phrase) {
+                    list.add(phrase);
+                }
+            }
+        }
+        Map<Integer, int[]> phrasesByTerm = new HashMap<>(byTerm.size() * 2);
+        byTerm.forEach((termId, list) -> phrasesByTerm.put(termId, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new SynonymDictionary(phrases.toArray(new int[0][]),
+                owners.stream().mapToInt(Integer::intValue).toArray(),
+                members.toArray(new int[0][]),
+                phrasesByTerm);
+    }
+
+    public int groupCount() {
+        return groupPhrases.length;
+    }
+
+    /**
+     * Groups that occur in the terms, i.e. one of their phrases has all its terms present
+     *
+     * @return For each such group, the id of the group and of the phrase found
+     */
+    public List<Match> find(TermVector terms) {
+        List<Match> matches = new ArrayList<>();
+        boolean[] seenGroup = null;
+        for (int i = 0; i < terms.size(); i++) {
+            int[] candidates = phrasesByTerm.get(terms.termId(i));
+            if (candidates == null) {
+                continue;
+            }
+            for (int phrase : candidates) {
+                int group = phraseGroup[phrase];
+                if (seenGroup != null && seenGroup[group]) {
+                    continue;
+                }
+                if (containsAll(terms, phraseTerms[phrase])) {
+                    if (seenGroup == null) {
+                        seenGroup = new boolean[groupPhrases.length];
+                    }
+                    seenGroup[group] = true;
+                    matches.add(new Match(group, phrase));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Term ids of every phrase of a group
+     */
+    public int[][] phrases(int group) {
+        int[] ids = groupPhrases[group];
+        int[][] phrases = new int[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            phrases[i] = phraseTerms[ids[i]];
+        }
+        return phrases;
+    }
+
+    /**
+     * Term ids of one phrase
+     */
+    public int[] phraseTerms(int phrase) {
+        return Arrays.copyOf(phraseTerms[phrase], phraseTerms[phrase].length);
+    }
+
+    public static boolean containsAll(TermVector terms, int[] phrase) {
+        for (int termId : phrase) {
+            if (!terms.contains(termId)) {
+                return false;
+            }
+        }
+        return phrase.length > 0;
+    }
+
+    public record Match(int group, int phrase) {
+    }
+}
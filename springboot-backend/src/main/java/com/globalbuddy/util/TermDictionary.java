@@ -0,0 +1,93 @@
+package com.globalbuddy.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns analyzed terms as dense int ids, so postings, term vectors and scoring work on
+ * ints and arrays instead of strings and hash maps. Ids are never reused. The dictionary is
+ * capped: once full, new terms get {@link #UNKNOWN} and simply never match (logged once); a
+ * search index rebuild starts over with a fresh dictionary. Only indexing
+ * calls {@link #intern(String)}; queries use {@link #lookup(String)}, so arbitrary query
+ * text never grows it.
+ * Thread-safe: lookups are lock-free, only new terms synchronize.
+ */
+@Slf4j
+public final class TermDictionary {
+
+    public static final int UNKNOWN = -1;
+
+    private final int maxTerms;
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] terms = new String[1024];
+    private int size;
+    private volatile boolean full;
+
+    public TermDictionary(int maxTerms) {
+        this.maxTerms = Math.max(1, maxTerms);
+    }
+
+    /**
+     * Id of a term, assigning a new one if needed
+     *
+     * @return The id, or UNKNOWN when the dictionary is full
+     */
+    public int intern(String term) {
+        Integer id = ids.get(term);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(term);
+            if (id != null) {
+                return id;
+            }
+            if (size >= maxTerms) {
+                if (!full) {
+                    full = true;
+                    log.warn("Term dictionary is full ({} terms), new terms are not indexed until the search index is rebuilt",
+                            maxTerms);
+                }
+                return UNKNOWN;
+            }
+            if (size == terms.length) {
+                terms = Arrays.copyOf(terms, size * 2);
+            }
+            terms[size] = term;
+            ids.put(term, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Id of a known term, or UNKNOWN
+     */
+    public int lookup(String term) {
+        Integer id = ids.get(term);
+        return id != null ? id : UNKNOWN;
+    }
+
+    /**
+     * Term text of an id
+     */
+    public String term(int id) {
+        return terms[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public int maxTerms() {
+        return maxTerms;
+    }
+
+    /**
+     * Whether a term has been refused because the dictionary is full
+     */
+    public boolean isFull() {
+        return full;
+    }
+}
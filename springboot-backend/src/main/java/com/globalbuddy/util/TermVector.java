@@ -0,0 +1,134 @@
+package com.globalbuddy.util;
+
+import java.util.Arrays;
+
+/**
+ * Weighted bag of term ids, the output of TextAnalyzer for one document or query
+ * Adding the same term again sums the weights. Backed by parallel primitive arrays with an
+ * open-addressing index; not thread-safe, build one per document or query.
+ */
+public final class TermVector {
+
+    private int[] ids = new int[16];
+    private float[] weights = new float[16];
+    private int size;
+    private int[] table = newTable(32);
+
+    /**
+     * Add weight to a term (UNKNOWN ids are ignored)
+     */
+    public void add(int termId, float weight) {
+        if (termId < 0) {
+            return;
+        }
+        int index = indexOf(termId);
+        if (index >= 0) {
+            weights[index] += weight;
+            return;
+        }
+        append(termId, weight);
+    }
+
+    /**
+     * Add a term with the given weight unless it is already present
+     */
+    public void addIfAbsent(int termId, float weight) {
+        if (termId >= 0 && indexOf(termId) < 0) {
+            append(termId, weight);
+        }
+    }
+
+    public boolean contains(int termId) {
+        return termId >= 0 && indexOf(termId) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Term id of the i-th entry (insertion order)
+     */
+    public int termId(int i) {
+        return ids[i];
+    }
+
+    public float weight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Sum of all weights (the document length for BM25)
+     */
+    public float totalWeight() {
+        float total = 0;
+        for (int i = 0; i < size; i++) {
+            total += weights[i];
+        }
+        return total;
+    }
+
+    public int[] termIds() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    private void append(int termId, float weight) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        ids[size] = termId;
+        weights[size] = weight;
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insert(table, size - 1);
+        }
+    }
+
+    private int indexOf(int termId) {
+        int mask = table.length - 1;
+        for (int slot = mix(termId) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry < 0) {
+                return -1;
+            }
+            if (ids[entry] == termId) {
+                return entry;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = newTable(capacity);
+        for (int i = 0; i < size; i++) {
+            insert(newTable, i);
+        }
+        table = newTable;
+    }
+
+    private void insert(int[] target, int entry) {
+        int mask = target.length - 1;
+        int slot = mix(ids[entry]) & mask;
+        while (target[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        target[slot] = entry;
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, -1);
+        return table;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
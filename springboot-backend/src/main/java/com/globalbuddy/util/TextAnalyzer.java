@@ -0,0 +1,205 @@
+package com.globalbuddy.util;
+
+import java.text.BreakIterator;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Shared analysis chain for search indexing and query scoring
+ * Text is NFKC-normalized (full-width letters and digits become ASCII) and split into runs:
+ * - Latin/digit words are lower-cased; English stop words are dropped
+ * - Chinese has no spaces between words: every run yields overlapping character bigrams,
+ *   which match any word regardless of how the text around it segments, plus the longer
+ *   dictionary words (3+ characters) found by forward maximum matching; a single character
+ *   stays a unigram
+ * - Thai has no spaces either and is split into words with the JDK's dictionary-based
+ *   Thai BreakIterator
+ * Terms are interned in a TermDictionary, so indexing and scoring compare int ids. Only
+ * indexed text (and dictionary data such as synonyms) interns new terms; queries and texts
+ * that are only scored go through {@link #queryVector(String)}, which looks terms up.
+ * The dictionary can be replaced (see {@link #useDictionary(TermDictionary)}), so a rebuild of
+ * the search index can drop the terms that are no longer indexed.
+ * Thread-safe.
+ */
+public final class TextAnalyzer {
+
+    private static final Locale THAI = new Locale("th");
+    private static final ThreadLocal<BreakIterator> THAI_WORDS = ThreadLocal.withInitial(() -> BreakIterator.getWordInstance(THAI));
+
+    private volatile TermDictionary dictionary;
+    private final Set<String> chineseWords;
+    private final int maxWordLength;
+    private final Set<String> stopWords;
+
+    /**
+     * @param chineseWords Lexicon for maximum matching (words shorter than 3 characters are covered by bigrams)
+     * @param stopWords    Lower-case Latin words that are not indexed
+     * @param maxTerms     Capacity of the term dictionary
+     */
+    public TextAnalyzer(Collection<String> chineseWords, Collection<String> stopWords, int maxTerms) {
+        this.dictionary = new TermDictionary(maxTerms);
+        this.chineseWords = new HashSet<>(chineseWords);
+        this.maxWordLength = chineseWords.stream().mapToInt(String::length).max().orElse(0);
+        this.stopWords = new HashSet<>(stopWords);
+    }
+
+    public TermDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * An empty dictionary with the same capacity, to index into before {@link #useDictionary(TermDictionary)}
+     */
+    public TermDictionary newDictionary() {
+        return new TermDictionary(dictionary.maxTerms());
+    }
+
+    /**
+     * Replace the dictionary; term ids from the previous one must no longer be used
+     */
+    public void useDictionary(TermDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Terms of a text in order
+     */
+    public List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        analyze(text, terms::add);
+        return terms;
+    }
+
+    /**
+     * Add the terms of a text to a vector, each with the given weight, interning new terms
+     * (for indexing)
+     */
+    public void addTo(TermVector vector, String text, float weight) {
+        addTo(dictionary, vector, text, weight);
+    }
+
+    /**
+     * Same as {@link #addTo(TermVector, String, float)}, interning into the given dictionary
+     */
+    public void addTo(TermDictionary target, TermVector vector, String text, float weight) {
+        analyze(text, term -> vector.add(target.intern(term), weight));
+    }
+
+    /**
+     * Term vector of a text with weight 1 per occurrence, interning new terms (for indexing)
+     */
+    public TermVector vector(String text) {
+        TermVector vector = new TermVector();
+        addTo(vector, text, 1.0f);
+        return vector;
+    }
+
+    /**
+     * Term vector of a query or of a text that is only scored, with weight 1 per occurrence
+     * Terms are looked up, never interned: a term the dictionary has not seen occurs in no
+     * indexed document and is left out, so query traffic cannot fill the dictionary.
+     */
+    public TermVector queryVector(String text) {
+        TermVector vector = new TermVector();
+        TermDictionary current = dictionary;
+        analyze(text, term -> vector.add(current.lookup(term), 1.0f));
+        return vector;
+    }
+
+    /**
+     * Run the analysis chain
+     */
+    public void analyze(String text, Consumer<String> sink) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            int cp = normalized.codePointAt(i);
+            int end;
+            if (ScriptScanner.isHan(cp)) {
+                end = runEnd(normalized, i, ScriptScanner::isHan);
+                chinese(normalized.substring(i, end), sink);
+            } else if (ScriptScanner.isThai(cp)) {
+                end = runEnd(normalized, i, c -> ScriptScanner.isThai(c) || Character.getType(c) == Character.NON_SPACING_MARK);
+                thai(normalized.substring(i, end), sink);
+            } else if (Character.isLetterOrDigit(cp)) {
+                end = runEnd(normalized, i, c -> Character.isLetterOrDigit(c) && !ScriptScanner.isHan(c) && !ScriptScanner.isThai(c));
+                String word = normalized.substring(i, end).toLowerCase(Locale.ROOT);
+                if (!stopWords.contains(word)) {
+                    sink.accept(word);
+                }
+            } else {
+                end = i + Character.charCount(cp);
+            }
+            i = end;
+        }
+    }
+
+    private void chinese(String run, Consumer<String> sink) {
+        int chars = run.codePointCount(0, run.length());
+        if (chars == 1) {
+            sink.accept(run);
+            return;
+        }
+        int start = 0;
+        for (int n = 0; n < chars - 1; n++) {
+            int second = run.offsetByCodePoints(start, 1);
+            sink.accept(run.substring(start, run.offsetByCodePoints(second, 1)));
+            start = second;
+        }
+        if (maxWordLength < 3) {
+            return;
+        }
+        // Forward maximum matching; only words longer than a bigram add information
+        int position = 0;
+        while (position < run.length()) {
+            int matched = 0;
+            for (int len = Math.min(maxWordLength, run.length() - position); len >= 3; len--) {
+                if (chineseWords.contains(run.substring(position, position + len))) {
+                    matched = len;
+                    break;
+                }
+            }
+            if (matched > 0) {
+                sink.accept(run.substring(position, position + matched));
+                position += matched;
+            } else {
+                position += Character.charCount(run.codePointAt(position));
+            }
+        }
+    }
+
+    private static void thai(String run, Consumer<String> sink) {
+        BreakIterator words = THAI_WORDS.get();
+        words.setText(run);
+        int start = words.first();
+        for (int end = words.next(); end != BreakIterator.DONE; start = end, end = words.next()) {
+            String word = run.substring(start, end);
+            if (!word.isBlank()) {
+                sink.accept(word);
+            }
+        }
+    }
+
+    private static int runEnd(String text, int start, IntPredicate inRun) {
+        int i = start;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            if (!inRun.test(cp)) {
+                break;
+            }
+            i += Character.charCount(cp);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,56 @@
+package com.globalbuddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * False positive rate of the URL-hash Bloom filter at its design capacity
+ */
+class BloomFilterTest {
+
+    private static final int EXPECTED = 20_000;
+    private static final double TARGET_RATE = 0.01;
+    private static final int PROBES = 100_000;
+
+    @Test
+    void addedKeysAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(EXPECTED, TARGET_RATE);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.put(urlHash("https://news.example.com/article/" + i));
+        }
+        for (int i = 0; i < EXPECTED; i++) {
+            assertTrue(filter.mightContain(urlHash("https://news.example.com/article/" + i)), "false negative for " + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(EXPECTED, TARGET_RATE);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.put(urlHash("https://news.example.com/article/" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < PROBES; i++) {
+            if (filter.mightContain(urlHash("https://other.example.com/post/" + i))) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / PROBES;
+        assertTrue(rate < TARGET_RATE * 1.5, "false positive rate " + rate);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(EXPECTED, TARGET_RATE);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(filter.mightContain(urlHash("https://news.example.com/article/" + i)));
+        }
+    }
+
+    private static String urlHash(String url) {
+        return HashUtils.sha256Hex(url);
+    }
+}
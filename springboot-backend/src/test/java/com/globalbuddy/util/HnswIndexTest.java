@@ -0,0 +1,135 @@
+package com.globalbuddy.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recall of the HNSW index against a brute-force scan, after inserts, replacements and removals
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 64;
+    private static final int POINTS = 2000;
+    private static final int QUERIES = 50;
+    private static final int K = 10;
+    private static final int EF_SEARCH = 64;
+    private static final double MIN_RECALL = 0.9;
+
+    private final SplittableRandom random = new SplittableRandom(7);
+    private HnswIndex index;
+    /** What the index should contain: key -> current vector */
+    private Map<String, QuantizedVector> live;
+
+    @BeforeEach
+    void setUp() {
+        index = new HnswIndex(16, 100);
+        live = new HashMap<>();
+        for (int i = 0; i < POINTS; i++) {
+            put("p" + i, randomVector());
+        }
+    }
+
+    @Test
+    void insertsAreFoundLikeBruteForce() {
+        assertEquals(POINTS, index.size());
+        assertEquals(0, index.tombstones());
+        assertTrue(recall() >= MIN_RECALL, "recall after inserts");
+    }
+
+    @Test
+    void replacedVectorsAreTombstonedAndSearchedByTheirNewValue() {
+        for (int i = 0; i < 300; i++) {
+            put("p" + i, randomVector());
+        }
+
+        assertEquals(POINTS, index.size());
+        assertEquals(300, index.tombstones());
+        assertSame(live.get("p0"), index.get("p0"));
+        assertTrue(recall() >= MIN_RECALL, "recall after replacements");
+
+        // The replaced vector itself is its own nearest neighbour
+        QuantizedVector replaced = live.get("p5");
+        List<HnswIndex.Hit> hits = index.search(replaced, 1, EF_SEARCH);
+        assertEquals("p5", hits.get(0).key());
+    }
+
+    @Test
+    void removedKeysAreNeverReturned() {
+        Set<String> removed = new HashSet<>();
+        for (int i = 0; i < POINTS; i += 4) {
+            String key = "p" + i;
+            index.remove(key);
+            live.remove(key);
+            removed.add(key);
+        }
+
+        assertEquals(POINTS - removed.size(), index.size());
+        assertEquals(removed.size(), index.tombstones());
+        for (int q = 0; q < QUERIES; q++) {
+            index.search(randomVector(), K, EF_SEARCH)
+                    .forEach(hit -> assertFalse(removed.contains(hit.key()), "removed key returned: " + hit.key()));
+        }
+        assertTrue(recall() >= MIN_RECALL, "recall after removals");
+    }
+
+    @Test
+    void rebuildFromEntriesDropsTombstones() {
+        for (int i = 0; i < 500; i++) {
+            index.remove("p" + i);
+            live.remove("p" + i);
+        }
+
+        HnswIndex rebuilt = new HnswIndex(16, 100);
+        index.entries().forEach(rebuilt::put);
+        index = rebuilt;
+
+        assertEquals(live.size(), index.size());
+        assertEquals(0, index.tombstones());
+        assertTrue(recall() >= MIN_RECALL, "recall after rebuild");
+    }
+
+    private double recall() {
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            QuantizedVector query = randomVector();
+            Set<String> expected = live.entrySet().stream()
+                    .sorted(Comparator.comparingDouble((Map.Entry<String, QuantizedVector> e) -> -query.dot(e.getValue())))
+                    .limit(K)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+            for (HnswIndex.Hit hit : index.search(query, K, EF_SEARCH)) {
+                if (expected.contains(hit.key())) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (QUERIES * K);
+    }
+
+    private void put(String key, QuantizedVector vector) {
+        index.put(key, vector);
+        live.put(key, vector);
+    }
+
+    private QuantizedVector randomVector() {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+        }
+        return QuantizedVector.of(vector);
+    }
+}
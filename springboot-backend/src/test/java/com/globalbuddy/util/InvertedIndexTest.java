@@ -0,0 +1,92 @@
+package com.globalbuddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Top-k selection and ordering of BM25 hits
+ */
+class InvertedIndexTest {
+
+    private static final int TERMS = 200;
+
+    @Test
+    void topKMatchesThePrefixOfTheFullRanking() {
+        Random random = new Random(11);
+        InvertedIndex index = new InvertedIndex();
+        for (int doc = 0; doc < 1000; doc++) {
+            index.put("d" + doc, randomTerms(random, 5 + random.nextInt(30)));
+        }
+
+        for (int q = 0; q < 50; q++) {
+            TermVector query = randomTerms(random, 1 + random.nextInt(4));
+            List<InvertedIndex.Hit> all = index.search(query, Integer.MAX_VALUE);
+            assertDescending(all);
+            for (int k : new int[]{1, 5, 10, 50}) {
+                List<InvertedIndex.Hit> top = index.search(query, k);
+                assertEquals(Math.min(k, all.size()), top.size());
+                for (int i = 0; i < top.size(); i++) {
+                    assertEquals(all.get(i).score(), top.get(i).score(), 0.0, "score at rank " + i + " of top " + k);
+                }
+            }
+        }
+    }
+
+    @Test
+    void higherTermFrequencyRanksFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.put("once", terms(1, 1f, 2, 1f));
+        index.put("twice", terms(1, 2f, 2, 1f));
+        index.put("other", terms(3, 1f, 4, 1f));
+
+        List<InvertedIndex.Hit> hits = index.search(terms(1, 1f), 10);
+
+        assertEquals(2, hits.size());
+        assertEquals("twice", hits.get(0).key());
+        assertEquals("once", hits.get(1).key());
+    }
+
+    @Test
+    void replacedAndRemovedDocumentsAreNotReturned() {
+        InvertedIndex index = new InvertedIndex();
+        index.put("a", terms(1, 1f));
+        index.put("b", terms(1, 1f));
+        index.put("c", terms(1, 1f));
+        index.put("b", terms(2, 1f));
+        index.remove("c");
+
+        List<InvertedIndex.Hit> hits = index.search(terms(1, 1f), 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("a", hits.get(0).key());
+        assertEquals(2, index.size());
+    }
+
+    private static void assertDescending(List<InvertedIndex.Hit> hits) {
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score(), "hits out of order at rank " + i);
+            assertTrue(hits.get(i).score() > 0);
+        }
+    }
+
+    private static TermVector randomTerms(Random random, int count) {
+        TermVector terms = new TermVector();
+        for (int i = 0; i < count; i++) {
+            terms.add(random.nextInt(TERMS), 0.5f + random.nextFloat());
+        }
+        return terms;
+    }
+
+    private static TermVector terms(Object... idWeightPairs) {
+        TermVector terms = new TermVector();
+        for (int i = 0; i < idWeightPairs.length; i += 2) {
+            terms.add((Integer) idWeightPairs[i], (Float) idWeightPairs[i + 1]);
+        }
+        return terms;
+    }
+}